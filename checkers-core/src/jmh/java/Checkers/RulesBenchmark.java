@@ -0,0 +1,132 @@
+package Checkers;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Micro-benchmarks of the rules code: move generation, making and unmaking moves, evaluation and hashing.
+// Each benchmark runs over a fixed set of positions taken from random games, so that captures, kings and
+// --> crowded and empty boards are all represented. Run with: gradle jmh
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RulesBenchmark {
+
+    private static final int POSITIONS = 1024;
+
+    @Param({"1"})
+    public long seed;
+
+    private Position[] positions;
+    private long[] firstMoves; // A legal move of each position, Move.NONE if it has none
+    private final long[] moves = new long[MoveGenerator.MAX_MOVES];
+    private final Position scratch = new Position();
+    private final UndoStack undo = new UndoStack();
+    private final int[] weights = Evaluation.defaultWeights();
+    private final int[] features = new int[Evaluation.FEATURES];
+    private final Perft perft = new Perft(4);
+    private NeuralEvaluator neural; // A 128-unit network with random weights: the speed does not depend on them
+    private int next;
+
+    @Setup
+    public void setup() {
+        java.util.Random random = new java.util.Random(seed);
+        positions = new Position[POSITIONS];
+        firstMoves = new long[POSITIONS];
+        Position p = Position.start();
+        for (int i = 0; i < POSITIONS; i++) {
+            int count = MoveGenerator.generate(p, moves);
+            if (count == 0) {
+                p = Position.start();
+                count = MoveGenerator.generate(p, moves);
+            }
+            positions[i] = p.copy();
+            firstMoves[i] = moves[0];
+            p.apply(moves[random.nextInt(count)]);
+        }
+
+        int hidden = 128;
+        short[] weights = new short[NeuralNetwork.FEATURES * hidden];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (short) (random.nextInt(81) - 40);
+        }
+        short[] output = new short[2 * hidden];
+        for (int i = 0; i < output.length; i++) {
+            output[i] = (short) (random.nextInt(129) - 64);
+        }
+        neural = new NeuralEvaluator(new NeuralNetwork(hidden, weights, new short[hidden], output, 0, 64));
+    }
+
+    // Steps through the positions in turn
+    private int nextIndex() {
+        next = (next + 1) & (POSITIONS - 1);
+        return next;
+    }
+
+    @Benchmark
+    public int generateMoves() {
+        return MoveGenerator.generate(positions[nextIndex()], moves);
+    }
+
+    @Benchmark
+    public long makeMove() {
+        int i = nextIndex();
+        scratch.copyFrom(positions[i]);
+        scratch.apply(firstMoves[i]);
+        return scratch.getHash();
+    }
+
+    @Benchmark
+    public long makeUnmakeMove() {
+        Position p = positions[nextIndex()];
+        long hash = 0;
+        int count = MoveGenerator.generate(p, moves);
+        for (int i = 0; i < count; i++) {
+            p.makeMove(moves[i], undo);
+            hash ^= p.getHash();
+            p.unmakeMove(undo);
+        }
+        return hash;
+    }
+
+    @Benchmark
+    public int evaluate() {
+        return Evaluation.evaluate(positions[nextIndex()], weights, features);
+    }
+
+    // Output layer only, as at a leaf of the search
+    @Benchmark
+    public int evaluateNeural() {
+        return neural.evaluate(positions[nextIndex()]);
+    }
+
+    // Incremental first-layer update and evaluation for a move, then taking it back. The accumulators are not those
+    // of p, which does not change the work done.
+    @Benchmark
+    public int makeEvaluateUnmakeNeural() {
+        int i = nextIndex();
+        Position p = positions[i];
+        neural.makeMove(p, firstMoves[i]);
+        int score = neural.evaluate(p);
+        neural.unmakeMove();
+        return score;
+    }
+
+    @Benchmark
+    public long hashFromScratch() {
+        Position p = positions[nextIndex()];
+        return Zobrist.compute(p.getWhite(), p.getBlack(), p.getKings(), p.getSideToMove());
+    }
+
+    @Benchmark
+    public long perftDepth4() {
+        return perft.count(positions[nextIndex()], 4);
+    }
+}
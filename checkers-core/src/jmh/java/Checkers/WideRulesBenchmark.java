@@ -0,0 +1,57 @@
+package Checkers;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Micro-benchmark of WideMoveGenerator for each ruleset, over positions taken from random games. Random games
+// --> on the wide boards soon produce kings, so flying-king steps and captures are well represented.
+// Run with: gradle jmh
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class WideRulesBenchmark {
+
+    private static final int POSITIONS = 1024;
+
+    @Param({"ENGLISH", "INTERNATIONAL", "CANADIAN"})
+    public String rules;
+
+    private WidePosition[] positions;
+    private WideMoveGenerator generator;
+    private final WideMoveList moves = new WideMoveList();
+    private int next;
+
+    @Setup
+    public void setup() {
+        Ruleset ruleset = Ruleset.valueOf(rules);
+        java.util.Random random = new java.util.Random(1);
+        generator = new WideMoveGenerator(ruleset);
+        positions = new WidePosition[POSITIONS];
+        WidePosition p = WidePosition.start(ruleset);
+        for (int i = 0; i < POSITIONS; i++) {
+            generator.generate(p, moves);
+            if (moves.size() == 0) {
+                p = WidePosition.start(ruleset);
+                generator.generate(p, moves);
+            }
+            positions[i] = p.copy();
+            int m = random.nextInt(moves.size());
+            p.apply(moves.getFrom(m), moves.getTo(m), moves.getCapturedLo(m), moves.getCapturedHi(m));
+        }
+    }
+
+    @Benchmark
+    public int generateMoves() {
+        next = (next + 1) & (POSITIONS - 1);
+        generator.generate(positions[next], moves);
+        return moves.size();
+    }
+}
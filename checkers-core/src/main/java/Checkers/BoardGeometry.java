@@ -0,0 +1,86 @@
+// General Description
+// Package: Checkers
+// Purpose: The layout of the dark squares of a board of any even width, and lookup tables for moving over it.
+// Squares are numbered as on the 8x8 board (see Position): square s is on row y = s / (width / 2), on even rows
+// --> the dark squares are the odd columns and on odd rows the even columns.
+// The tables are built once per board: the neighbour in each direction, and the whole ray of squares in each
+// --> direction, which is what flying kings move along. Directions are those of MoveGenerator.
+// Methods:
+// square(x, y), squareX(), squareY() to convert between squares and board coordinates.
+// neighbour(square, direction) and ray(square, direction) for the tables.
+
+package Checkers;
+
+import java.util.Arrays;
+
+public final class BoardGeometry {
+
+    private static final int[] DX = {-1, 1, -1, 1};
+    private static final int[] DY = {1, 1, -1, -1};
+
+    private final int width;
+    private final int squares;
+    private final int[] neighbours; // Indexed by square << 2 | direction; -1 off the board
+    private final int[][] rays; // Indexed by square << 2 | direction: the squares along the diagonal, nearest first
+
+    // Constructor: Builds the tables of a width x width board
+    public BoardGeometry(int width) {
+        this.width = width;
+        this.squares = width * width / 2;
+        this.neighbours = new int[squares * 4];
+        this.rays = new int[squares * 4][];
+        int[] ray = new int[width];
+        for (int square = 0; square < squares; square++) {
+            for (int dir = 0; dir < 4; dir++) {
+                int length = 0;
+                int x = squareX(square) + DX[dir];
+                int y = squareY(square) + DY[dir];
+                while (square(x, y) >= 0) {
+                    ray[length++] = square(x, y);
+                    x += DX[dir];
+                    y += DY[dir];
+                }
+                rays[square << 2 | dir] = Arrays.copyOf(ray, length);
+                neighbours[square << 2 | dir] = length > 0 ? ray[0] : -1;
+            }
+        }
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    // Returns the number of playable squares
+    public int getSquares() {
+        return squares;
+    }
+
+    // Returns the square at board coordinate (x,y), or -1 if it is a light square or off the board
+    public int square(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= width || (x + y) % 2 == 0) {
+            return -1;
+        }
+        return y * (width / 2) + x / 2;
+    }
+
+    // Returns the board x-coordinate (column) of a square
+    public int squareX(int square) {
+        int perRow = width / 2;
+        return (square % perRow) * 2 + ((square / perRow) % 2 == 0 ? 1 : 0);
+    }
+
+    // Returns the board y-coordinate (row) of a square
+    public int squareY(int square) {
+        return square / (width / 2);
+    }
+
+    // Returns the square next to the given one in a direction, or -1 if that would leave the board
+    public int neighbour(int square, int direction) {
+        return neighbours[square << 2 | direction];
+    }
+
+    // Returns the squares along the diagonal from a square in a direction, nearest first (the table itself: do not modify)
+    public int[] ray(int square, int direction) {
+        return rays[square << 2 | direction];
+    }
+}
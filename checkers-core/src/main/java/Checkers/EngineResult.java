@@ -0,0 +1,67 @@
+// General Description
+// Package: Checkers
+// Purpose: A snapshot of what EngineService has found for one request: the best move of the deepest completed
+// --> depth so far, or the final answer once the search is over.
+// Snapshots are immutable, so the engine thread can hand a new one to the drawing thread with a single atomic
+// --> store and the drawing thread can read it without locking.
+// Methods:
+// getRequest() identifies the request (as returned by EngineService), getHash() the position searched.
+// getMove(), getScore(), getDepth() and getNodes() describe the result; isFinished() tells whether it is final.
+
+package Checkers;
+
+public final class EngineResult {
+
+    private final long request;
+    private final long hash; // Hash of the position that was searched
+    private final long move; // Best move found, Move.NONE if there is none (yet)
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final boolean finished; // True once the search has ended, stopped or not
+
+    // Constructor: Creates a snapshot of a search's progress
+    public EngineResult(long request, long hash, long move, int score, int depth, long nodes, boolean finished) {
+        this.request = request;
+        this.hash = hash;
+        this.move = move;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.finished = finished;
+    }
+
+    public long getRequest() {
+        return request;
+    }
+
+    public long getHash() {
+        return hash;
+    }
+
+    public long getMove() {
+        return move;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    @Override
+    public String toString() {
+        return "request " + request + ": " + (move == Move.NONE ? "-" : Move.toString(move)) + " score " + score
+                + " depth " + depth + " nodes " + nodes + (finished ? " (final)" : "");
+    }
+}
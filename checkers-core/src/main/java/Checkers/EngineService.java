@@ -0,0 +1,206 @@
+// General Description
+// Package: Checkers
+// Purpose: Runs the computer player in the background, so whoever asks for a move (the Processing draw thread)
+// --> never waits for it.
+// Requests run one at a time on the engine's own thread, which drives a ParallelSearch using every core but one;
+// --> that core is left for the caller. A new request stops the one in progress, and cancel() stops it outright and
+// --> waits until the engine thread is idle, so settings such as setNetwork() can be changed safely after it.
+// Progress is published as an immutable EngineResult in an AtomicReference: the search stores a new snapshot each
+// --> time it completes a depth and a final one when it ends, and poll() reads the latest without locking, so the
+// --> draw thread can check for an answer every frame.
+// Pondering: while the opponent thinks, ponder() searches the position after the reply the engine expects, taken
+// --> from the transposition table. Whatever the opponent plays, the next think() starts with a table full of
+// --> results from that search, and reaches deeper in its time when the expected reply was played.
+// Methods:
+// think(Position, maxDepth, timeMillis) to choose a move, analyse(Position) to search until cancelled, ponder(Position).
+// Each also has an overload taking the GameHistory of the game so far, so that the search knows which moves repeat.
+// poll() for the latest result, cancel(), isBusy(), and shutdown() to stop the threads.
+
+package Checkers;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class EngineService {
+
+    public static final long UNLIMITED_MILLIS = 3_600_000L; // Time given to searches that run until cancelled
+
+    private final ParallelSearch search;
+    private final ExecutorService executor;
+    private final AtomicLong latestRequest = new AtomicLong(); // The request that should be running; older ones stop
+    private final AtomicReference<EngineResult> result = new AtomicReference<>(); // Latest snapshot, null at first
+    private final AtomicLong busyRequest = new AtomicLong(); // The request still searching, 0 when idle
+
+    // Constructor: Creates an engine searching on every core but one, with a table of the given size
+    public EngineService(int tableMegabytes) {
+        this(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), tableMegabytes);
+    }
+
+    // Constructor: Creates an engine searching on the given number of threads
+    public EngineService(int threads, int tableMegabytes) {
+        this.search = new ParallelSearch(threads, tableMegabytes);
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "engine");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Start choosing a move for the side to move, stopping whatever the engine was doing.
+     * @param root The position to search; it is copied, so the caller may go on changing its own
+     * @param maxDepth Maximum depth to search to, in plies
+     * @param timeMillis Time budget of the search
+     * @return The request number, found in every EngineResult it publishes
+     */
+    public long think(Position root, int maxDepth, long timeMillis) {
+        return think(root, null, maxDepth, timeMillis);
+    }
+
+    // As think(Position, int, long), for the last position of a game (copied, like the position; null for none)
+    public long think(Position root, GameHistory game, int maxDepth, long timeMillis) {
+        return submit(root.copy(), copy(game), maxDepth, timeMillis);
+    }
+
+    // Start searching the position until cancelled, publishing the best move of every depth; returns the request number
+    public long analyse(Position root) {
+        return analyse(root, null);
+    }
+
+    // As analyse(Position), for the last position of a game
+    public long analyse(Position root, GameHistory game) {
+        return submit(root.copy(), copy(game), Search.MAX_PLY, UNLIMITED_MILLIS);
+    }
+
+    // Start pondering while the side to move (the opponent) thinks: search the position after its expected reply,
+    // --> or the position itself if none is expected yet. Returns the request number.
+    public long ponder(Position root) {
+        return ponder(root, null);
+    }
+
+    // As ponder(Position), for the last position of a game
+    public long ponder(Position root, GameHistory game) {
+        Position target = root.copy();
+        GameHistory targetGame = copy(game);
+        long reply = expectedReply(target);
+        if (reply != Move.NONE) {
+            if (targetGame != null) {
+                targetGame.play(target, reply);
+            } else {
+                target.apply(reply);
+            }
+        }
+        return submit(target, targetGame, Search.MAX_PLY, UNLIMITED_MILLIS);
+    }
+
+    // Returns a copy of the game for the engine thread to own, or null
+    private static GameHistory copy(GameHistory game) {
+        return game == null ? null : game.copy();
+    }
+
+    // Returns the move the transposition table holds for a position, if it is legal there, else Move.NONE
+    private long expectedReply(Position p) {
+        long entry = search.getTable().probe(p.getHash());
+        if (entry == 0 || !TranspositionTable.hasMove(entry)) {
+            return Move.NONE;
+        }
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(p, moves);
+        for (int i = 0; i < count; i++) {
+            if (Move.from(moves[i]) == TranspositionTable.moveFrom(entry)
+                    && Move.to(moves[i]) == TranspositionTable.moveTo(entry)) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    // Queues a search of p and its game, which the engine owns from now on, after stopping the one in progress
+    private long submit(Position p, GameHistory game, int maxDepth, long timeMillis) {
+        long request = latestRequest.incrementAndGet();
+        search.stop();
+        busyRequest.set(request);
+        executor.execute(() -> run(request, p, game, maxDepth, timeMillis));
+        return request;
+    }
+
+    // Runs one request on the engine thread, unless a newer one has replaced it in the meantime
+    private void run(long request, Position p, GameHistory game, int maxDepth, long timeMillis) {
+        if (request != latestRequest.get()) {
+            return;
+        }
+        long hash = p.getHash();
+        // Published after each depth. A request replaced just as this search began (before ParallelSearch cleared
+        // --> the stop signal) is also stopped here, after its first depth.
+        search.setListener((depth, move, score, nodes) -> {
+            if (request != latestRequest.get()) {
+                search.stop();
+                return;
+            }
+            result.set(new EngineResult(request, hash, move, score, depth, nodes, false));
+        });
+        long move = search.search(p, game, maxDepth, timeMillis);
+        if (request == latestRequest.get()) {
+            // Idle before the answer is seen, so whoever polls the final result also sees isBusy() false
+            busyRequest.compareAndSet(request, 0);
+            result.set(new EngineResult(request, hash, move, search.getScore(), search.getDepth(), search.getNodes(), true));
+        }
+    }
+
+    // Returns the latest result published by any request, or null if there is none yet
+    public EngineResult poll() {
+        return result.get();
+    }
+
+    // Stops the request in progress and waits until the engine thread has left it; it publishes nothing more.
+    // The search checks for the stop every thousand nodes or so, so this returns within a millisecond or two.
+    public void cancel() {
+        latestRequest.incrementAndGet();
+        search.stop();
+        try {
+            // The engine thread runs requests in order, so once this empty task has run the search has returned
+            executor.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException e) {
+            // Shut down: nothing is running any more
+        }
+        busyRequest.set(0);
+    }
+
+    // Returns true while the latest request is still searching
+    public boolean isBusy() {
+        return busyRequest.get() != 0;
+    }
+
+    // Makes the engine evaluate with the given network; null for the handcrafted evaluation. Only call while idle.
+    public void setNetwork(NeuralNetwork network) {
+        search.setNetwork(network);
+    }
+
+    // Makes the engine evaluate with the handcrafted evaluation and the given weights. Only call while idle.
+    public void setWeights(int[] weights) {
+        search.setWeights(weights);
+    }
+
+    // Lets the engine look up positions with few pieces in an endgame tablebase
+    public void setTablebase(Tablebase tablebase) {
+        search.setTablebase(tablebase);
+    }
+
+    // Lets the engine play book moves without searching
+    public void setOpeningBook(OpeningBook book) {
+        search.setOpeningBook(book);
+    }
+
+    // Stops the engine's threads; it cannot be used afterwards
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+        search.shutdown();
+    }
+}
@@ -0,0 +1,146 @@
+// General Description
+// Package: Checkers
+// Purpose: Static evaluation of a position for the search: a handcrafted score from piece counts and placement.
+// Scores are in hundredths of a man and always from the point of view of the side to move.
+// The score is a weighted sum of FEATURES terms, each the white count minus the black count of something (men,
+// --> kings, rows advanced, ...), so the weights can be tuned from games (see TexelTuner) and loaded from a file.
+// Weights files are text, one "name value" line per feature; features missing from the file keep their default.
+// Methods:
+// evaluate(Position p) returns the score of the position with the default weights.
+// evaluate(Position p, int[] weights) returns it with the given weights; an overload takes a buffer for the features,
+// --> so that a caller evaluating many positions allocates nothing.
+// features(Position p, int[] into) stores the feature values of the position, from white's point of view.
+// defaultWeights(), loadWeights(Path) and saveWeights(Path, int[]).
+
+package Checkers;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public final class Evaluation {
+
+    public static final int MAN = 100; // Value of a man.
+    public static final int KING = 130; // Value of a king.
+    public static final int ADVANCE = 3; // Bonus per row a man has advanced towards being crowned.
+    public static final int BACK_RANK = 10; // Bonus per man still guarding its own kings row against crowning.
+    public static final int CENTRE = 0; // Bonus per piece on the four central squares (untuned, so off by default).
+
+    // Feature indexes into a weight vector
+    public static final int MEN = 0;
+    public static final int KINGS = 1;
+    public static final int ADVANCED_ROWS = 2;
+    public static final int BACK_RANK_MEN = 3;
+    public static final int CENTRE_PIECES = 4;
+    public static final int FEATURES = 5;
+    public static final String[] FEATURE_NAMES = {"man", "king", "advance", "back-rank", "centre"};
+
+    private static final int CENTRE_SQUARES = 0x00066000; // Squares 13, 14, 17 and 18
+    private static final int[] DEFAULT_WEIGHTS = {MAN, KING, ADVANCE, BACK_RANK, CENTRE};
+
+    // Not instantiable: all methods are static
+    private Evaluation() {
+
+    }
+
+    // Returns the score of the position for the side to move
+    public static int evaluate(Position p) {
+        return evaluate(p, DEFAULT_WEIGHTS);
+    }
+
+    // Returns the score of the position for the side to move, weighting the features with the given weights
+    public static int evaluate(Position p, int[] weights) {
+        return evaluate(p, weights, new int[FEATURES]);
+    }
+
+    // Returns the score of the position for the side to move, computing its features into the given buffer: the sum
+    // of weights[i] * features[i], negated for black
+    public static int evaluate(Position p, int[] weights, int[] features) {
+        features(p, features);
+        int score = 0;
+        for (int i = 0; i < FEATURES; i++) {
+            score += weights[i] * features[i];
+        }
+        return p.getSideToMove() == 'w' ? score : -score;
+    }
+
+    // Stores the value of each feature, white minus black, so that the score for white is the sum of
+    // weights[i] * into[i]
+    public static void features(Position p, int[] into) {
+        int white = p.getWhite();
+        int black = p.getBlack();
+        int kings = p.getKings();
+        int whiteMen = white & ~kings;
+        int blackMen = black & ~kings;
+        into[MEN] = Integer.bitCount(whiteMen) - Integer.bitCount(blackMen);
+        into[KINGS] = Integer.bitCount(white & kings) - Integer.bitCount(black & kings);
+        into[ADVANCED_ROWS] = advancedRows(whiteMen, 'w') - advancedRows(blackMen, 'b');
+        // Men left on the home row stop the opponent from crowning there
+        into[BACK_RANK_MEN] = Integer.bitCount(whiteMen & Position.BLACK_KINGS_ROW)
+                - Integer.bitCount(blackMen & Position.WHITE_KINGS_ROW);
+        into[CENTRE_PIECES] = Integer.bitCount(white & CENTRE_SQUARES) - Integer.bitCount(black & CENTRE_SQUARES);
+    }
+
+    // Counts the rows the given men of one colour have advanced towards the far row
+    private static int advancedRows(int men, char colour) {
+        int rows = 0;
+        for (int m = men; m != 0; m &= m - 1) {
+            int row = Position.squareY(Integer.numberOfTrailingZeros(m));
+            rows += colour == 'w' ? row : Position.BOARD_WIDTH - 1 - row;
+        }
+        return rows;
+    }
+
+    // Returns a copy of the weights evaluate(Position) uses
+    public static int[] defaultWeights() {
+        return DEFAULT_WEIGHTS.clone();
+    }
+
+    // Reads a weights file; features it does not name keep their default weight
+    public static int[] loadWeights(Path path) throws IOException {
+        int[] weights = defaultWeights();
+        try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                int feature = featureIndex(parts[0]);
+                if (parts.length != 2 || feature < 0) {
+                    throw new IOException("Bad weight line in " + path + ": " + line);
+                }
+                try {
+                    weights[feature] = Integer.parseInt(parts[1]);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Bad weight line in " + path + ": " + line);
+                }
+            }
+        }
+        return weights;
+    }
+
+    // Writes the weights as a file loadWeights can read
+    public static void saveWeights(Path path, int[] weights) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < FEATURES; i++) {
+                out.write(FEATURE_NAMES[i] + " " + weights[i]);
+                out.newLine();
+            }
+        }
+    }
+
+    // Returns the index of the named feature, or -1
+    private static int featureIndex(String name) {
+        for (int i = 0; i < FEATURES; i++) {
+            if (FEATURE_NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
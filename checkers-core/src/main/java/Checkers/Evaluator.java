@@ -0,0 +1,27 @@
+// General Description
+// Package: Checkers
+// Purpose: A static evaluation the search can use, chosen with Search.setEvaluator().
+// Evaluators may keep state that follows the search's moves, updated a move at a time instead of recomputed at
+// --> every leaf: the search calls reset() at the root and makeMove()/unmakeMove() around every move it makes
+// --> and takes back. Because of that state, each Search needs its own Evaluator instance.
+// Implementations: HandcraftedEvaluator (Evaluation's piece count and placement, no state) and NeuralEvaluator
+// --> (a small quantized network whose first layer is updated incrementally).
+// Methods:
+// reset(Position), makeMove(Position, long), unmakeMove(), evaluate(Position).
+
+package Checkers;
+
+public interface Evaluator {
+
+    // Starts following a new line of moves from p
+    void reset(Position p);
+
+    // Called with the position just before move is made on it
+    void makeMove(Position p, long move);
+
+    // Called after the last move passed to makeMove() has been taken back
+    void unmakeMove();
+
+    // Returns the score of p, the position reached by the moves made since reset(), for the side to move
+    int evaluate(Position p);
+}
@@ -0,0 +1,65 @@
+// General Description
+// Package: Checkers
+// Purpose: The one place the instrumented code asks about JDK Flight Recorder, so that a program that is not being
+// --> recorded never loads jdk.jfr (about a hundred classes and several hundred milliseconds at startup).
+// isRunning() only asks whether Flight Recorder has been started, at launch or later (e.g. with jcmd JFR.start),
+// --> which loads its entry class and nothing more. Event objects are only created once it has, and the periodic
+// --> MetricsEvent is registered the first time it is found running or metrics are switched on.
+// Methods:
+// isRunning(), isEnabled(Class) for a given event type, register() for MetricsEvent.
+
+package Checkers;
+
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+
+public final class FlightRecording {
+
+    private static volatile boolean registered;
+
+    // Not instantiable: all methods are static
+    private FlightRecording() {
+
+    }
+
+    // Returns true once Flight Recorder has been started in this JVM
+    public static boolean isRunning() {
+        if (!FlightRecorder.isInitialized()) {
+            return false;
+        }
+        register();
+        return true;
+    }
+
+    // Returns true if Flight Recorder is running and a recording has the given event enabled
+    public static boolean isEnabled(Class<? extends Event> type) {
+        return isRunning() && EventType.getEventType(type).isEnabled();
+    }
+
+    // Registers MetricsEvent to be emitted at its period, once
+    public static void register() {
+        if (registered) {
+            return;
+        }
+        synchronized (FlightRecording.class) {
+            if (!registered) {
+                FlightRecorder.addPeriodicEvent(MetricsEvent.class, FlightRecording::emitMetrics);
+                registered = true;
+            }
+        }
+    }
+
+    // Called by Flight Recorder at the period set for MetricsEvent
+    private static void emitMetrics() {
+        MetricsEvent event = new MetricsEvent();
+        event.enabled = Metrics.isEnabled();
+        event.moveGenerations = Metrics.MOVE_GENERATIONS.sum();
+        event.movesApplied = Metrics.MOVES_APPLIED.sum();
+        event.searchNodes = Metrics.SEARCH_NODES.sum();
+        event.tableHitRate = (float) Metrics.tableHitRate();
+        event.moveGenerationP99 = Metrics.MOVE_GENERATION.percentile(0.99);
+        event.frameTimeP99 = Metrics.FRAME_TIME.percentile(0.99);
+        event.commit();
+    }
+}
@@ -0,0 +1,108 @@
+// General Description
+// Package: Checkers
+// Purpose: Reads games back from a binary archive written by GameFileWriter, streaming from a channel through a
+// --> fixed buffer, so archives of any size (many gigabytes) can be read in constant memory.
+// Methods:
+// open(Path) to open a file, next(GameRecord game) to read the next game into a reusable record, close().
+
+package Checkers;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class GameFileReader implements Closeable {
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(GameFileWriter.BUFFER_SIZE);
+    private final long[] moves = new long[MoveGenerator.MAX_MOVES]; // Scratch buffer for decoding moves
+    private final Position position = new Position();
+    private boolean endOfChannel = false;
+
+    // Constructor: Starts reading an archive from the given channel, checking its header
+    public GameFileReader(ReadableByteChannel channel) throws IOException {
+        this.channel = channel;
+        buffer.flip(); // start empty
+        for (byte b : GameFileWriter.MAGIC) {
+            if (!fill(1) || buffer.get() != b) {
+                throw new IOException("Not a game archive");
+            }
+        }
+        if (!fill(1) || buffer.get() != GameFileWriter.VERSION) {
+            throw new IOException("Unsupported game archive version");
+        }
+    }
+
+    // Opens an archive file
+    public static GameFileReader open(Path path) throws IOException {
+        return new GameFileReader(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /**
+     * Read the next game.
+     * @param game Record to fill; its previous contents are cleared
+     * @return False if the archive has no more games
+     */
+    public boolean next(GameRecord game) throws IOException {
+        if (!fill(1)) {
+            return false;
+        }
+        game.clear();
+        int plies = getVarint();
+        game.setResult((char) get());
+
+        position.copyFrom(Position.start());
+        for (int i = 0; i < plies; i++) {
+            long move = GameRecord.moveAt(position, get() & 0xFF, moves);
+            if (move == Move.NONE) {
+                throw new IOException("Corrupt game archive: no such move at ply " + (i + 1));
+            }
+            game.add(move);
+            position.apply(move);
+        }
+        return true;
+    }
+
+    // Reads a LEB128 varint
+    private int getVarint() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt game archive: varint too long");
+    }
+
+    // Reads one byte, failing if the archive ends in the middle of a game
+    private byte get() throws IOException {
+        if (!fill(1)) {
+            throw new EOFException("Game archive ends in the middle of a game");
+        }
+        return buffer.get();
+    }
+
+    // Makes sure the buffer holds at least the given number of unread bytes; returns false at the end of the channel
+    private boolean fill(int bytes) throws IOException {
+        while (buffer.remaining() < bytes && !endOfChannel) {
+            buffer.compact();
+            if (channel.read(buffer) < 0) {
+                endOfChannel = true;
+            }
+            buffer.flip();
+        }
+        return buffer.remaining() >= bytes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,95 @@
+// General Description
+// Package: Checkers
+// Purpose: Writes games to a compact binary archive, streaming them to a channel through a fixed buffer, so
+// --> archives of any size can be written without holding them in memory.
+// File layout:
+// A header of the four bytes 'C' 'K' 'G' and the format VERSION, followed by the games one after another.
+// Each game is a varint (LEB128) ply count, one byte for the result ('w', 'b', 'd' or '*'), then one byte per
+// --> move: the move's index among the legal moves of the position (see GameRecord.indexOf). No position has more
+// --> than MoveGenerator.MAX_MOVES moves, so an index always fits in a byte.
+// Methods:
+// open(Path) to create a file, write(GameRecord) to append a game, close() to flush and close.
+
+package Checkers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class GameFileWriter implements Closeable {
+
+    static final byte[] MAGIC = {'C', 'K', 'G'};
+    static final byte VERSION = 1;
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final long[] moves = new long[MoveGenerator.MAX_MOVES]; // Scratch buffer for numbering moves
+    private final Position position = new Position();
+
+    // Constructor: Starts an archive on the given channel by writing its header
+    public GameFileWriter(WritableByteChannel channel) throws IOException {
+        this.channel = channel;
+        buffer.put(MAGIC).put(VERSION);
+    }
+
+    // Creates (or truncates) an archive file
+    public static GameFileWriter open(Path path) throws IOException {
+        return new GameFileWriter(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    // Appends a game to the archive
+    public void write(GameRecord game) throws IOException {
+        ensureRoom(6);
+        putVarint(game.size());
+        buffer.put((byte) game.getResult());
+
+        position.copyFrom(Position.start());
+        for (int i = 0; i < game.size(); i++) {
+            long move = game.getMove(i);
+            int index = GameRecord.indexOf(position, move, moves);
+            if (index < 0) {
+                throw new IllegalArgumentException("Move " + (i + 1) + " (" + Move.toString(move) + ") is not legal");
+            }
+            ensureRoom(1);
+            buffer.put((byte) index);
+            position.apply(move);
+        }
+    }
+
+    // Writes an unsigned int as a LEB128 varint: seven bits per byte, high bit set on all but the last byte
+    private void putVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    // Flushes the buffer to the channel if fewer than the given number of bytes are free
+    private void ensureRoom(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    // Writes everything buffered so far to the channel
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+}
@@ -0,0 +1,137 @@
+// General Description
+// Package: Checkers
+// Purpose: Decides when a game is over: the side to move has lost when it has no legal move, and the game is drawn
+// --> when a position occurs for the third time or after too many plies without progress.
+// Captures and man moves can never be undone, so no position from before the last of them can occur again. Only
+// --> the positions since then need keeping: their hashes go into a ring buffer along with the number of quiet
+// --> plies (king moves without a capture) that led to each. The ring holds the quiet-ply limit plus Search.MAX_PLY
+// --> positions, so a search can push its line on top of a game's history without losing the positions it may repeat.
+// Pushing a move costs O(1), and the repetition check only looks back over the quiet plies, every other one (the side
+// --> to move must match), which the draw rule bounds by a constant.
+// Methods:
+// reset(Position) to start a game, play(Position, long move) to make a move and record it, or push(long hash,
+// --> boolean irreversible) after making it on the board; pop() takes back a pushed move.
+// repetitions() and getQuietPlies() describe the current position; isDraw() and result(Position) apply the rules.
+
+package Checkers;
+
+public class GameHistory {
+
+    public static final int DEFAULT_QUIET_PLIES = 80; // 40 moves each without a capture or a man move is a draw.
+
+    private final int quietLimit;
+    private final long[] hashes;
+    private final int[] quiet; // Quiet plies before each position, 0 after a capture or a man move
+    private final int mask;
+    private int plies; // Moves pushed since reset(); the current position is at plies & mask
+    private final long[] moves = new long[MoveGenerator.MAX_MOVES]; // Scratch list for result()
+
+    // Constructor: Draws games after DEFAULT_QUIET_PLIES plies without progress
+    public GameHistory() {
+        this(DEFAULT_QUIET_PLIES);
+    }
+
+    // Constructor: Draws games after the given number of plies without a capture or a man move
+    public GameHistory(int quietLimit) {
+        if (quietLimit < 1) {
+            throw new IllegalArgumentException("The quiet-ply limit must be positive: " + quietLimit);
+        }
+        this.quietLimit = quietLimit;
+        int capacity = Integer.highestOneBit(quietLimit + Search.MAX_PLY) * 2;
+        this.hashes = new long[capacity];
+        this.quiet = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    // Starts a game at the given position, forgetting every earlier one
+    public void reset(Position p) {
+        plies = 0;
+        hashes[0] = p.getHash();
+        quiet[0] = 0;
+    }
+
+    // Copies another history with the same limit, e.g. to search on top of it
+    public void copyFrom(GameHistory other) {
+        if (other.quietLimit != quietLimit) {
+            throw new IllegalArgumentException("Histories with different limits");
+        }
+        System.arraycopy(other.hashes, 0, hashes, 0, hashes.length);
+        System.arraycopy(other.quiet, 0, quiet, 0, quiet.length);
+        plies = other.plies;
+    }
+
+    // Returns a copy of this history
+    public GameHistory copy() {
+        GameHistory copy = new GameHistory(quietLimit);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    // Returns true if the move can never be undone: a capture, or a man moving (men only move forwards)
+    public static boolean isIrreversible(Position before, long move) {
+        return Move.isCapture(move) || !before.isKing(Move.from(move));
+    }
+
+    // Makes the move on p and records the position it leads to
+    public void play(Position p, long move) {
+        boolean irreversible = isIrreversible(p, move);
+        p.apply(move);
+        push(p.getHash(), irreversible);
+    }
+
+    // Records the position (by its hash) a move has just led to
+    public void push(long hash, boolean irreversible) {
+        int q = irreversible ? 0 : quiet[plies & mask] + 1;
+        plies++;
+        hashes[plies & mask] = hash;
+        quiet[plies & mask] = q;
+    }
+
+    // Takes back the last move pushed. Up to Search.MAX_PLY moves can be taken back this way (the ring may have
+    // overwritten older ones); to go back further, replay the game from reset()
+    public void pop() {
+        plies--;
+    }
+
+    // Returns the hash of the current position
+    public long getHash() {
+        return hashes[plies & mask];
+    }
+
+    // Returns the number of plies since the last capture or man move
+    public int getQuietPlies() {
+        return quiet[plies & mask];
+    }
+
+    public int getQuietLimit() {
+        return quietLimit;
+    }
+
+    // Returns how many times the current position occurred before, since the last capture or man move
+    public int repetitions() {
+        int back = Math.min(quiet[plies & mask], mask);
+        long hash = hashes[plies & mask];
+        int count = 0;
+        // Two plies back both sides still had a piece elsewhere, so the first possible repetition is four back
+        for (int i = 4; i <= back; i += 2) {
+            if (hashes[(plies - i) & mask] == hash) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // Returns true if the game is drawn by threefold repetition or by the quiet-ply limit
+    public boolean isDraw() {
+        return quiet[plies & mask] >= quietLimit || repetitions() >= 2;
+    }
+
+    // Returns the result of the game in position p, the last position pushed: the winner's colour, GameRecord.DRAW,
+    // or GameRecord.UNFINISHED
+    public char result(Position p) {
+        if (MoveGenerator.generate(p, moves) == 0) {
+            return Position.opponent(p.getSideToMove()); // no legal move: the side to move has lost
+        }
+        return isDraw() ? GameRecord.DRAW : GameRecord.UNFINISHED;
+    }
+}
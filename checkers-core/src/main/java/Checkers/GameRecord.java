@@ -0,0 +1,149 @@
+// General Description
+// Package: Checkers
+// Purpose: The record of one game: the moves played from the start position, in order, and the result.
+// Moves are held as encoded longs (see Move) in a growable primitive array, so a record can be reused for
+// --> game after game when streaming through an archive.
+// Results: 'w' or 'b' for the winner, DRAW, or UNFINISHED.
+// Methods:
+// add(), getMove(), size() and clear() to build and read the move list.
+// fromHistory(UndoStack history, char result) to record a game being played, replay() to rebuild its final position.
+// save(Path) and load(Path) to write or read a single game, as PDN text or, for a ".ckg" file, the binary format.
+// indexOf()/moveAt() to number a move among the legal moves, as used by the binary format (see GameFileWriter).
+
+package Checkers;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class GameRecord {
+
+    public static final char DRAW = 'd';
+    public static final char UNFINISHED = '*';
+
+    private long[] moves = new long[128];
+    private int size;
+    private char result = UNFINISHED;
+
+    // Appends the next move of the game
+    public void add(long move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    // Returns the i-th move of the game, counting from 0
+    public long getMove(int i) {
+        return moves[i];
+    }
+
+    // Returns the number of moves (plies) in the game
+    public int size() {
+        return size;
+    }
+
+    public char getResult() {
+        return result;
+    }
+
+    public void setResult(char result) {
+        this.result = result;
+    }
+
+    // Empties the record so it can be reused
+    public void clear() {
+        size = 0;
+        result = UNFINISHED;
+    }
+
+    // Records the moves held in an undo history, oldest first
+    public static GameRecord fromHistory(UndoStack history, char result) {
+        GameRecord record = new GameRecord();
+        for (int i = 0; i < history.size(); i++) {
+            record.add(history.moveAt(i));
+        }
+        record.setResult(result);
+        return record;
+    }
+
+    // Plays the game from the start position and returns the position it ends in
+    public Position replay() {
+        Position p = Position.start();
+        for (int i = 0; i < size; i++) {
+            p.apply(moves[i]);
+        }
+        return p;
+    }
+
+    // Writes this game to a file on its own, as binary if the name ends in ".ckg" and as PDN otherwise
+    public void save(Path path) throws IOException {
+        if (isBinary(path)) {
+            try (GameFileWriter out = GameFileWriter.open(path)) {
+                out.write(this);
+            }
+        } else {
+            try (PdnWriter out = PdnWriter.open(path)) {
+                out.write(this);
+            }
+        }
+    }
+
+    // Reads the first game of a file written by save(), or of any PDN or binary game archive
+    public static GameRecord load(Path path) throws IOException {
+        GameRecord record = new GameRecord();
+        boolean found;
+        if (isBinary(path)) {
+            try (GameFileReader in = GameFileReader.open(path)) {
+                found = in.next(record);
+            }
+        } else {
+            try (PdnReader in = PdnReader.open(path)) {
+                found = in.next(record);
+            }
+        }
+        if (!found) {
+            throw new IOException("No game in " + path);
+        }
+        return record;
+    }
+
+    private static boolean isBinary(Path path) {
+        return path.getFileName().toString().endsWith(".ckg");
+    }
+
+    /**
+     * Number a move among the legal moves of a position, counting them in ascending order of their encoding.
+     * The order does not depend on how the generator happens to list moves, so stored indexes stay valid.
+     * @param p The position the move is played in
+     * @param move The move
+     * @param buffer Scratch move buffer, at least MoveGenerator.MAX_MOVES long
+     * @return The index of the move, or -1 if it is not legal in the position
+     */
+    public static int indexOf(Position p, long move, long[] buffer) {
+        int count = MoveGenerator.generate(p, buffer);
+        int index = 0;
+        boolean legal = false;
+        for (int i = 0; i < count; i++) {
+            if (buffer[i] < move) {
+                index++;
+            } else if (buffer[i] == move) {
+                legal = true;
+            }
+        }
+        return legal ? index : -1;
+    }
+
+    /**
+     * The reverse of indexOf(): the legal move with the given index.
+     * @return The move, or Move.NONE if there are not that many legal moves
+     */
+    public static long moveAt(Position p, int index, long[] buffer) {
+        int count = MoveGenerator.generate(p, buffer);
+        if (index < 0 || index >= count) {
+            return Move.NONE;
+        }
+        Arrays.sort(buffer, 0, count);
+        return buffer[index];
+    }
+}
@@ -0,0 +1,47 @@
+// General Description
+// Package: Checkers
+// Purpose: The Evaluator the search uses by default: the handcrafted score of Evaluation, which is cheap enough
+// --> to compute from scratch at every leaf, so it keeps no state between moves.
+// It weights the features with the default weights, or with weights given to the constructor (e.g. tuned ones
+// --> read with Evaluation.loadWeights).
+
+package Checkers;
+
+public class HandcraftedEvaluator implements Evaluator {
+
+    private final int[] weights;
+    private final int[] features = new int[Evaluation.FEATURES]; // Scratch buffer for the position evaluated
+
+    // Constructor: Evaluates with the default weights
+    public HandcraftedEvaluator() {
+        this(Evaluation.defaultWeights());
+    }
+
+    // Constructor: Evaluates with the given weights, one per Evaluation feature
+    public HandcraftedEvaluator(int[] weights) {
+        if (weights.length != Evaluation.FEATURES) {
+            throw new IllegalArgumentException("Expected " + Evaluation.FEATURES + " weights, got " + weights.length);
+        }
+        this.weights = weights.clone();
+    }
+
+    @Override
+    public void reset(Position p) {
+
+    }
+
+    @Override
+    public void makeMove(Position p, long move) {
+
+    }
+
+    @Override
+    public void unmakeMove() {
+
+    }
+
+    @Override
+    public int evaluate(Position p) {
+        return Evaluation.evaluate(p, weights, features);
+    }
+}
@@ -0,0 +1,216 @@
+// General Description
+// Package: Checkers
+// Purpose: Load test for SessionServer: keeps many games open and plays random legal moves in them as fast as the
+// --> server answers, then prints the throughput and the move latency percentiles.
+// Each connection runs on its own thread and owns an equal share of the games, which it plays in turn. It sends
+// --> --pipeline moves (to different games) at once and waits for all their replies; a move's latency is the time
+// --> from sending its batch to reading its reply. Every game is followed locally from the STATE replies, so the
+// --> client picks its moves from its own move generation. A game that ends, or reaches --max-plies, is closed and
+// --> replaced by a new one outside the timed batches, so the number of open games stays constant.
+// Without --port, a server is started in this JVM on a free port, so nothing else needs to be running.
+// Usage:
+// LoadGenerator [--host=name] [--port=n] [--games=n] [--connections=n] [--moves=n] [--pipeline=n] [--max-plies=n]
+
+package Checkers;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public class LoadGenerator {
+
+    private String host = "localhost";
+    private int port = -1; // -1 to start a server in this JVM
+    private int games = 10_000;
+    private int connections = 8;
+    private long totalMoves = 1_000_000;
+    private int pipeline = 1;
+    private int maxPlies = SelfPlay.DEFAULT_MAX_PLIES;
+
+    // Read the command line options
+    private void readArguments(String[] args) {
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--host=")) {
+                host = value;
+            } else if (arg.startsWith("--port=")) {
+                port = Integer.parseInt(value);
+            } else if (arg.startsWith("--games=")) {
+                games = Integer.parseInt(value);
+            } else if (arg.startsWith("--connections=")) {
+                connections = Integer.parseInt(value);
+            } else if (arg.startsWith("--moves=")) {
+                totalMoves = Long.parseLong(value);
+            } else if (arg.startsWith("--pipeline=")) {
+                pipeline = Integer.parseInt(value);
+            } else if (arg.startsWith("--max-plies=")) {
+                maxPlies = Integer.parseInt(value);
+            } else {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+    }
+
+    // One connection and the games it plays
+    private final class Client implements Runnable {
+        private final int[] ids; // Server's game ids
+        private final Position[] positions; // The games' positions, from the server's replies
+        private final int[] plies;
+        private final long[] latencies; // Nanoseconds per move
+        private int recorded;
+        private final SplittableRandom random;
+        private final long[] moves = new long[MoveGenerator.MAX_MOVES];
+        private final int[] batch; // Games in the batch being sent
+        private Socket socket;
+        private BufferedReader in;
+        private OutputStream out;
+
+        Client(int games, long moves, long seed) {
+            this.ids = new int[games];
+            this.positions = new Position[games];
+            this.plies = new int[games];
+            this.latencies = new long[(int) moves];
+            this.random = new SplittableRandom(seed);
+            this.batch = new int[Math.max(1, Math.min(pipeline, games))];
+        }
+
+        // Opens the connection and the games
+        void open() throws IOException {
+            socket = new Socket(host, port);
+            socket.setTcpNoDelay(true);
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out = new BufferedOutputStream(socket.getOutputStream());
+            for (int g = 0; g < ids.length; g++) {
+                positions[g] = new Position();
+                replace(g, false);
+            }
+        }
+
+        // Closes game g on the server, unless it is not open yet, and opens a new one in its place
+        private void replace(int g, boolean close) throws IOException {
+            if (close) {
+                send("CLOSE " + ids[g] + "\n");
+                expect("CLOSED");
+            }
+            send("NEW\n");
+            ids[g] = readState(g);
+        }
+
+        private void send(String request) throws IOException {
+            out.write(request.getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        private String expect(String prefix) throws IOException {
+            String reply = in.readLine();
+            if (reply == null || !reply.startsWith(prefix)) {
+                throw new IOException("Expected " + prefix + ", got " + reply);
+            }
+            return reply;
+        }
+
+        // Reads a STATE reply into game g's position; returns the game id and sets plies[g], -1 there if it is over
+        private int readState(int g) throws IOException {
+            String[] f = expect("STATE").split(" ");
+            positions[g].set(Integer.parseUnsignedInt(f[5], 16), Integer.parseUnsignedInt(f[6], 16),
+                    Integer.parseUnsignedInt(f[7], 16), f[3].charAt(0));
+            plies[g] = f[4].charAt(0) == GameRecord.UNFINISHED ? Integer.parseInt(f[2]) : -1;
+            return Integer.parseInt(f[1]);
+        }
+
+        @Override
+        public void run() {
+            try {
+                int next = 0;
+                StringBuilder request = new StringBuilder();
+                while (recorded < latencies.length) {
+                    int size = Math.min(batch.length, latencies.length - recorded);
+                    request.setLength(0);
+                    for (int i = 0; i < size; i++) {
+                        int g = next;
+                        next = (next + 1) % ids.length;
+                        if (plies[g] < 0 || plies[g] >= maxPlies) {
+                            replace(g, true);
+                        }
+                        int count = MoveGenerator.generate(positions[g], moves);
+                        batch[i] = g;
+                        request.append("MOVE ").append(ids[g]).append(' ').append(random.nextInt(count)).append('\n');
+                    }
+                    long start = System.nanoTime();
+                    send(request.toString());
+                    for (int i = 0; i < size; i++) {
+                        readState(batch[i]);
+                        latencies[recorded++] = System.nanoTime() - start;
+                    }
+                }
+                socket.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // Open every game, play the moves and print the results
+    public void run() throws IOException, InterruptedException {
+        SessionServer server = null;
+        if (port < 0) {
+            server = new SessionServer(0);
+            port = server.getPort();
+            Thread t = new Thread(server, "session-server");
+            t.setDaemon(true);
+            t.start();
+        }
+
+        Client[] clients = new Client[Math.max(1, connections)];
+        for (int i = 0; i < clients.length; i++) {
+            int share = games / clients.length + (i < games % clients.length ? 1 : 0);
+            long moves = totalMoves / clients.length + (i < totalMoves % clients.length ? 1 : 0);
+            clients[i] = new Client(Math.max(1, share), moves, i);
+            clients[i].open();
+        }
+        System.out.println(games + " games open on " + clients.length + " connections to " + host + ":" + port);
+
+        long start = System.nanoTime();
+        Thread[] threads = new Thread[clients.length];
+        for (int i = 0; i < clients.length; i++) {
+            threads[i] = new Thread(clients[i], "load-" + i);
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long[] all = new long[(int) totalMoves];
+        int n = 0;
+        for (Client c : clients) {
+            System.arraycopy(c.latencies, 0, all, n, c.recorded);
+            n += c.recorded;
+        }
+        Arrays.sort(all, 0, n);
+        System.out.printf("%d moves in %.2f s: %.0f moves/s%n", n, seconds, n / seconds);
+        System.out.printf("latency (us): p50 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n", percentile(all, n, 0.50) / 1e3,
+                percentile(all, n, 0.99) / 1e3, percentile(all, n, 0.999) / 1e3, n == 0 ? 0 : all[n - 1] / 1e3);
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    // Returns the value below which the given fraction of the first n sorted values lie
+    private static long percentile(long[] sorted, int n, double fraction) {
+        return n == 0 ? 0 : sorted[Math.min(n - 1, (int) (fraction * n))];
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        LoadGenerator load = new LoadGenerator();
+        load.readArguments(args);
+        load.run();
+    }
+}
@@ -0,0 +1,109 @@
+// General Description
+// Package: Checkers
+// Purpose: A histogram of non-negative long values (nanoseconds, nodes per second, ...) in logarithmic buckets,
+// --> in the manner of HdrHistogram: each power of two is split into 8 linear sub-buckets, so any value is
+// --> recorded to within 12.5% in a fixed 488 counters, whatever its range, and recording is one array increment.
+// Counters are updated atomically, so any number of threads can record at once; percentiles are read from a
+// --> snapshot of the counts and are approximate while recording goes on.
+// Methods:
+// record(long value), count(), percentile(double fraction), max(), reset(), and summary() for one line of text.
+
+package Checkers;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+public class LogHistogram {
+
+    private static final int SUB_BITS = 3; // 2^3 = 8 sub-buckets per power of two
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (63 - SUB_BITS + 1) * SUB_BUCKETS; // Enough for Long.MAX_VALUE
+
+    private final String name;
+    private final String unit;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    // Constructor: Creates an empty histogram; the name and unit label its summary()
+    public LogHistogram(String name, String unit) {
+        this.name = name;
+        this.unit = unit;
+    }
+
+    // Returns the bucket a value is counted in: values below 8 have one each, then 8 per power of two
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(0, value);
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (magnitude - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    // Returns the smallest value counted in a bucket
+    static long lowestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int magnitude = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + sub) << (magnitude - SUB_BITS);
+    }
+
+    // Counts one value
+    public void record(long value) {
+        counts.incrementAndGet(bucket(value));
+        max.accumulate(value);
+    }
+
+    // Returns the number of values recorded
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    // Returns the largest value recorded, exactly
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Estimate a percentile of the values recorded.
+     * @param fraction Between 0 and 1, e.g. 0.99 for the 99th percentile
+     * @return The lowest value of the bucket holding that percentile, or 0 if nothing was recorded
+     */
+    public long percentile(double fraction) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        long rank = (long) Math.ceil(fraction * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank && seen > 0) {
+                return lowestValue(i);
+            }
+        }
+        return 0;
+    }
+
+    // Forgets every value recorded
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        max.reset();
+    }
+
+    // Returns the count and main percentiles as one line of text
+    public String summary() {
+        return String.format("%s: n %d p50 %d p99 %d p99.9 %d max %d %s", name, count(), percentile(0.5),
+                percentile(0.99), percentile(0.999), max(), unit);
+    }
+}
@@ -0,0 +1,112 @@
+// General Description
+// Package: Checkers
+// Purpose: Run-time telemetry of the hot paths, to see which stage has slowed down without attaching a profiler.
+// Counters (LongAdder, so threads do not contend) count move generations, moves applied, searches, search nodes
+// --> and transposition table probes and hits. LogHistograms record how long move generation and move
+// --> application take, the nodes per second of each search and the time of each frame of the window.
+// Everything is off by default and costs one volatile read per call site while off. Switch it on at run time with
+// --> setEnabled() (the window's 'm' key, the session server's METRICS ON request) or at startup with
+// --> -Dcheckers.metrics=true. While on, every call is counted but only one in SAMPLE_RATE is timed, since reading
+// --> the clock costs about as much as generating the moves.
+// The same figures are also emitted to JDK Flight Recorder: a MetricsEvent with the counters every second, and a
+// --> SearchEvent per search, whenever a recording with those events enabled is running (see SearchEvent).
+// This class does not touch Flight Recorder itself, so checking isEnabled() loads none of jdk.jfr; everything to do
+// --> with it goes through FlightRecording.
+// Methods:
+// isEnabled(), setEnabled(), startTimer() and the record methods used by the instrumented code.
+// summary() and reset().
+
+package Checkers;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class Metrics {
+
+    public static final int SAMPLE_RATE = 64; // One call in this many is timed
+
+    public static final LongAdder MOVE_GENERATIONS = new LongAdder();
+    public static final LongAdder MOVES_APPLIED = new LongAdder();
+    public static final LongAdder SEARCHES = new LongAdder();
+    public static final LongAdder SEARCH_NODES = new LongAdder();
+    public static final LongAdder TABLE_PROBES = new LongAdder();
+    public static final LongAdder TABLE_HITS = new LongAdder();
+
+    public static final LogHistogram MOVE_GENERATION = new LogHistogram("move generation", "ns");
+    public static final LogHistogram MOVE_APPLICATION = new LogHistogram("move application", "ns");
+    public static final LogHistogram SEARCH_SPEED = new LogHistogram("search speed", "nodes/s");
+    public static final LogHistogram FRAME_TIME = new LogHistogram("frame time", "ns");
+
+    private static volatile boolean enabled;
+
+    static {
+        setEnabled(Boolean.getBoolean("checkers.metrics"));
+    }
+
+    private Metrics() {
+
+    }
+
+    // Returns true while metrics are being recorded
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    // Switches recording on or off; the figures recorded so far are kept
+    public static void setEnabled(boolean on) {
+        if (on) {
+            FlightRecording.register();
+        }
+        enabled = on;
+    }
+
+    // Counts a call and, for one call in SAMPLE_RATE, returns the time it starts at; else returns 0.
+    // Only call while isEnabled().
+    public static long startTimer(LongAdder counter) {
+        counter.increment();
+        return ThreadLocalRandom.current().nextInt(SAMPLE_RATE) == 0 ? System.nanoTime() : 0L;
+    }
+
+    // Records the time since a non-zero startTimer() result
+    public static void stopTimer(LogHistogram histogram, long started) {
+        if (started != 0) {
+            histogram.record(System.nanoTime() - started);
+        }
+    }
+
+    // Records a finished search
+    public static void searchCompleted(long nodes, long probes, long hits, long nanos) {
+        SEARCHES.increment();
+        SEARCH_NODES.add(nodes);
+        TABLE_PROBES.add(probes);
+        TABLE_HITS.add(hits);
+        if (nanos > 0) {
+            SEARCH_SPEED.record(nodes * 1_000_000_000L / nanos);
+        }
+    }
+
+    // Returns the share of transposition table probes that found an entry, 0 if there were none
+    public static double tableHitRate() {
+        long probes = TABLE_PROBES.sum();
+        return probes == 0 ? 0 : (double) TABLE_HITS.sum() / probes;
+    }
+
+    // Returns every figure, one per line
+    public static String summary() {
+        return String.format("metrics %s: %d move generations, %d moves applied, %d searches, %d nodes, "
+                        + "table hit rate %.1f%%%n%s%n%s%n%s%n%s", enabled ? "on" : "off", MOVE_GENERATIONS.sum(),
+                MOVES_APPLIED.sum(), SEARCHES.sum(), SEARCH_NODES.sum(), 100 * tableHitRate(),
+                MOVE_GENERATION.summary(), MOVE_APPLICATION.summary(), SEARCH_SPEED.summary(), FRAME_TIME.summary());
+    }
+
+    // Clears every counter and histogram
+    public static void reset() {
+        for (LongAdder counter : new LongAdder[] {MOVE_GENERATIONS, MOVES_APPLIED, SEARCHES, SEARCH_NODES,
+                TABLE_PROBES, TABLE_HITS}) {
+            counter.reset();
+        }
+        for (LogHistogram histogram : new LogHistogram[] {MOVE_GENERATION, MOVE_APPLICATION, SEARCH_SPEED, FRAME_TIME}) {
+            histogram.reset();
+        }
+    }
+}
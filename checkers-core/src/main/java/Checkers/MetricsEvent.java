@@ -0,0 +1,48 @@
+// General Description
+// Package: Checkers
+// Purpose: JDK Flight Recorder event carrying a snapshot of the Metrics counters, emitted once a second while a
+// --> recording with it enabled is running (e.g. java -XX:StartFlightRecording ...). The counters are running
+// --> totals, so the rates between two events show which stage slowed down.
+
+package Checkers;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.Timespan;
+
+@Name("checkers.Metrics")
+@Label("Checkers Metrics")
+@Category("Checkers")
+@Description("Totals of the checkers metrics counters")
+@Enabled(true)
+@Period("1 s")
+public class MetricsEvent extends Event {
+
+    @Label("Recording Enabled")
+    boolean enabled;
+
+    @Label("Move Generations")
+    long moveGenerations;
+
+    @Label("Moves Applied")
+    long movesApplied;
+
+    @Label("Search Nodes")
+    long searchNodes;
+
+    @Label("Table Hit Rate")
+    float tableHitRate;
+
+    @Label("Move Generation p99")
+    @Timespan(Timespan.NANOSECONDS)
+    long moveGenerationP99;
+
+    @Label("Frame Time p99")
+    @Timespan(Timespan.NANOSECONDS)
+    long frameTimeP99;
+}
@@ -0,0 +1,56 @@
+// General Description
+// Package: Checkers
+// Purpose: Encodes a move as a single primitive long so that move lists can live in plain long[] buffers.
+// Layout:
+// bits 0-31   mask of the squares whose pieces are captured by the move (0 for a simple move)
+// bits 32-36  square the moving piece starts on
+// bits 37-41  square the moving piece ends on
+// Methods:
+// encode() to pack a move, from(), to() and captured() to unpack it, isCapture() and toString() as helpers.
+
+package Checkers;
+
+public final class Move {
+
+    private static final int FROM_SHIFT = 32;
+    private static final int TO_SHIFT = 37;
+    private static final long SQUARE_MASK = 0x1F;
+
+    // Stands for "no move". It never collides with a real move, which always changes a square or captures.
+    public static final long NONE = 0L;
+
+    // Not instantiable: moves are plain longs
+    private Move() {
+
+    }
+
+    // Packs a move from its start square, end square and captured squares
+    public static long encode(int from, int to, int captured) {
+        return ((long) from << FROM_SHIFT) | ((long) to << TO_SHIFT) | (captured & 0xFFFFFFFFL);
+    }
+
+    // Returns the square the moving piece starts on
+    public static int from(long move) {
+        return (int) ((move >>> FROM_SHIFT) & SQUARE_MASK);
+    }
+
+    // Returns the square the moving piece ends on
+    public static int to(long move) {
+        return (int) ((move >>> TO_SHIFT) & SQUARE_MASK);
+    }
+
+    // Returns the mask of captured squares
+    public static int captured(long move) {
+        return (int) move;
+    }
+
+    // Returns true if the move captures at least one piece
+    public static boolean isCapture(long move) {
+        return (int) move != 0;
+    }
+
+    // Formats a move in the usual checkers notation, squares numbered from 1: "9-13" for a step, "9x18" for a capture
+    public static String toString(long move) {
+        return (from(move) + 1) + (isCapture(move) ? "x" : "-") + (to(move) + 1);
+    }
+}
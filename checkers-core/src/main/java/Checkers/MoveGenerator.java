@@ -0,0 +1,242 @@
+// General Description
+// Package: Checkers
+// Purpose: Generates the moves of the side to move in a Position.
+// Moves are written as encoded longs (see Move) into a buffer supplied by the caller, so generating moves
+// --> allocates nothing and the same buffer can be reused for every call.
+// Methods:
+// generate(Position p, long[] moves) fills the buffer with the legal moves of every piece of the side to move.
+// Capturing is mandatory, and a capture is the whole chain of jumps, found by a depth-first search.
+// generateCaptures() and generateSteps() produce the two kinds of move separately.
+// path(long move, int[] path) recovers the squares a multi-jump lands on, for animation.
+// neighbour(int square, int direction) finds the next square along a diagonal.
+// All board geometry is looked up in tables built once when the class loads: the neighbour and the jump landing
+// --> square in each direction, and the squares each kind of piece can step to. Squares on the edge simply have
+// --> empty entries, so generating moves needs no coordinate arithmetic and no bounds checks.
+
+package Checkers;
+
+public final class MoveGenerator {
+
+    // Upper bound on the number of moves in any position; buffers passed to generate() must be at least this long.
+    public static final int MAX_MOVES = 128;
+
+    // The four diagonal directions. UP is towards row 7 (white's forward), DOWN towards row 0 (black's forward).
+    public static final int UP_LEFT = 0;
+    public static final int UP_RIGHT = 1;
+    public static final int DOWN_LEFT = 2;
+    public static final int DOWN_RIGHT = 3;
+
+    private static final int[] DX = {-1, 1, -1, 1};
+    private static final int[] DY = {1, 1, -1, -1};
+
+    // Tables indexed by square << 2 | direction:
+    private static final int[] NEIGHBOUR = new int[Position.SQUARES * 4]; // Next square along the diagonal, or -1.
+    private static final int[] JUMP_OVER = new int[Position.SQUARES * 4]; // Bit of the square jumped, 0 if no room to land.
+    private static final int[] JUMP_LANDING = new int[Position.SQUARES * 4]; // Square a jump lands on, where JUMP_OVER != 0.
+
+    // Mask of the squares a piece can step to from each square, for a white man, a black man and a king
+    private static final int[] WHITE_MAN_STEPS = new int[Position.SQUARES];
+    private static final int[] BLACK_MAN_STEPS = new int[Position.SQUARES];
+    private static final int[] KING_STEPS = new int[Position.SQUARES];
+
+    static {
+        for (int square = 0; square < Position.SQUARES; square++) {
+            for (int dir = UP_LEFT; dir <= DOWN_RIGHT; dir++) {
+                int x = Position.squareX(square);
+                int y = Position.squareY(square);
+                int next = Position.square(x + DX[dir], y + DY[dir]);
+                int landing = Position.square(x + 2 * DX[dir], y + 2 * DY[dir]);
+                NEIGHBOUR[square << 2 | dir] = next;
+                JUMP_OVER[square << 2 | dir] = landing < 0 ? 0 : 1 << next;
+                JUMP_LANDING[square << 2 | dir] = Math.max(landing, 0);
+                if (next >= 0) {
+                    KING_STEPS[square] |= 1 << next;
+                    if (dir <= UP_RIGHT) {
+                        WHITE_MAN_STEPS[square] |= 1 << next;
+                    } else {
+                        BLACK_MAN_STEPS[square] |= 1 << next;
+                    }
+                }
+            }
+        }
+    }
+
+    // Not instantiable: all methods are static
+    private MoveGenerator() {
+
+    }
+
+    /**
+     * Generate the legal moves of the side to move. Capturing is mandatory: if any capture exists only captures
+     * are returned, each one a complete capture chain.
+     * @param p The position to generate moves for
+     * @param moves Buffer the encoded moves are written to, at least MAX_MOVES long
+     * @return The number of moves written
+     */
+    public static int generate(Position p, long[] moves) {
+        long started = Metrics.isEnabled() ? Metrics.startTimer(Metrics.MOVE_GENERATIONS) : 0L;
+        int count = generateCaptures(p, moves);
+        if (count == 0) {
+            count = generateSteps(p, moves);
+        }
+        if (started != 0) {
+            Metrics.stopTimer(Metrics.MOVE_GENERATION, started);
+        }
+        return count;
+    }
+
+    /**
+     * Generate only the capture moves of the side to move, following every chain of jumps to its end.
+     * Chains that start and end on the same squares and take the same pieces are only listed once.
+     * @param p The position to generate captures for
+     * @param moves Buffer the encoded moves are written to, at least MAX_MOVES long
+     * @return The number of captures written
+     */
+    public static int generateCaptures(Position p, long[] moves) {
+        char side = p.getSideToMove();
+        int own = p.getPieces(side);
+        int opponent = p.getPieces(Position.opponent(side));
+        int kings = p.getKings();
+        int forward = side == 'w' ? UP_LEFT : DOWN_LEFT;
+        int kingsRow = side == 'w' ? Position.WHITE_KINGS_ROW : Position.BLACK_KINGS_ROW;
+
+        int count = 0;
+        for (int pieces = own; pieces != 0; pieces &= pieces - 1) {
+            int from = Integer.numberOfTrailingZeros(pieces);
+            boolean king = (kings & (1 << from)) != 0;
+            // The square the piece leaves is free to land on again later in the chain
+            int empty = p.getEmpty() | (1 << from);
+            count = extendCapture(from, from, 0, king, forward, opponent, empty, kingsRow, moves, count, count);
+        }
+        return count;
+    }
+
+    /**
+     * Generate the non-capturing moves of the side to move, ignoring whether a capture is available.
+     * @param p The position to generate moves for
+     * @param moves Buffer the encoded moves are written to, at least MAX_MOVES long
+     * @return The number of moves written
+     */
+    public static int generateSteps(Position p, long[] moves) {
+        char side = p.getSideToMove();
+        int own = p.getPieces(side);
+        int empty = p.getEmpty();
+        int kings = p.getKings();
+
+        // Men only move forward, kings in every direction
+        int[] manSteps = side == 'w' ? WHITE_MAN_STEPS : BLACK_MAN_STEPS;
+
+        int count = 0;
+        for (int pieces = own; pieces != 0; pieces &= pieces - 1) {
+            int from = Integer.numberOfTrailingZeros(pieces);
+            int targets = ((kings & (1 << from)) != 0 ? KING_STEPS[from] : manSteps[from]) & empty;
+            for (; targets != 0; targets &= targets - 1) {
+                moves[count++] = Move.encode(from, Integer.numberOfTrailingZeros(targets), 0);
+            }
+        }
+        return count;
+    }
+
+    // Depth-first search over one piece's capture chains. The state of the path so far (current square and the
+    // mask of pieces already taken) is passed down as primitives, so no path lists are built or copied.
+    // Captured pieces stay on the board until the move ends: they can be neither jumped again nor landed on.
+    // A man that reaches the far row is crowned and its move ends there.
+    // Returns the new number of moves in the buffer; moves from index firstOfPiece on belong to this piece.
+    private static int extendCapture(int from, int at, int captured, boolean king, int forward, int opponent,
+                                     int empty, int kingsRow, long[] moves, int firstOfPiece, int count) {
+        boolean extended = false;
+        int first = king ? 0 : forward;
+        int last = king ? DOWN_RIGHT : forward + 1;
+
+        for (int dir = first; dir <= last; dir++) {
+            // An opponent's piece not yet taken, with an empty square behind it (off the board the mask is 0)
+            int overBit = JUMP_OVER[at << 2 | dir] & opponent & ~captured;
+            if (overBit == 0) {
+                continue;
+            }
+            int landing = JUMP_LANDING[at << 2 | dir];
+            if ((empty & (1 << landing)) == 0) {
+                continue;
+            }
+
+            extended = true;
+            if (!king && ((1 << landing) & kingsRow) != 0) {
+                count = addUnique(moves, firstOfPiece, count, Move.encode(from, landing, captured | overBit));
+            } else {
+                count = extendCapture(from, landing, captured | overBit, king, forward, opponent, empty, kingsRow,
+                        moves, firstOfPiece, count);
+            }
+        }
+
+        // The chain ends when no further jump is possible
+        if (!extended && captured != 0) {
+            count = addUnique(moves, firstOfPiece, count, Move.encode(from, at, captured));
+        }
+        return count;
+    }
+
+    // Adds a move unless an identical one (same squares, same captures) was already generated for this piece
+    private static int addUnique(long[] moves, int firstOfPiece, int count, long move) {
+        for (int i = firstOfPiece; i < count; i++) {
+            if (moves[i] == move) {
+                return count;
+            }
+        }
+        moves[count] = move;
+        return count + 1;
+    }
+
+    /**
+     * Work out the squares a move lands on, in order, for example to animate a multi-jump.
+     * A capture only records its start, end and captured squares, so the jumps are found again by a small search
+     * that only lands on empty squares; for a king that could take the same pieces in either order, one valid order
+     * is returned.
+     * @param before The position the move is played in
+     * @param move The move
+     * @param path Buffer for the landing squares, at least Position.SQUARES long
+     * @return The number of landing squares written; the last one is always Move.to(move)
+     */
+    public static int path(Position before, long move, int[] path) {
+        if (!Move.isCapture(move)) {
+            path[0] = Move.to(move);
+            return 1;
+        }
+        // The moving piece leaves its square, so a king may land on it again
+        int occupied = before.getOccupied() & ~(1 << Move.from(move));
+        int length = findPath(Move.from(move), Move.to(move), Move.captured(move), occupied, path, 0);
+        if (length < 0) {
+            path[0] = Move.to(move); // not a move this generator makes; go straight there
+            return 1;
+        }
+        return length;
+    }
+
+    // Depth-first search for an order of jumps from square at over every remaining captured square to the end square,
+    // landing only on squares that are not occupied
+    private static int findPath(int at, int to, int remaining, int occupied, int[] path, int length) {
+        if (remaining == 0) {
+            return at == to ? length : -1;
+        }
+        for (int dir = UP_LEFT; dir <= DOWN_RIGHT; dir++) {
+            int overBit = JUMP_OVER[at << 2 | dir] & remaining;
+            if (overBit == 0) {
+                continue;
+            }
+            int landing = JUMP_LANDING[at << 2 | dir];
+            if ((occupied & 1 << landing) != 0) {
+                continue;
+            }
+            path[length] = landing;
+            int found = findPath(landing, to, remaining & ~overBit, occupied, path, length + 1);
+            if (found >= 0) {
+                return found;
+            }
+        }
+        return -1;
+    }
+
+    // Returns the square next to the given one in a direction, or -1 if that would leave the board
+    public static int neighbour(int square, int direction) {
+        return NEIGHBOUR[square << 2 | direction];
+    }
+}
@@ -0,0 +1,171 @@
+// General Description
+// Package: Checkers
+// Purpose: The weights of a small quantized evaluation network, in the style of NNUE, used by NeuralEvaluator.
+// Input: 128 binary features, one per (own/enemy, man/king, square), seen from one side's point of view. Each
+// --> side's view is the board turned so that it moves up the board: square s becomes 31 - s for black.
+// First layer: for each view, an accumulator of HIDDEN int16 values, the bias plus the weight row of every feature
+// --> present. Only this layer sees the whole board, and since a move changes at most a few features it is updated
+// --> a row at a time as moves are made rather than recomputed (see NeuralEvaluator).
+// Output: both accumulators (side to move first) are clipped to 0..CLIP, multiplied by the output weights and
+// --> summed in int32; the sum plus the output bias, divided by the divisor, is the score in hundredths of a man.
+// Every weight is an int16, so with 128 hidden units the network is about 33 KB and fits in the L2 cache (the
+// --> feature rows it touches on a move fit in L1). The constructor checks that no accumulator can overflow, nor
+// --> the output sum: CLIP times the summed magnitudes of the output weights, plus the bias, must fit in an int32.
+// File format (big-endian): the magic "CKNNUE01", int hidden size, int divisor, int output bias, then as int16 the
+// --> feature weights (feature by feature, HIDDEN each), the HIDDEN biases and the 2 * HIDDEN output weights.
+// Methods:
+// load(Path) and save(Path), material() for a network that counts material like Evaluation.
+
+package Checkers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public final class NeuralNetwork {
+
+    public static final int FEATURES = 4 * Position.SQUARES; // Own men, own kings, enemy men, enemy kings by square
+    public static final int CLIP = 255; // Accumulator values are clipped to 0..CLIP before the output layer
+    private static final int MAX_PIECES = 24; // Most features present at once
+    private static final byte[] MAGIC = {'C', 'K', 'N', 'N', 'U', 'E', '0', '1'};
+
+    private final int hidden;
+    private final short[] featureWeights; // Row f, column j at f * hidden + j
+    private final short[] featureBias;
+    private final short[] outputWeights; // Side to move's accumulator first, then the other side's
+    private final int outputBias;
+    private final int divisor;
+
+    // Constructor: Creates a network from its weights, which it keeps (not copies)
+    public NeuralNetwork(int hidden, short[] featureWeights, short[] featureBias, short[] outputWeights,
+                         int outputBias, int divisor) {
+        if (featureWeights.length != FEATURES * hidden || featureBias.length != hidden
+                || outputWeights.length != 2 * hidden || divisor <= 0) {
+            throw new IllegalArgumentException("Network weights do not match a hidden layer of " + hidden);
+        }
+        for (int j = 0; j < hidden; j++) {
+            int largest = 0;
+            for (int f = 0; f < FEATURES; f++) {
+                largest = Math.max(largest, Math.abs(featureWeights[f * hidden + j]));
+            }
+            if (Math.abs(featureBias[j]) + MAX_PIECES * largest > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Hidden unit " + j + " could overflow its int16 accumulator");
+            }
+        }
+        long largestSum = Math.abs((long) outputBias);
+        for (short w : outputWeights) {
+            largestSum += (long) CLIP * Math.abs(w);
+        }
+        if (largestSum > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The output sum could overflow its int32 accumulator");
+        }
+        this.hidden = hidden;
+        this.featureWeights = featureWeights;
+        this.featureBias = featureBias;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+        this.divisor = divisor;
+    }
+
+    // Returns a network that scores material only, MAN per man and KING per king, as a starting point for training
+    public static NeuralNetwork material() {
+        int hidden = 8;
+        short[] weights = new short[FEATURES * hidden];
+        for (int f = 0; f < FEATURES; f++) {
+            weights[f * hidden + f / Position.SQUARES] = 1; // unit k counts the pieces of feature kind k
+        }
+        short[] output = new short[2 * hidden];
+        output[0] = Evaluation.MAN;
+        output[1] = Evaluation.KING;
+        output[2] = -Evaluation.MAN;
+        output[3] = -Evaluation.KING;
+        return new NeuralNetwork(hidden, weights, new short[hidden], output, 0, 1);
+    }
+
+    // Reads a network written by save()
+    public static NeuralNetwork load(Path path) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException(path + " is not a network file");
+            }
+            int hidden = in.readInt();
+            int divisor = in.readInt();
+            int outputBias = in.readInt();
+            if (hidden <= 0 || hidden > 4096) {
+                throw new IOException(path + ": bad hidden layer size " + hidden);
+            }
+            short[] weights = readShorts(in, FEATURES * hidden);
+            short[] bias = readShorts(in, hidden);
+            short[] output = readShorts(in, 2 * hidden);
+            try {
+                return new NeuralNetwork(hidden, weights, bias, output, outputBias, divisor);
+            } catch (IllegalArgumentException e) {
+                throw new IOException(path + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static short[] readShorts(DataInputStream in, int count) throws IOException {
+        short[] values = new short[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = in.readShort();
+        }
+        return values;
+    }
+
+    // Writes the network in the format load() reads
+    public void save(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.write(MAGIC);
+            out.writeInt(hidden);
+            out.writeInt(divisor);
+            out.writeInt(outputBias);
+            for (short[] values : new short[][] {featureWeights, featureBias, outputWeights}) {
+                for (short v : values) {
+                    out.writeShort(v);
+                }
+            }
+        }
+    }
+
+    // Returns the feature of a piece seen from white's side: kind (own/enemy, man/king) times 32 plus the square
+    static int whiteFeature(char colour, boolean king, int square) {
+        return ((colour == 'w' ? 0 : 2) + (king ? 1 : 0)) * Position.SQUARES + square;
+    }
+
+    // Returns the feature of a piece seen from black's side, with the board turned round
+    static int blackFeature(char colour, boolean king, int square) {
+        return ((colour == 'b' ? 0 : 2) + (king ? 1 : 0)) * Position.SQUARES + Position.SQUARES - 1 - square;
+    }
+
+    public int getHidden() {
+        return hidden;
+    }
+
+    short[] featureWeights() {
+        return featureWeights;
+    }
+
+    short[] featureBias() {
+        return featureBias;
+    }
+
+    short[] outputWeights() {
+        return outputWeights;
+    }
+
+    int outputBias() {
+        return outputBias;
+    }
+
+    int divisor() {
+        return divisor;
+    }
+}
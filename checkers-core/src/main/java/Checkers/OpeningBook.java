@@ -0,0 +1,116 @@
+// General Description
+// Package: Checkers
+// Purpose: Opening book: moves known from earlier games for positions near the start, looked up by position hash.
+// The book file, written by OpeningBookBuilder, is a header followed by fixed 24-byte records sorted by hash and
+// --> then by move: the position's Zobrist hash (8 bytes), the encoded move (8), its weight (4) and the number
+// --> of games it was played in (4). It is memory-mapped and binary-searched, so a lookup touches a few pages
+// --> and opening the book costs nothing however large it is.
+// A move's weight is the score it earned its side in those games: 2 for each win and 1 for each draw.
+// Methods:
+// open(Path) to map a book file, bestMove(Position p) for the highest-weighted legal book move (or bestMove(p, moves,
+// --> count) when the legal moves are already generated), size() for the number of records.
+
+package Checkers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class OpeningBook {
+
+    static final long MAGIC = 0x434B424F4F4B3031L; // "CKBOOK01"
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_SIZE = 24;
+
+    private final ByteBuffer records; // The mapped file, or an empty buffer for an empty book
+    private final int size;
+
+    // Constructor: Creates an empty book, which knows no moves
+    public OpeningBook() {
+        this(ByteBuffer.allocate(HEADER_SIZE));
+    }
+
+    private OpeningBook(ByteBuffer records) {
+        this.records = records;
+        this.size = (records.capacity() - HEADER_SIZE) / RECORD_SIZE;
+    }
+
+    // Maps a book file. A missing file gives an empty book.
+    public static OpeningBook open(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return new OpeningBook();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (map.capacity() < HEADER_SIZE || map.getLong(0) != MAGIC
+                    || (map.capacity() - HEADER_SIZE) % RECORD_SIZE != 0) {
+                throw new IOException("Not an opening book: " + file);
+            }
+            return new OpeningBook(map);
+        }
+    }
+
+    // Returns the number of (position, move) records in the book
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Find the book move for a position.
+     * @return The legal move with the highest weight, or Move.NONE if the book does not know the position
+     */
+    public long bestMove(Position p) {
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        return bestMove(p, moves, MoveGenerator.generate(p, moves));
+    }
+
+    /**
+     * Find the book move for a position whose legal moves the caller has already generated, e.g. a search at its
+     * root. The book is shared between threads, so it keeps no move list of its own.
+     * @param moves The legal moves in p, of which only the first count are read
+     * @return The legal move with the highest weight, or Move.NONE if the book does not know the position
+     */
+    public long bestMove(Position p, long[] moves, int count) {
+        long hash = p.getHash();
+        long best = Move.NONE;
+        int bestWeight = -1;
+        for (int i = firstRecord(hash); i < size && hashAt(i) == hash; i++) {
+            long move = records.getLong(HEADER_SIZE + i * RECORD_SIZE + 8);
+            int weight = records.getInt(HEADER_SIZE + i * RECORD_SIZE + 16);
+            if (weight <= bestWeight) {
+                continue;
+            }
+            // A different position with the same hash could share the record, so only accept legal moves
+            for (int j = 0; j < count; j++) {
+                if (moves[j] == move) {
+                    best = move;
+                    bestWeight = weight;
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Binary search for the first record with a hash not less than the given one
+    private int firstRecord(long hash) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (hashAt(middle) < hash) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long hashAt(int i) {
+        return records.getLong(HEADER_SIZE + i * RECORD_SIZE);
+    }
+}
@@ -0,0 +1,221 @@
+// General Description
+// Package: Checkers
+// Purpose: Builds an OpeningBook file from game records (PDN or binary archives, such as those SelfPlay writes).
+// The first plies of every game are replayed, and each move played is credited to its position: 2 for a win of
+// --> the side that played it, 1 for a draw, 0 for a loss or an unfinished game. Moves that never earned
+// --> anything, or were played in too few games to trust, are left out of the book.
+// Counts are kept in an open-addressing table of primitive arrays, so millions of positions fit comfortably.
+// Methods:
+// add(GameRecord game) to count a game, addFile(Path) to count every game in a file, write(Path, int minGames).
+// main() runs it from the command line:
+// OpeningBookBuilder [--plies=n] [--min-games=n] [--out=file] archive...
+
+package Checkers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OpeningBookBuilder {
+
+    public static final int DEFAULT_PLIES = 24; // Book depth: the first twelve moves of each side
+    public static final int DEFAULT_MIN_GAMES = 2;
+
+    private final int maxPlies;
+    private long[] hashes = new long[1 << 16];
+    private long[] moves = new long[1 << 16]; // Move.NONE marks an empty slot
+    private int[] weights = new int[1 << 16];
+    private int[] games = new int[1 << 16];
+    private int entries;
+    private int gamesAdded;
+
+    // Constructor: Counts the first maxPlies moves of each game
+    public OpeningBookBuilder(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    // Counts the opening moves of one game
+    public void add(GameRecord game) {
+        Position p = Position.start();
+        int plies = Math.min(maxPlies, game.size());
+        for (int i = 0; i < plies; i++) {
+            long move = game.getMove(i);
+            char mover = p.getSideToMove();
+            int score = game.getResult() == mover ? 2 : game.getResult() == GameRecord.DRAW ? 1 : 0;
+            count(p.getHash(), move, score);
+            p.apply(move);
+        }
+        gamesAdded++;
+    }
+
+    // Counts every game in a file: a binary archive if its name ends in ".ckg", PDN otherwise
+    public void addFile(Path file) throws IOException {
+        GameRecord game = new GameRecord();
+        if (file.getFileName().toString().endsWith(".ckg")) {
+            try (GameFileReader in = GameFileReader.open(file)) {
+                while (in.next(game)) {
+                    add(game);
+                }
+            }
+        } else {
+            try (PdnReader in = PdnReader.open(file)) {
+                while (in.next(game)) {
+                    add(game);
+                }
+            }
+        }
+    }
+
+    // Adds a result to the (position, move) slot, claiming a new slot if needed
+    private void count(long hash, long move, int score) {
+        if (entries * 4 >= moves.length * 3) {
+            grow();
+        }
+        int slot = find(hashes, moves, hash, move);
+        if (moves[slot] == Move.NONE) {
+            hashes[slot] = hash;
+            moves[slot] = move;
+            entries++;
+        }
+        weights[slot] += score;
+        games[slot]++;
+    }
+
+    // Linear probing for the slot of (hash, move), or the empty slot where it belongs
+    private static int find(long[] hashes, long[] moves, long hash, long move) {
+        int mask = moves.length - 1;
+        long mixed = (hash ^ move * 0x9E3779B97F4A7C15L);
+        int slot = (int) (mixed ^ (mixed >>> 32)) & mask;
+        while (moves[slot] != Move.NONE && (hashes[slot] != hash || moves[slot] != move)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Doubles the table, re-inserting every entry
+    private void grow() {
+        long[] oldHashes = hashes;
+        long[] oldMoves = moves;
+        int[] oldWeights = weights;
+        int[] oldGames = games;
+        int capacity = oldMoves.length * 2;
+        hashes = new long[capacity];
+        moves = new long[capacity];
+        weights = new int[capacity];
+        games = new int[capacity];
+        for (int i = 0; i < oldMoves.length; i++) {
+            if (oldMoves[i] != Move.NONE) {
+                int slot = find(hashes, moves, oldHashes[i], oldMoves[i]);
+                hashes[slot] = oldHashes[i];
+                moves[slot] = oldMoves[i];
+                weights[slot] = oldWeights[i];
+                games[slot] = oldGames[i];
+            }
+        }
+    }
+
+    /**
+     * Write the book, sorted by hash and move.
+     * @param minGames Leave out moves played in fewer games than this
+     * @return The number of records written
+     */
+    public int write(Path file, int minGames) throws IOException {
+        int[] kept = new int[moves.length];
+        int count = 0;
+        for (int i = 0; i < moves.length; i++) {
+            if (moves[i] != Move.NONE && weights[i] > 0 && games[i] >= minGames) {
+                kept[count++] = i;
+            }
+        }
+        sortSlots(kept, count);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(OpeningBook.RECORD_SIZE * 4096);
+            buffer.putLong(OpeningBook.MAGIC);
+            for (int k = 0; k < count; k++) {
+                int i = kept[k];
+                if (buffer.remaining() < OpeningBook.RECORD_SIZE) {
+                    flush(channel, buffer);
+                }
+                buffer.putLong(hashes[i]).putLong(moves[i]).putInt(weights[i]).putInt(games[i]);
+            }
+            flush(channel, buffer);
+        }
+        return count;
+    }
+
+    // Heapsort of the first count table slots by hash, then by move
+    private void sortSlots(int[] slots, int count) {
+        for (int i = count / 2 - 1; i >= 0; i--) {
+            siftDown(slots, i, count);
+        }
+        for (int end = count - 1; end > 0; end--) {
+            int top = slots[0];
+            slots[0] = slots[end];
+            slots[end] = top;
+            siftDown(slots, 0, end);
+        }
+    }
+
+    private void siftDown(int[] slots, int i, int count) {
+        int slot = slots[i];
+        for (int child = 2 * i + 1; child < count; child = 2 * i + 1) {
+            if (child + 1 < count && before(slots[child], slots[child + 1])) {
+                child++;
+            }
+            if (!before(slot, slots[child])) {
+                break;
+            }
+            slots[i] = slots[child];
+            i = child;
+        }
+        slots[i] = slot;
+    }
+
+    // Returns true if slot a's record is written before slot b's
+    private boolean before(int a, int b) {
+        return hashes[a] != hashes[b] ? hashes[a] < hashes[b] : moves[a] < moves[b];
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int plies = DEFAULT_PLIES;
+        int minGames = DEFAULT_MIN_GAMES;
+        Path out = Paths.get("book.bin");
+        List<Path> inputs = new ArrayList<>();
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--plies=")) {
+                plies = Integer.parseInt(value);
+            } else if (arg.startsWith("--min-games=")) {
+                minGames = Integer.parseInt(value);
+            } else if (arg.startsWith("--out=")) {
+                out = Paths.get(value);
+            } else if (arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            } else {
+                inputs.add(Paths.get(arg));
+            }
+        }
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(plies);
+        for (Path input : inputs) {
+            builder.addFile(input);
+        }
+        int records = builder.write(out, minGames);
+        System.out.printf("%d games, %d records written to %s%n", builder.gamesAdded, records, out);
+    }
+}
@@ -0,0 +1,200 @@
+// General Description
+// Package: Checkers
+// Purpose: Runs the search on several cores with "Lazy SMP": every thread runs its own Search on the same root
+// --> position, and all of them share one TranspositionTable. Threads pick up each other's results through the
+// --> table, so the main thread reaches each depth sooner. Helper threads start their iterative deepening at
+// --> staggered depths so they do not all work on the same iteration.
+// The answer is the main thread's move, unless a helper completed a deeper iteration.
+// Methods:
+// search(Position root, int maxDepth, long timeMillis) finds a move using every thread; an overload also takes the
+// --> GameHistory of the game so far, so that repetitions are scored as draws (see Search).
+// getNodes(), getNodesPerSecond(), getDepth() and getScore() describe the last search; shutdown() stops the threads.
+// stop() ends a search early from another thread; setListener() follows the main thread's progress.
+// main() prints time-to-depth and nodes-per-second for 1, 2, 4, ... threads.
+
+package Checkers;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ParallelSearch {
+
+    private final TranspositionTable table;
+    private final Search[] searches; // searches[0] is run by the calling thread, the others by helper threads.
+    private final Future<?>[] helpers;
+    private final ExecutorService executor;
+    private final AtomicBoolean stopSignal = new AtomicBoolean();
+
+    private long bestMove = Move.NONE;
+    private int bestScore;
+    private int completedDepth;
+    private long nodes;
+    private long elapsedNanos;
+
+    // Constructor: Creates a search using the given number of threads and a shared table of the given size
+    public ParallelSearch(int threads, int tableMegabytes) {
+        threads = Math.max(1, threads);
+        this.table = new TranspositionTable(tableMegabytes);
+        this.searches = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(table, stopSignal);
+            searches[i].setFirstDepth(1 + i % 3);
+        }
+        this.helpers = new Future<?>[threads - 1];
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads - 1), r -> {
+            Thread t = new Thread(r, "search-helper");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Search for the best move of the side to move on every thread.
+     * @param root The position to search from, left unchanged
+     * @param maxDepth Maximum depth to search to, in plies
+     * @param timeMillis Time budget shared by all threads
+     * @return The best move found, or Move.NONE if the side to move has no legal move
+     */
+    public long search(Position root, int maxDepth, long timeMillis) {
+        return search(root, null, maxDepth, timeMillis);
+    }
+
+    // Search on every thread knowing the game that led to root (null for none), which every thread copies
+    public long search(Position root, GameHistory game, int maxDepth, long timeMillis) {
+        long start = System.nanoTime();
+        stopSignal.set(false);
+        table.newSearch(); // once for all the threads, so entries of this search share one age
+        for (int i = 1; i < searches.length; i++) {
+            Search helper = searches[i];
+            Position copy = root.copy();
+            GameHistory gameCopy = game == null ? null : game.copy();
+            helpers[i - 1] = executor.submit(() -> helper.search(copy, gameCopy, maxDepth, timeMillis));
+        }
+
+        bestMove = searches[0].search(root, game, maxDepth, timeMillis);
+        bestScore = searches[0].getScore();
+        completedDepth = searches[0].getDepth();
+
+        // The main thread is done: stop the helpers and wait for them, taking a deeper result if one finished
+        stopSignal.set(true);
+        nodes = searches[0].getNodes();
+        for (int i = 1; i < searches.length; i++) {
+            try {
+                helpers[i - 1].get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search thread failed", e.getCause());
+            }
+            Search helper = searches[i];
+            nodes += helper.getNodes();
+            if (helper.getDepth() > completedDepth && bestMove != Move.NONE) {
+                completedDepth = helper.getDepth();
+                bestScore = helper.getScore();
+                bestMove = helper.getBestMove();
+            }
+        }
+        elapsedNanos = System.nanoTime() - start;
+        return bestMove;
+    }
+
+    // Ends the search in progress on every thread as soon as possible; it still returns its best move so far
+    public void stop() {
+        stopSignal.set(true);
+    }
+
+    // Sets who is told about each depth the main thread completes; null for nobody
+    public void setListener(Search.Listener listener) {
+        searches[0].setListener(listener);
+    }
+
+    // Returns the transposition table shared by every thread
+    public TranspositionTable getTable() {
+        return searches[0].getTable();
+    }
+
+    // Makes every thread evaluate with the given network, each with its own NeuralEvaluator; null for the handcrafted one
+    public void setNetwork(NeuralNetwork network) {
+        for (Search search : searches) {
+            search.setEvaluator(network == null ? new HandcraftedEvaluator() : new NeuralEvaluator(network));
+        }
+    }
+
+    // Makes every thread evaluate with the handcrafted evaluation weighted by the given weights (see Evaluation)
+    public void setWeights(int[] weights) {
+        for (Search search : searches) {
+            search.setEvaluator(new HandcraftedEvaluator(weights));
+        }
+    }
+
+    // Lets every thread look up positions with few pieces in an endgame tablebase; its mapped files are shared
+    public void setTablebase(Tablebase tablebase) {
+        for (Search search : searches) {
+            search.setTablebase(tablebase);
+        }
+    }
+
+    // Lets the search play book moves without searching
+    public void setOpeningBook(OpeningBook book) {
+        searches[0].setOpeningBook(book); // the helpers' results are not used when the book answers
+    }
+
+    // Returns the number of threads searching
+    public int getThreads() {
+        return searches.length;
+    }
+
+    // Returns the score of the best move of the last search
+    public int getScore() {
+        return bestScore;
+    }
+
+    // Returns the deepest fully searched depth of the last search
+    public int getDepth() {
+        return completedDepth;
+    }
+
+    // Returns the number of positions visited by all threads in the last search
+    public long getNodes() {
+        return nodes;
+    }
+
+    // Returns the number of positions visited per second by all threads in the last search
+    public long getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    // Stops the helper threads; the search cannot be used afterwards
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Print how the search scales with the number of threads: time to reach a fixed depth and nodes per second.
+     * Usage: ParallelSearch [depth] [maxThreads]
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 18;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        System.out.println("threads  depth  time(ms)  nodes  nodes/s  speedup");
+        double baseline = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ParallelSearch search = new ParallelSearch(threads, 64);
+            search.search(Position.start(), Math.min(depth, 6), 60_000); // warm up the JIT
+            search.shutdown();
+            search = new ParallelSearch(threads, 64); // a cold table, so every thread count starts alike
+            long start = System.nanoTime();
+            search.search(Position.start(), depth, 600_000);
+            double millis = (System.nanoTime() - start) / 1e6;
+            if (threads == 1) {
+                baseline = millis;
+            }
+            System.out.printf("%7d  %5d  %8.0f  %5d  %7d  %7.2f%n", threads, search.getDepth(), millis,
+                    search.getNodes(), search.getNodesPerSecond(), baseline / millis);
+            search.shutdown();
+        }
+    }
+}
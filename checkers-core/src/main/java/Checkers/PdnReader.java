@@ -0,0 +1,239 @@
+// General Description
+// Package: Checkers
+// Purpose: Reads PDN games written by PdnWriter, or by other programs using the standard English checkers
+// --> numbering (see PdnWriter for how squares and colours map onto this board). Games are read one at a time
+// --> from a stream, so a file of any size can be read in constant memory.
+// Every move is checked against the legal moves of the position, so a game that was read is always playable.
+// Tags other than Result are skipped, as are {comments}, move numbers and "(variations)". A GameRecord always starts
+// --> from the start position, so a game set up elsewhere (a FEN tag, or SetUp "1") is rejected with an IOException.
+// A game normally ends at its result token. One without a result token ends where the next game's tags begin, or
+// --> at the end of the input, and takes its result from its Result tag.
+// Methods:
+// open(Path) to open a file, next(GameRecord game) to read the next game into a reusable record, close().
+
+package Checkers;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class PdnReader implements Closeable {
+
+    private final Reader in;
+    private final StringBuilder token = new StringBuilder();
+    private final long[] moves = new long[MoveGenerator.MAX_MOVES];
+    private final int[] path = new int[MoveGenerator.MAX_MOVES];
+    private final int[] squares = new int[MoveGenerator.MAX_MOVES];
+    private final Position position = new Position();
+    private int pushedBack = -1; // A character read one too far, or -1
+    private String heldTag; // The next game's first tag, read past the end of a result-less game, or null
+
+    // Constructor: Reads from the given reader, which should be buffered
+    public PdnReader(Reader in) {
+        this.in = in;
+    }
+
+    // Opens a PDN file
+    public static PdnReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        return new PdnReader(new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8), 1 << 16));
+    }
+
+    /**
+     * Read the next game, up to and including its result token, or up to the next game's tags if it has none.
+     * @param game Record to fill; its previous contents are cleared
+     * @return False if there are no more games
+     * @throws IOException If a move cannot be read or is not legal, or the game starts from a set-up position
+     */
+    public boolean next(GameRecord game) throws IOException {
+        game.clear();
+        position.copyFrom(Position.start());
+        boolean started = false;
+        char tagResult = GameRecord.UNFINISHED;
+
+        while (heldTag != null || nextToken()) {
+            String text = heldTag != null ? heldTag : token.toString();
+            heldTag = null;
+            started = true;
+            if (text.startsWith("[")) {
+                if (game.size() > 0) {
+                    // Tags after moves belong to the next game: this one ended without a result token
+                    heldTag = text;
+                    game.setResult(tagResult);
+                    return true;
+                }
+                if (text.startsWith("[Result ")) {
+                    tagResult = parseResult(text.substring(8).replace("\"", "").replace("]", "").trim());
+                } else if (text.startsWith("[FEN ") || text.replace(" ", "").equals("[SetUp\"1\"]")) {
+                    throw new IOException("Games from a set-up position are not supported: " + text);
+                }
+            } else if (isResult(text)) {
+                game.setResult(parseResult(text));
+                return true;
+            } else if (!isMoveNumber(text)) {
+                long move = parseMove(text);
+                game.add(move);
+                position.apply(move);
+            }
+        }
+        // The file ended without a result token: keep what was read, if anything
+        game.setResult(tagResult);
+        return started;
+    }
+
+    // Reads the next token into token, skipping whitespace, {comments} and (variations); false at the end of input
+    private boolean nextToken() throws IOException {
+        token.setLength(0);
+        int c = read();
+        while (c >= 0) {
+            if (Character.isWhitespace(c)) {
+                c = read();
+            } else if (c == '{') {
+                skipPast('{', '}');
+                c = read();
+            } else if (c == '(') {
+                skipPast('(', ')');
+                c = read();
+            } else {
+                break;
+            }
+        }
+        if (c < 0) {
+            return false;
+        }
+        if (c == '[') {
+            // A tag runs to the closing bracket, spaces and all
+            while (c >= 0 && c != ']') {
+                token.append((char) c);
+                c = read();
+            }
+            token.append(']');
+            return true;
+        }
+        while (c >= 0 && !Character.isWhitespace(c) && c != '{' && c != '(') {
+            token.append((char) c);
+            // "1.9-13" is a move number and a move without a space between them
+            if (c == '.' && isMoveNumber(token.toString())) {
+                c = read();
+                while (c == '.') {
+                    token.append('.');
+                    c = read();
+                }
+                pushedBack = c;
+                return true;
+            }
+            c = read();
+        }
+        pushedBack = c;
+        return true;
+    }
+
+    // Skips to the matching close character, allowing nesting
+    private void skipPast(char open, char close) throws IOException {
+        int depth = 1;
+        while (depth > 0) {
+            int c = read();
+            if (c < 0) {
+                return;
+            } else if (c == open) {
+                depth++;
+            } else if (c == close) {
+                depth--;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack >= 0) {
+            int c = pushedBack;
+            pushedBack = -1;
+            return c;
+        }
+        return in.read();
+    }
+
+    // Finds the legal move a token like "9-13", "9x18" or "9x18x27" stands for
+    private long parseMove(String text) throws IOException {
+        int count = 0;
+        for (String part : text.split("[-x]")) {
+            try {
+                squares[count++] = Integer.parseInt(part) - 1;
+            } catch (NumberFormatException e) {
+                throw new IOException("Unreadable move \"" + text + "\"");
+            }
+        }
+        if (count < 2) {
+            throw new IOException("Unreadable move \"" + text + "\"");
+        }
+
+        int from = squares[0];
+        int to = squares[count - 1];
+        int legal = MoveGenerator.generate(position, moves);
+        for (int i = 0; i < legal; i++) {
+            long move = moves[i];
+            if (Move.from(move) == from && Move.to(move) == to && landsOn(move, count)) {
+                return move;
+            }
+        }
+        throw new IOException("Illegal move \"" + text + "\" in position\n" + position);
+    }
+
+    // Checks that a move passes through the intermediate landing squares given in squares[1 .. count-2]
+    private boolean landsOn(long move, int count) {
+        if (count == 2) {
+            return true;
+        }
+        int length = MoveGenerator.path(position, move, path);
+        if (length != count - 1) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (path[i] != squares[i + 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Returns true for move numbers such as "12." or "12..."
+    private static boolean isMoveNumber(String text) {
+        int digits = 0;
+        while (digits < text.length() && Character.isDigit(text.charAt(digits))) {
+            digits++;
+        }
+        return digits > 0 && digits < text.length() && text.substring(digits).matches("\\.+");
+    }
+
+    private static boolean isResult(String text) {
+        return text.equals("1-0") || text.equals("0-1") || text.equals("1/2-1/2") || text.equals("*")
+                || text.equals("2-0") || text.equals("0-2") || text.equals("1-1");
+    }
+
+    // The reverse of PdnWriter.resultToken(), also accepting the 2-0/0-2/1-1 scoring some programs use
+    private static char parseResult(String text) {
+        switch (text) {
+            case "1-0":
+            case "2-0":
+                return 'b';
+            case "0-1":
+            case "0-2":
+                return 'w';
+            case "1/2-1/2":
+            case "1-1":
+                return GameRecord.DRAW;
+            default:
+                return GameRecord.UNFINISHED;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,111 @@
+// General Description
+// Package: Checkers
+// Purpose: Writes games as PDN (Portable Draughts Notation) text, one game after another, to any Writer.
+// Squares are numbered 1-32, which is this board's square index plus one (see Position). That is the standard
+// --> English checkers numbering, in which the side on squares 1-12 moves first and is called Black, so the
+// --> colours are swapped in PDN: our white is PDN's Black and our black is PDN's White.
+// Captures are written with every landing square ("9x18x27"), so multi-jump moves are never ambiguous.
+// Methods:
+// open(Path) to create a file, write(GameRecord) to append a game, close().
+// resultToken() converts a result to the PDN result token.
+
+package Checkers;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class PdnWriter implements Closeable {
+
+    static final int LINE_LENGTH = 80; // Move text is wrapped before this column
+
+    private final Writer out;
+    private final int[] path = new int[MoveGenerator.MAX_MOVES];
+    private final Position position = new Position(); // The position each move is played in, for its path
+
+    // Constructor: Writes to the given writer
+    public PdnWriter(Writer out) {
+        this.out = out;
+    }
+
+    // Creates (or truncates) a PDN file
+    public static PdnWriter open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        return new PdnWriter(new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), 1 << 16));
+    }
+
+    // Appends a game: its tags, the numbered move text and the result
+    public void write(GameRecord game) throws IOException {
+        String result = resultToken(game.getResult());
+        out.write("[Event \"2D-CheckersGame\"]\n");
+        out.write("[GameType \"21\"]\n");
+        out.write("[Result \"" + result + "\"]\n");
+
+        StringBuilder line = new StringBuilder();
+        position.copyFrom(Position.start());
+        for (int i = 0; i < game.size(); i++) {
+            StringBuilder token = new StringBuilder();
+            if (i % 2 == 0) {
+                token.append(i / 2 + 1).append(". ");
+            }
+            appendMove(token, game.getMove(i));
+            position.apply(game.getMove(i));
+            wrap(line, token);
+        }
+        wrap(line, new StringBuilder(result));
+        out.write(line.toString());
+        out.write("\n\n");
+    }
+
+    // Adds a token to the current line, first writing the line out if the token would make it too long
+    private void wrap(StringBuilder line, StringBuilder token) throws IOException {
+        if (line.length() > 0 && line.length() + 1 + token.length() > LINE_LENGTH) {
+            out.write(line.toString());
+            out.write('\n');
+            line.setLength(0);
+        }
+        if (line.length() > 0) {
+            line.append(' ');
+        }
+        line.append(token);
+    }
+
+    // Writes "from-to" for a step, or every landing square of a capture separated by 'x'
+    private void appendMove(StringBuilder sb, long move) {
+        if (!Move.isCapture(move)) {
+            sb.append(Move.from(move) + 1).append('-').append(Move.to(move) + 1);
+            return;
+        }
+        sb.append(Move.from(move) + 1);
+        int length = MoveGenerator.path(position, move, path);
+        for (int i = 0; i < length; i++) {
+            sb.append('x').append(path[i] + 1);
+        }
+    }
+
+    // Returns the PDN result token of a game result: PDN's White (our black) wins "1-0", its Black (our white) "0-1"
+    public static String resultToken(char result) {
+        switch (result) {
+            case 'b':
+                return "1-0";
+            case 'w':
+                return "0-1";
+            case GameRecord.DRAW:
+                return "1/2-1/2";
+            default:
+                return "*";
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
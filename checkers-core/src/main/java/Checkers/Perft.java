@@ -0,0 +1,100 @@
+// General Description
+// Package: Checkers
+// Purpose: Perft ("performance test"): counts the leaf nodes of the full move tree to a fixed depth.
+// The counts from the start position are published for English draughts, so they check the move generator
+// --> exactly, and the time taken measures its speed.
+// Methods:
+// count(Position p, int depth) returns the number of leaf nodes.
+// main() runs perft from the start position, checks each depth against the published numbers and prints nodes/s.
+// --> With --min-nps=<n> it exits with status 1 if the rate falls below n, to use as a regression gate.
+
+package Checkers;
+
+public class Perft {
+
+    // Published leaf counts from the start position, by depth (index 0 is depth 0)
+    public static final long[] START_COUNTS = {
+            1L, 7L, 49L, 302L, 1469L, 7361L, 36768L, 179740L, 845931L, 3963680L, 18391564L, 85242128L
+    };
+
+    private final Position position = new Position(); // Position at the end of the current line
+    private final UndoStack undo; // Records of the moves made to reach it
+    private final long[][] moves; // Move buffer for each ply
+
+    // Constructor: Creates a perft driver able to count to the given depth
+    public Perft(int maxDepth) {
+        this.undo = new UndoStack(maxDepth + 1);
+        this.moves = new long[maxDepth + 1][MoveGenerator.MAX_MOVES];
+    }
+
+    /**
+     * Count the leaf nodes of the move tree.
+     * @param p The position to start from, left unchanged
+     * @param depth Number of plies to expand; at most the depth given to the constructor
+     * @return The number of positions reached at exactly that depth
+     */
+    public long count(Position p, int depth) {
+        position.copyFrom(p);
+        undo.clear();
+        return count(0, depth);
+    }
+
+    private long count(int ply, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        long[] list = moves[ply];
+        int n = MoveGenerator.generate(position, list);
+        if (depth == 1) {
+            return n; // the leaves need not be played
+        }
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            position.makeMove(list[i], undo);
+            total += count(ply + 1, depth - 1);
+            position.unmakeMove(undo);
+        }
+        return total;
+    }
+
+    /**
+     * Run perft from the start position.
+     * Usage: Perft [depth] [--min-nps=n]
+     */
+    public static void main(String[] args) {
+        int maxDepth = 11;
+        long minNps = 0;
+        for (String arg : args) {
+            if (arg.startsWith("--min-nps=")) {
+                minNps = Long.parseLong(arg.substring("--min-nps=".length()));
+            } else {
+                maxDepth = Integer.parseInt(arg);
+            }
+        }
+
+        Perft perft = new Perft(maxDepth);
+        long nps = 0;
+        boolean correct = true;
+        System.out.println("depth  nodes  time(ms)  nodes/s");
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            long start = System.nanoTime();
+            long nodes = perft.count(Position.start(), depth);
+            long nanos = Math.max(1, System.nanoTime() - start);
+            nps = nodes * 1_000_000_000L / nanos;
+            String check = "";
+            if (depth < START_COUNTS.length && nodes != START_COUNTS[depth]) {
+                check = "  WRONG, expected " + START_COUNTS[depth];
+                correct = false;
+            }
+            System.out.printf("%5d  %d  %d  %d%s%n", depth, nodes, nanos / 1_000_000, nps, check);
+        }
+
+        if (!correct) {
+            System.exit(1);
+        }
+        if (nps < minNps) {
+            System.out.println("Too slow: " + nps + " nodes/s at the deepest depth, below the required " + minNps);
+            System.exit(1);
+        }
+    }
+}
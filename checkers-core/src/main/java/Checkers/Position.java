@@ -0,0 +1,356 @@
+// General Description
+// Package: Checkers
+// Purpose: Compact representation of a whole checkers position. The 32 playable (dark) squares are packed
+// --> into int bitmasks, one bit per square, so a position is a handful of ints instead of a grid of objects.
+// Square numbering:
+// Square s sits on row y = s / 4. On even rows the dark squares are the odd columns, on odd rows the even columns,
+// --> so square 0 is (1,0), square 3 is (7,0), square 4 is (0,1) and square 31 is (6,7).
+// White starts on squares 0-11 and moves towards row 7, black starts on squares 20-31 and moves towards row 0.
+// Methods:
+// start() to create the initial position, square()/squareX()/squareY() to convert between squares and board coordinates.
+// colourAt(), isKing(), getPieces() and count() for queries, put(), remove(), movePiece() and crown() for updates.
+// apply(long move) to play a move produced by MoveGenerator.
+// makeMove(long move, UndoStack undo) and unmakeMove(UndoStack undo) to play moves and take them back incrementally.
+// getHash() returns the Zobrist hash, which every update keeps current by XORing only the keys that changed.
+// Cell and CheckersPiece are only views of a Position, built by App for rendering.
+
+package Checkers;
+
+public class Position {
+
+    public static final int SQUARES = 32; // Number of playable squares on the board.
+    public static final int BOARD_WIDTH = 8; // The width and height of the board the squares are laid out on.
+    public static final char EMPTY = ' '; // Returned by colourAt() for a square without a piece.
+
+    // Squares on which a man of the given colour is crowned.
+    public static final int WHITE_KINGS_ROW = 0xF0000000; // Row 7, squares 28-31
+    public static final int BLACK_KINGS_ROW = 0x0000000F; // Row 0, squares 0-3
+
+    private int white; // Bit s is set if a white piece (man or king) stands on square s.
+    private int black; // Bit s is set if a black piece (man or king) stands on square s.
+    private int kings; // Bit s is set if the piece on square s is a king, of either colour.
+    private char sideToMove = 'w'; // 'w' or 'b', whoever moves next.
+    private long hash; // Zobrist hash of the above, kept up to date by every update.
+
+    // Constructor: Creates an empty board with white to move
+    public Position() {
+
+    }
+
+    // Constructor: Creates a position directly from its bitmasks
+    public Position(int white, int black, int kings, char sideToMove) {
+        this.white = white;
+        this.black = black;
+        this.kings = kings & (white | black);
+        this.sideToMove = sideToMove;
+        this.hash = Zobrist.compute(this.white, this.black, this.kings, sideToMove);
+    }
+
+    // Returns the starting position: twelve men each, white on the first three rows and to move
+    public static Position start() {
+        return new Position(0x00000FFF, 0xFFF00000, 0, 'w');
+    }
+
+    // Returns an independent copy of this position
+    public Position copy() {
+        return new Position(white, black, kings, sideToMove);
+    }
+
+    // Overwrites this position with the contents of another one, without allocating
+    public void copyFrom(Position other) {
+        this.white = other.white;
+        this.black = other.black;
+        this.kings = other.kings;
+        this.sideToMove = other.sideToMove;
+        this.hash = other.hash;
+    }
+
+    // Overwrites this position with the given bitmasks, without allocating
+    public void set(int white, int black, int kings, char sideToMove) {
+        this.white = white;
+        this.black = black;
+        this.kings = kings & (white | black);
+        this.sideToMove = sideToMove;
+        this.hash = Zobrist.compute(this.white, this.black, this.kings, sideToMove);
+    }
+
+    /* --------------------------------------- */
+    // SQUARE COORDINATES
+    /* --------------------------------------- */
+
+    // Returns the square index of board coordinate (x,y), or -1 if it is a light (unplayable) square or off the board
+    public static int square(int x, int y) {
+        if (x < 0 || x >= BOARD_WIDTH || y < 0 || y >= BOARD_WIDTH || (x + y) % 2 == 0) {
+            return -1;
+        }
+        return y * 4 + x / 2;
+    }
+
+    // Returns the board x-coordinate (column) of a square
+    public static int squareX(int square) {
+        return ((square & 3) << 1) + (((square >> 2) & 1) == 0 ? 1 : 0);
+    }
+
+    // Returns the board y-coordinate (row) of a square
+    public static int squareY(int square) {
+        return square >> 2;
+    }
+
+    /* --------------------------------------- */
+    // QUERIES
+    /* --------------------------------------- */
+
+    public int getWhite() {
+        return white;
+    }
+
+    public int getBlack() {
+        return black;
+    }
+
+    public int getKings() {
+        return kings;
+    }
+
+    // Returns the mask of all pieces of one colour ('w' or 'b')
+    public int getPieces(char colour) {
+        return colour == 'w' ? white : black;
+    }
+
+    // Returns the mask of all occupied squares
+    public int getOccupied() {
+        return white | black;
+    }
+
+    // Returns the mask of all empty squares
+    public int getEmpty() {
+        return ~(white | black);
+    }
+
+    public char getSideToMove() {
+        return sideToMove;
+    }
+
+    public void setSideToMove(char sideToMove) {
+        if (sideToMove != this.sideToMove) {
+            switchSide();
+        }
+    }
+
+    // Passes the turn to the other player
+    public void switchSide() {
+        sideToMove = opponent(sideToMove);
+        hash ^= Zobrist.BLACK_TO_MOVE;
+    }
+
+    // Returns the Zobrist hash of the position (see Zobrist)
+    public long getHash() {
+        return hash;
+    }
+
+    // Returns the other colour
+    public static char opponent(char colour) {
+        return colour == 'w' ? 'b' : 'w';
+    }
+
+    // Returns the number of pieces of one colour still on the board
+    public int count(char colour) {
+        return Integer.bitCount(getPieces(colour));
+    }
+
+    // Returns 'w' or 'b' for the colour of the piece on a square, or EMPTY
+    public char colourAt(int square) {
+        int bit = 1 << square;
+        if ((white & bit) != 0) {
+            return 'w';
+        } else if ((black & bit) != 0) {
+            return 'b';
+        }
+        return EMPTY;
+    }
+
+    // Returns true if the piece on a square is a king
+    public boolean isKing(int square) {
+        return (kings & (1 << square)) != 0;
+    }
+
+    /* --------------------------------------- */
+    // UPDATES
+    /* --------------------------------------- */
+
+    // Places a piece on a square, replacing whatever was there
+    public void put(int square, char colour, boolean king) {
+        remove(square);
+        int bit = 1 << square;
+        if (colour == 'w') {
+            white |= bit;
+        } else {
+            black |= bit;
+        }
+        if (king) {
+            kings |= bit;
+        }
+        hash ^= Zobrist.piece(colour, king, square);
+    }
+
+    // Removes the piece on a square, if any
+    public void remove(int square) {
+        char colour = colourAt(square);
+        if (colour == EMPTY) {
+            return;
+        }
+        hash ^= Zobrist.piece(colour, isKing(square), square);
+        int mask = ~(1 << square);
+        white &= mask;
+        black &= mask;
+        kings &= mask;
+    }
+
+    // Moves the piece on one square to another, keeping its colour and rank
+    public void movePiece(int from, int to) {
+        if (from == to) {
+            return; // a king's capture round trip ends where it started
+        }
+        char colour = colourAt(from);
+        if (colour == EMPTY) {
+            return;
+        }
+        int fromBit = 1 << from;
+        int both = fromBit | (1 << to);
+        boolean king = (kings & fromBit) != 0;
+        if (colour == 'w') {
+            white ^= both;
+        } else {
+            black ^= both;
+        }
+        if (king) {
+            kings ^= both;
+        }
+        hash ^= Zobrist.piece(colour, king, from) ^ Zobrist.piece(colour, king, to);
+    }
+
+    // Turns the piece on a square into a king
+    public void crown(int square) {
+        char colour = colourAt(square);
+        if (colour == EMPTY || isKing(square)) {
+            return;
+        }
+        kings |= 1 << square;
+        hash ^= Zobrist.piece(colour, false, square) ^ Zobrist.piece(colour, true, square);
+    }
+
+    // Plays an encoded move (see Move) for the side to move: moves the piece, removes captured pieces,
+    // crowns a man that reaches the far row and passes the turn
+    public void apply(long move) {
+        long started = Metrics.isEnabled() ? Metrics.startTimer(Metrics.MOVES_APPLIED) : 0L;
+        int to = Move.to(move);
+        int captured = Move.captured(move);
+        movePiece(Move.from(move), to);
+
+        // Take the captured pieces off, hashing each one out
+        char opponent = opponent(sideToMove);
+        for (int c = captured; c != 0; c &= c - 1) {
+            int square = Integer.numberOfTrailingZeros(c);
+            hash ^= Zobrist.piece(opponent, (kings & (1 << square)) != 0, square);
+        }
+        white &= ~captured;
+        black &= ~captured;
+        kings &= ~captured;
+
+        int kingsRow = sideToMove == 'w' ? WHITE_KINGS_ROW : BLACK_KINGS_ROW;
+        if (((1 << to) & kingsRow) != 0) {
+            crown(to);
+        }
+        switchSide();
+        if (started != 0) {
+            Metrics.stopTimer(Metrics.MOVE_APPLICATION, started);
+        }
+    }
+
+    // Plays a move like apply(), first saving what unmakeMove() needs to take it back
+    public void makeMove(long move, UndoStack undo) {
+        int to = Move.to(move);
+        boolean promoted = !isKing(Move.from(move))
+                && ((1 << to) & (sideToMove == 'w' ? WHITE_KINGS_ROW : BLACK_KINGS_ROW)) != 0;
+        undo.push(move, kings & Move.captured(move), promoted, hash);
+        apply(move);
+    }
+
+    // Takes back the last move made with makeMove(), restoring the position exactly as it was
+    public void unmakeMove(UndoStack undo) {
+        long move = undo.lastMove();
+        long state = undo.lastState();
+        hash = undo.lastHash();
+        undo.pop();
+
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int captured = Move.captured(move);
+        sideToMove = opponent(sideToMove); // the hash was already restored
+
+        // Move the piece back, as a man again if the move crowned it
+        int fromBit = 1 << from;
+        int toBit = 1 << to;
+        if ((state & UndoStack.PROMOTED) != 0) {
+            kings &= ~toBit;
+        }
+        if (from != to) {
+            int both = fromBit | toBit;
+            if (sideToMove == 'w') {
+                white ^= both;
+            } else {
+                black ^= both;
+            }
+            if ((kings & toBit) != 0) {
+                kings ^= both;
+            }
+        }
+
+        // Put the captured pieces back
+        if (sideToMove == 'w') {
+            black |= captured;
+        } else {
+            white |= captured;
+        }
+        kings |= UndoStack.capturedKings(state);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Position)) {
+            return false;
+        }
+        Position other = (Position) o;
+        return white == other.white && black == other.black && kings == other.kings && sideToMove == other.sideToMove;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    // Draws the board as text, row 7 at the top: w/b for men, W/B for kings, '.' for empty dark squares
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int y = BOARD_WIDTH - 1; y >= 0; y--) {
+            for (int x = 0; x < BOARD_WIDTH; x++) {
+                int square = square(x, y);
+                if (square < 0) {
+                    sb.append(' ');
+                } else if (colourAt(square) == EMPTY) {
+                    sb.append('.');
+                } else {
+                    char c = colourAt(square);
+                    sb.append(isKing(square) ? Character.toUpperCase(c) : c);
+                }
+            }
+            sb.append('\n');
+        }
+        sb.append(sideToMove).append(" to move");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,75 @@
+// General Description
+// Package: Checkers
+// Purpose: Lets a replay jump to any ply of a game in constant time, however long the game is.
+// A snapshot of the position (a keyframe) is kept every INTERVAL plies, and the game's moves are the deltas between
+// --> them: seeking restores the nearest keyframe at or before the ply and plays at most INTERVAL - 1 moves from it.
+// Keyframes are stored as three ints each in flat arrays; the side to move follows from the ply's parity.
+// Methods:
+// ReplayIndex(GameRecord game) to index a game, seek(int ply, Position into) to show the position after ply moves.
+// plies() and getMove() to read the game being replayed.
+
+package Checkers;
+
+public class ReplayIndex {
+
+    public static final int INTERVAL = 16; // Plies between keyframes: the most moves a seek has to play.
+
+    private final GameRecord game;
+    private final int[] keyWhite;
+    private final int[] keyBlack;
+    private final int[] keyKings;
+
+    // Constructor: Plays the game through once, taking a keyframe every INTERVAL plies
+    public ReplayIndex(GameRecord game) {
+        this.game = game;
+        int keyframes = game.size() / INTERVAL + 1;
+        keyWhite = new int[keyframes];
+        keyBlack = new int[keyframes];
+        keyKings = new int[keyframes];
+
+        Position p = Position.start();
+        for (int ply = 0; ; ply++) {
+            if (ply % INTERVAL == 0) {
+                int k = ply / INTERVAL;
+                keyWhite[k] = p.getWhite();
+                keyBlack[k] = p.getBlack();
+                keyKings[k] = p.getKings();
+            }
+            if (ply == game.size()) {
+                break;
+            }
+            p.apply(game.getMove(ply));
+        }
+    }
+
+    // Returns the number of moves in the game; seek() accepts plies 0 (the start) to plies()
+    public int plies() {
+        return game.size();
+    }
+
+    // Returns the move played at the given ply (0 is the first move)
+    public long getMove(int ply) {
+        return game.getMove(ply);
+    }
+
+    public GameRecord getGame() {
+        return game;
+    }
+
+    /**
+     * Set a position to the one after the first ply moves of the game.
+     * @param ply Number of moves played, clamped to 0..plies()
+     * @param into Position to overwrite
+     * @return The ply actually shown
+     */
+    public int seek(int ply, Position into) {
+        ply = Math.max(0, Math.min(ply, game.size()));
+        int k = ply / INTERVAL;
+        int from = k * INTERVAL;
+        into.set(keyWhite[k], keyBlack[k], keyKings[k], from % 2 == 0 ? 'w' : 'b');
+        for (int i = from; i < ply; i++) {
+            into.apply(game.getMove(i));
+        }
+        return ply;
+    }
+}
@@ -0,0 +1,65 @@
+// General Description
+// Package: Checkers
+// Purpose: The rules a game is played by, chosen by configuration (for example App's --rules=<name> option).
+// ENGLISH is English draughts (checkers) on 8x8: men move and capture forward only, kings move one square, any
+// --> capture may be chosen, and a man crowned during a capture stops there.
+// INTERNATIONAL (10x10) and CANADIAN (12x12) use the international rules: men capture backwards too, kings fly
+// --> (move and capture along whole diagonals), the capture taking the most pieces is mandatory, and a man is
+// --> only crowned if its move ends on the far row.
+// ENGLISH games are played on Position with MoveGenerator, whose 32-square int bitboards the engine is built on;
+// --> every ruleset can also be played on WidePosition with WideMoveGenerator, whose two-long bitboards hold up
+// --> to 128 squares.
+// Methods:
+// getGeometry() for the board, getRowsOfMen() for the starting setup, the rule flags, and forName(String).
+
+package Checkers;
+
+public enum Ruleset {
+
+    ENGLISH(8, 3, false, false, false),
+    INTERNATIONAL(10, 4, true, true, true),
+    CANADIAN(12, 5, true, true, true);
+
+    private final BoardGeometry geometry;
+    private final int rowsOfMen; // Rows filled with each side's men at the start
+    private final boolean flyingKings; // Kings move and capture any distance along a diagonal
+    private final boolean menCaptureBackwards;
+    private final boolean majorityCapture; // Only the captures taking the most pieces are legal; crowning only at the end
+
+    Ruleset(int boardWidth, int rowsOfMen, boolean flyingKings, boolean menCaptureBackwards, boolean majorityCapture) {
+        this.geometry = new BoardGeometry(boardWidth);
+        this.rowsOfMen = rowsOfMen;
+        this.flyingKings = flyingKings;
+        this.menCaptureBackwards = menCaptureBackwards;
+        this.majorityCapture = majorityCapture;
+    }
+
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    public int getBoardWidth() {
+        return geometry.getWidth();
+    }
+
+    public int getRowsOfMen() {
+        return rowsOfMen;
+    }
+
+    public boolean hasFlyingKings() {
+        return flyingKings;
+    }
+
+    public boolean menCaptureBackwards() {
+        return menCaptureBackwards;
+    }
+
+    public boolean hasMajorityCapture() {
+        return majorityCapture;
+    }
+
+    // Returns the ruleset with the given name, ignoring case, e.g. "international"
+    public static Ruleset forName(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,491 @@
+// General Description
+// Package: Checkers
+// Purpose: The computer player. Finds a move for the side to move with a negamax alpha-beta search,
+// --> deepened one ply at a time until the depth limit or the time budget is reached.
+// Results are kept in a TranspositionTable, which can be shared with other Search instances.
+// Move ordering: the transposition table's best move, then captures (most pieces taken first), then the killer
+// --> moves of the ply, then the history heuristic.
+// Leaf positions with a capture pending are searched further until the captures are resolved, and are then scored
+// --> by the Evaluator (HandcraftedEvaluator unless setEvaluator() chose another), which follows every move made.
+// With an endgame Tablebase set, positions with few enough pieces are scored exactly from it instead of searched,
+// --> and a root position found in it is answered straight away. So is a root position found in the OpeningBook.
+// A line that repeats a position, whether one from the line or one from the game before the root, or that reaches
+// --> the quiet-ply limit of the game's GameHistory, is scored as a draw.
+// Moves are made and taken back on a single Position (see Position.makeMove), so the board is never copied, and
+// --> all per-ply state (move lists, ordering scores) is allocated once, so searching allocates nothing.
+// A Search is not thread-safe: use one instance per thread. Several instances can share one table and one stop
+// --> signal, which is how ParallelSearch runs them on many cores.
+// Methods:
+// search(Position root, int maxDepth, long timeMillis) returns the best move found, stop() ends it early from any thread.
+// search(Position root, GameHistory game, int maxDepth, long timeMillis) does the same knowing the game so far.
+// getScore(), getDepth() and getNodes() describe the last search, which is also recorded in Metrics and as a
+// --> SearchEvent for Flight Recorder.
+// setListener(Listener) is told the best move each time a depth is completed, so callers can show progress.
+
+package Checkers;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class Search {
+
+    public static final int MAX_PLY = 64; // Deepest ply the search can reach, including capture extensions.
+    public static final int WIN = 30000; // Score of a won position; wins found sooner score higher.
+    private static final int INFINITY = WIN + 1;
+    // Scores at least this far from zero are known wins or losses, counted in plies (a tablebase win can be far off)
+    private static final int WIN_BOUND = WIN - MAX_PLY - Tablebase.MAX_DISTANCE;
+
+    // Ordering scores: the hash move above captures above killers above the history heuristic
+    private static final int HASH_ORDER = 1 << 29;
+    private static final int CAPTURE_ORDER = 1 << 28;
+    private static final int KILLER_ORDER = 1 << 27;
+
+    private final TranspositionTable table; // Results of earlier searches of the same positions.
+    private Tablebase tablebase; // Exact endgame results, or null.
+    private int tablebasePieces; // Positions with at most this many pieces are looked up in the tablebase.
+    private OpeningBook book; // Moves to play straight away near the start of the game, or null.
+    private Evaluator evaluator = new HandcraftedEvaluator(); // Scores the leaves; follows every move made.
+    private final Position position = new Position(); // The position at the end of the line being searched.
+    private final UndoStack undo = new UndoStack(MAX_PLY); // Records of the moves made to reach it.
+    private GameHistory line = new GameHistory(); // The game before the root and the moves made since, for draws.
+    private final long[][] moves = new long[MAX_PLY][MoveGenerator.MAX_MOVES]; // Moves generated at each ply.
+    private final int[][] order = new int[MAX_PLY][MoveGenerator.MAX_MOVES]; // Ordering scores of those moves.
+    private final long[][] killers = new long[MAX_PLY][2]; // Two most recent quiet moves that caused a cutoff, per ply.
+    private final int[][] history = new int[Position.SQUARES][Position.SQUARES]; // Cutoff counts by from/to square.
+
+    private long deadline; // System.nanoTime() after which the search stops.
+    private boolean stopped; // Set once the time budget runs out or the stop signal is raised.
+    private final AtomicBoolean stopSignal; // Raised by stop() to end the search from another thread.
+    private final boolean independent; // False if the search is one of several run together by an owner that resets
+                                       // the shared stop signal and starts the table's generation once for all.
+    private int firstDepth = 1; // Depth iterative deepening starts at.
+    private long nodes; // Positions visited by the current search.
+    private long tableProbes; // Transposition table lookups by the current search, and how many found an entry.
+    private long tableHits;
+    private long rootBest; // Best root move of the iteration in progress.
+
+    private long bestMove = Move.NONE;
+    private int bestScore;
+    private int completedDepth;
+    private Listener listener; // Told about every completed depth, or null.
+
+    // Receives the result of each depth as iterative deepening completes it, on the searching thread
+    public interface Listener {
+        void depthCompleted(int depth, long move, int score, long nodes);
+    }
+
+    // Constructor: Creates a search with a transposition table of its own
+    public Search() {
+        this(new TranspositionTable(TranspositionTable.DEFAULT_MEGABYTES));
+    }
+
+    // Constructor: Creates a search that stores its results in the given, possibly shared, table
+    public Search(TranspositionTable table) {
+        this(table, new AtomicBoolean(), true);
+    }
+
+    // Constructor: Creates a search sharing a table and a stop signal with others; their owner resets the signal and
+    // calls the table's newSearch() before each search
+    public Search(TranspositionTable table, AtomicBoolean stopSignal) {
+        this(table, stopSignal, false);
+    }
+
+    private Search(TranspositionTable table, AtomicBoolean stopSignal, boolean independent) {
+        this.table = table;
+        this.stopSignal = stopSignal;
+        this.independent = independent;
+    }
+
+    /**
+     * Search for the best move of the side to move.
+     * @param root The position to search from, left unchanged
+     * @param maxDepth Maximum depth to search to, in plies
+     * @param timeMillis Time budget; the search stops as soon as it is used up and returns the last completed depth
+     * @return The best move found, or Move.NONE if the side to move has no legal move
+     */
+    public long search(Position root, int maxDepth, long timeMillis) {
+        return search(root, null, maxDepth, timeMillis);
+    }
+
+    /**
+     * Search for the best move of the side to move, avoiding or seeking draws by repetition with earlier positions.
+     * @param root The position to search from, left unchanged
+     * @param game The game that led to root, which must be its last position; it is copied. Null for none.
+     * @param maxDepth Maximum depth to search to, in plies
+     * @param timeMillis Time budget; the search stops as soon as it is used up and returns the last completed depth
+     * @return The best move found, or Move.NONE if the side to move has no legal move
+     */
+    public long search(Position root, GameHistory game, int maxDepth, long timeMillis) {
+        SearchEvent event = null;
+        if (FlightRecording.isRunning()) {
+            event = new SearchEvent();
+            event.begin();
+        }
+        long start = System.nanoTime();
+        long move = iterate(root, game, maxDepth, timeMillis);
+        long nanos = System.nanoTime() - start;
+        if (Metrics.isEnabled()) {
+            Metrics.searchCompleted(nodes, tableProbes, tableHits, nanos);
+        }
+        if (event != null && event.shouldCommit()) {
+            event.depth = completedDepth;
+            event.nodes = nodes;
+            event.nodesPerSecond = nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+            event.tableHitRate = tableProbes == 0 ? 0 : (float) tableHits / tableProbes;
+            event.commit();
+        }
+        return move;
+    }
+
+    // The search itself: answers from the book or the tablebase, else deepens one ply at a time
+    private long iterate(Position root, GameHistory game, int maxDepth, long timeMillis) {
+        deadline = System.nanoTime() + timeMillis * 1_000_000L;
+        stopped = false;
+        if (independent) {
+            stopSignal.set(false);
+            table.newSearch();
+        }
+        nodes = 0;
+        tableProbes = 0;
+        tableHits = 0;
+        bestMove = Move.NONE;
+        bestScore = 0;
+        completedDepth = 0;
+        for (long[] k : killers) {
+            k[0] = Move.NONE;
+            k[1] = Move.NONE;
+        }
+        // Keep some history from earlier searches, but let recent cutoffs dominate
+        for (int[] h : history) {
+            for (int i = 0; i < h.length; i++) {
+                h[i] >>= 2;
+            }
+        }
+
+        position.copyFrom(root);
+        undo.clear();
+        if (game != null && game.getHash() == root.getHash()) {
+            if (game.getQuietLimit() != line.getQuietLimit()) {
+                line = new GameHistory(game.getQuietLimit());
+            }
+            line.copyFrom(game);
+        } else {
+            line.reset(root);
+        }
+        evaluator.reset(position);
+        int count = MoveGenerator.generate(root, moves[0]);
+        if (count == 0) {
+            return Move.NONE;
+        }
+        if (book != null) {
+            long move = book.bestMove(root, moves[0], count);
+            if (move != Move.NONE) {
+                bestMove = move;
+                return bestMove; // a move known from earlier games
+            }
+        }
+        if (Integer.bitCount(root.getOccupied()) <= tablebasePieces) {
+            long move = tablebase.bestMove(root);
+            if (move != Move.NONE) {
+                bestMove = move;
+                bestScore = tablebaseScore(tablebase.probe(root), 0);
+                return bestMove; // the result is known exactly
+            }
+        }
+        bestMove = moves[0][0];
+        if (count == 1) {
+            return bestMove; // nothing to think about
+        }
+
+        for (int depth = Math.min(firstDepth, maxDepth); depth <= Math.min(maxDepth, MAX_PLY - 1); depth++) {
+            int score = searchRoot(depth, count);
+            if (stopped) {
+                break;
+            }
+            bestMove = rootBest;
+            bestScore = score;
+            completedDepth = depth;
+            if (listener != null) {
+                listener.depthCompleted(depth, bestMove, score, nodes);
+            }
+            if (Math.abs(score) >= WIN_BOUND) {
+                break; // the result of the game is already known
+            }
+        }
+        return bestMove;
+    }
+
+    // Searches every root move to the given depth, trying the previous iteration's best move first
+    private int searchRoot(int depth, int count) {
+        long[] list = moves[0];
+        for (int i = 0; i < count; i++) {
+            if (list[i] == bestMove) {
+                list[i] = list[0];
+                list[0] = bestMove;
+                break;
+            }
+        }
+
+        int alpha = -INFINITY;
+        rootBest = list[0];
+        for (int i = 0; i < count; i++) {
+            boolean irreversible = GameHistory.isIrreversible(position, list[i]);
+            evaluator.makeMove(position, list[i]);
+            position.makeMove(list[i], undo);
+            line.push(position.getHash(), irreversible);
+            int score = -negamax(1, depth - 1, -INFINITY, -alpha);
+            line.pop();
+            position.unmakeMove(undo);
+            evaluator.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > alpha) {
+                alpha = score;
+                rootBest = list[i];
+            }
+        }
+        return alpha;
+    }
+
+    // Negamax alpha-beta search of the current position, ply moves from the root; returns its score for the side to move
+    private int negamax(int ply, int depth, int alpha, int beta) {
+        nodes++;
+        if ((nodes & 1023) == 0 && (System.nanoTime() > deadline || stopSignal.get())) {
+            stopped = true;
+        }
+        if (stopped) {
+            return 0;
+        }
+
+        // A repetition is a draw: a side that could do better than repeat would not repeat. So is the quiet-ply limit.
+        // But as in GameHistory.result(), a side left without a move has lost, which the search below finds
+        Position p = position;
+        long[] list = moves[ply];
+        int quietPlies = line.getQuietPlies();
+        if ((quietPlies >= line.getQuietLimit() || (quietPlies >= 4 && line.repetitions() > 0))
+                && MoveGenerator.generate(p, list) > 0) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(p);
+        }
+        if (Integer.bitCount(p.getOccupied()) <= tablebasePieces) {
+            int value = tablebase.probe(p);
+            if (value != Tablebase.UNKNOWN) {
+                return tablebaseScore(value, ply);
+            }
+        }
+
+        int count;
+        if (depth <= 0) {
+            // Out of depth: keep going only while captures are pending, since they are forced anyway
+            count = MoveGenerator.generateCaptures(p, list);
+            if (count == 0) {
+                if (MoveGenerator.generateSteps(p, list) == 0) {
+                    return -WIN + ply; // no legal move: the side to move has lost
+                }
+                return evaluator.evaluate(p);
+            }
+        } else {
+            count = MoveGenerator.generate(p, list);
+            if (count == 0) {
+                return -WIN + ply;
+            }
+        }
+
+        // Reuse an earlier result for this position if it was searched deep enough
+        long entry = 0L;
+        if (depth > 0) {
+            entry = table.probe(p.getHash());
+            tableProbes++;
+            if (entry != 0) {
+                tableHits++;
+            }
+        }
+        if (entry != 0 && TranspositionTable.depth(entry) >= depth) {
+            int score = fromTable(TranspositionTable.score(entry), ply);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT
+                    || (bound == TranspositionTable.LOWER && score >= beta)
+                    || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+        scoreMoves(ply, count, entry);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        long bestMoveHere = Move.NONE;
+        for (int i = 0; i < count; i++) {
+            long move = nextMove(ply, i, count);
+            boolean irreversible = GameHistory.isIrreversible(p, move);
+            evaluator.makeMove(p, move);
+            p.makeMove(move, undo);
+            line.push(p.getHash(), irreversible);
+            int score = -negamax(ply + 1, depth - 1, -beta, -alpha);
+            line.pop();
+            p.unmakeMove(undo);
+            evaluator.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMoveHere = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        if (!Move.isCapture(move)) {
+                            rememberCutoff(ply, depth, move);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (depth > 0) {
+            int bound = best <= originalAlpha ? TranspositionTable.UPPER
+                    : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+            table.store(p.getHash(), bestMoveHere, toTable(best, ply), depth, bound);
+        }
+        return best;
+    }
+
+    // Win and loss scores count plies from the root; in the table they are stored relative to the position instead
+    private static int toTable(int score, int ply) {
+        if (score >= WIN_BOUND) {
+            return score + ply;
+        } else if (score <= -WIN_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    // Converts a score read from the table back to count plies from the root
+    private static int fromTable(int score, int ply) {
+        if (score >= WIN_BOUND) {
+            return score - ply;
+        } else if (score <= -WIN_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    // Converts a tablebase value into a score, ply moves from the root: a win in d plies scores like a win found at ply + d
+    private static int tablebaseScore(int value, int ply) {
+        if (value == Tablebase.DRAW) {
+            return 0;
+        } else if (Tablebase.isWin(value)) {
+            return WIN - ply - Tablebase.distance(value);
+        }
+        return -WIN + ply + Tablebase.distance(value);
+    }
+
+    // Gives each generated move an ordering score; entry is the position's transposition table data, or 0
+    private void scoreMoves(int ply, int count, long entry) {
+        long[] list = moves[ply];
+        int[] scores = order[ply];
+        boolean hashMove = entry != 0 && TranspositionTable.hasMove(entry);
+        for (int i = 0; i < count; i++) {
+            long move = list[i];
+            if (hashMove && Move.from(move) == TranspositionTable.moveFrom(entry)
+                    && Move.to(move) == TranspositionTable.moveTo(entry)) {
+                scores[i] = HASH_ORDER;
+            } else if (Move.isCapture(move)) {
+                scores[i] = CAPTURE_ORDER + Integer.bitCount(Move.captured(move));
+            } else if (move == killers[ply][0]) {
+                scores[i] = KILLER_ORDER + 1;
+            } else if (move == killers[ply][1]) {
+                scores[i] = KILLER_ORDER;
+            } else {
+                scores[i] = history[Move.from(move)][Move.to(move)];
+            }
+        }
+    }
+
+    // Selection sort step: swaps the best remaining move into slot i and returns it
+    private long nextMove(int ply, int i, int count) {
+        long[] list = moves[ply];
+        int[] scores = order[ply];
+        int best = i;
+        for (int j = i + 1; j < count; j++) {
+            if (scores[j] > scores[best]) {
+                best = j;
+            }
+        }
+        long move = list[best];
+        list[best] = list[i];
+        list[i] = move;
+        int score = scores[best];
+        scores[best] = scores[i];
+        scores[i] = score;
+        return move;
+    }
+
+    // Records a quiet move that caused a beta cutoff as a killer and in the history table
+    private void rememberCutoff(int ply, int depth, long move) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] row = history[Move.from(move)];
+        row[Move.to(move)] = Math.min(row[Move.to(move)] + depth * depth, KILLER_ORDER - 1);
+    }
+
+    // Returns the best move of the last search
+    public long getBestMove() {
+        return bestMove;
+    }
+
+    // Returns the score of the best move of the last search, from the point of view of the side to move
+    public int getScore() {
+        return bestScore;
+    }
+
+    // Returns the deepest fully searched depth of the last search
+    public int getDepth() {
+        return completedDepth;
+    }
+
+    // Ends the search in progress as soon as possible; it still returns the best move of the last completed depth
+    public void stop() {
+        stopSignal.set(true);
+    }
+
+    // Sets the depth iterative deepening starts at, so that helper threads do not all search the same depths
+    void setFirstDepth(int firstDepth) {
+        this.firstDepth = Math.max(1, firstDepth);
+    }
+
+    // Sets the evaluation used at the leaves; it must not be shared with another Search
+    public void setEvaluator(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    // Sets who is told about each completed depth; null for nobody
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    // Lets the search look up positions with few pieces in an endgame tablebase; null to stop using one
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+        this.tablebasePieces = tablebase == null ? 0 : tablebase.getMaxPieces();
+    }
+
+    // Lets the search play book moves without searching; null to stop using a book
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    // Returns the transposition table this search stores its results in
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    // Returns the number of positions visited by the last search
+    public long getNodes() {
+        return nodes;
+    }
+}
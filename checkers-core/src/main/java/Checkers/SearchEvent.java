@@ -0,0 +1,33 @@
+// General Description
+// Package: Checkers
+// Purpose: JDK Flight Recorder event for one call of Search.search(), committed when it returns. Its duration is
+// --> the time the search took; the fields give its depth, nodes, speed and transposition table hit rate.
+// Like every JFR event it costs next to nothing unless a recording has it enabled, and Search only creates it once
+// --> Flight Recorder is running (see FlightRecording).
+
+package Checkers;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("checkers.Search")
+@Label("Checkers Search")
+@Category("Checkers")
+@Description("One search for the computer player's move")
+public class SearchEvent extends Event {
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Nodes per Second")
+    long nodesPerSecond;
+
+    @Label("Table Hit Rate")
+    float tableHitRate;
+}
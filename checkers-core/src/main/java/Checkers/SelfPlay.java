@@ -0,0 +1,248 @@
+// General Description
+// Package: Checkers
+// Purpose: Headless batch runner that plays many engine-vs-engine games at once, without any window.
+// It only uses the rules and search classes, so it runs without Processing on the classpath.
+// Games are shared out to one worker thread per core. The search is CPU-bound, so more threads than cores
+// --> would not play games any faster, and each worker reuses one Search and its table for all its games.
+// Each game opens with a few random moves (seeded by the game number, so runs are reproducible) to vary play.
+// Results are written to the output file as each game finishes, one tab-separated line per game:
+// game number, result ("w", "b" or "draw"), number of plies, and the moves in checkers notation.
+// Each game is flushed as soon as it is written, so a run that is stopped or fails keeps every finished game.
+// If a worker fails, the others finish the game they are playing and stop; run() then reports the games
+// --> completed and throws the failure.
+// A game ends when the side to move has no legal move, by threefold repetition, after --quiet-plies plies without a
+// --> capture or a man move (GameHistory.DEFAULT_QUIET_PLIES by default), or as a draw after --max-plies plies.
+// With --archive=<file.ckg> every game is also written to a binary game archive, which OpeningBookBuilder can
+// --> turn into an opening book; --book=<file> makes the players use such a book after the random moves.
+// Usage:
+// SelfPlay [--games=n] [--threads=n] [--depth=n] [--think=millis] [--random-plies=n] [--max-plies=n]
+// --> [--quiet-plies=n] [--out=file]
+// --> [--archive=file] [--book=file] [--metrics] [--eval=file] [--weights=file]
+// --metrics records Metrics during the run and prints them at the end.
+// --eval=<file> makes the players evaluate with a NeuralNetwork loaded from the file, and --weights=<file> with the
+// --> handcrafted evaluation weighted by a weights file such as TexelTuner writes.
+
+package Checkers;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SelfPlay {
+
+    public static final int DEFAULT_MAX_PLIES = 300; // A game still going after this many plies is a draw.
+
+    private int games = 100;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int depth = 6;
+    private long thinkMillis = 1000;
+    private int randomPlies = 4;
+    private int maxPlies = DEFAULT_MAX_PLIES;
+    private int quietPlies = GameHistory.DEFAULT_QUIET_PLIES;
+    private Path out = Paths.get("selfplay.tsv");
+    private Path archivePath; // Binary game archive to write, or null
+    private OpeningBook book; // Book used after the random plies, or null
+    private NeuralNetwork network; // Network the players evaluate with, or null for the handcrafted evaluation
+    private int[] weights; // Weights of the handcrafted evaluation, or null for the default ones
+    private GameFileWriter archive;
+
+    private final AtomicInteger nextGame = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger(); // Games written to the output
+    private final AtomicInteger whiteWins = new AtomicInteger();
+    private final AtomicInteger blackWins = new AtomicInteger();
+    private final AtomicInteger draws = new AtomicInteger();
+    private BufferedWriter writer;
+
+    // Read the command line options
+    private void readArguments(String[] args) {
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--games=")) {
+                games = Integer.parseInt(value);
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(value);
+            } else if (arg.startsWith("--depth=")) {
+                depth = Integer.parseInt(value);
+            } else if (arg.startsWith("--think=")) {
+                thinkMillis = Long.parseLong(value);
+            } else if (arg.startsWith("--random-plies=")) {
+                randomPlies = Integer.parseInt(value);
+            } else if (arg.startsWith("--max-plies=")) {
+                maxPlies = Integer.parseInt(value);
+            } else if (arg.startsWith("--quiet-plies=")) {
+                quietPlies = Integer.parseInt(value);
+            } else if (arg.startsWith("--out=")) {
+                out = Paths.get(value);
+            } else if (arg.startsWith("--archive=")) {
+                archivePath = Paths.get(value);
+            } else if (arg.startsWith("--eval=")) {
+                try {
+                    network = NeuralNetwork.load(Paths.get(value));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else if (arg.startsWith("--weights=")) {
+                try {
+                    weights = Evaluation.loadWeights(Paths.get(value));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else if (arg.equals("--metrics")) {
+                Metrics.setEnabled(true);
+            } else if (arg.startsWith("--book=")) {
+                try {
+                    book = OpeningBook.open(Paths.get(value));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            } else {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+    }
+
+    // Play all the games and write their results. Throws IllegalStateException if a worker failed.
+    public void run() throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        archive = archivePath == null ? null : GameFileWriter.open(archivePath);
+        IllegalStateException failure = null;
+        try (BufferedWriter w = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            writer = w;
+            AtomicInteger threadNumber = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads),
+                    r -> new Thread(r, "selfplay-" + threadNumber.getAndIncrement()));
+            Future<?>[] workers = new Future<?>[Math.max(1, threads)];
+            for (int i = 0; i < workers.length; i++) {
+                workers[i] = executor.submit(this::work);
+            }
+            executor.shutdown();
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = new IllegalStateException("Self-play worker failed", e.getCause());
+                    } else {
+                        failure.addSuppressed(e.getCause());
+                    }
+                }
+            }
+        } finally {
+            if (archive != null) {
+                archive.close();
+            }
+        }
+        int played = completed.get();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d of %d games in %.1f s (%.1f games/s): white %d, black %d, draws %d%n", played, games,
+                seconds, played / seconds, whiteWins.get(), blackWins.get(), draws.get());
+        if (Metrics.isEnabled()) {
+            System.out.println(Metrics.summary());
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Worker loop: keep taking the next game number until all games are played. A failure stops every worker from
+    // starting another game.
+    private void work() {
+        try {
+            play();
+        } catch (RuntimeException | Error e) {
+            nextGame.set(games);
+            throw e;
+        }
+    }
+
+    private void play() {
+        Search search = new Search(new TranspositionTable(8));
+        search.setOpeningBook(book);
+        if (network != null) {
+            search.setEvaluator(new NeuralEvaluator(network));
+        } else if (weights != null) {
+            search.setEvaluator(new HandcraftedEvaluator(weights));
+        }
+        GameRecord record = new GameRecord();
+        GameHistory history = new GameHistory(quietPlies);
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        long[] played = new long[maxPlies];
+        StringBuilder line = new StringBuilder();
+        for (int game = nextGame.getAndIncrement(); game < games; game = nextGame.getAndIncrement()) {
+            search.getTable().clear();
+            SplittableRandom random = new SplittableRandom(game);
+            Position p = Position.start();
+            history.reset(p);
+            int plies = 0;
+            String result = "draw";
+            while (true) {
+                if (plies >= maxPlies) {
+                    break;
+                }
+                char end = history.result(p);
+                if (end != GameRecord.UNFINISHED) {
+                    result = end == GameRecord.DRAW ? "draw" : String.valueOf(end);
+                    break;
+                }
+                int count = MoveGenerator.generate(p, moves);
+                long move = plies < randomPlies ? moves[random.nextInt(count)]
+                        : search.search(p, history, depth, thinkMillis);
+                played[plies++] = move;
+                history.play(p, move);
+            }
+
+            line.setLength(0);
+            line.append(game).append('\t').append(result).append('\t').append(plies).append('\t');
+            for (int i = 0; i < plies; i++) {
+                line.append(i == 0 ? "" : " ").append(Move.toString(played[i]));
+            }
+            if (archive != null) {
+                record.clear();
+                for (int i = 0; i < plies; i++) {
+                    record.add(played[i]);
+                }
+                record.setResult(result.equals("draw") ? GameRecord.DRAW : result.charAt(0));
+            }
+            write(line.append('\n').toString(), record);
+            if (result.equals("w")) {
+                whiteWins.incrementAndGet();
+            } else if (result.equals("b")) {
+                blackWins.incrementAndGet();
+            } else {
+                draws.incrementAndGet();
+            }
+        }
+    }
+
+    // Append one result line to the output, and the game to the archive, and flush both; games from different workers
+    // never interleave
+    private synchronized void write(String line, GameRecord record) {
+        try {
+            writer.write(line);
+            writer.flush();
+            if (archive != null) {
+                archive.write(record);
+                archive.flush();
+            }
+            completed.incrementAndGet();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        SelfPlay selfPlay = new SelfPlay();
+        selfPlay.readArguments(args);
+        selfPlay.run();
+    }
+}
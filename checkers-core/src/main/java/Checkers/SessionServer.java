@@ -0,0 +1,458 @@
+// General Description
+// Package: Checkers
+// Purpose: Hosts many games at once for clients connecting over TCP, with the game state kept in a SessionStore.
+// One thread serves every connection: a non-blocking NIO Selector accepts connections, reads whatever requests
+// --> have arrived, handles them in order and writes the replies. Handling a request takes microseconds (one
+// --> move generation), so a single thread keeps latency low without any locking; pipelined requests on one
+// --> connection are answered with a single write.
+// Protocol: ASCII lines, one request per line, one reply line per request, in order.
+// -->   NEW                  opens a game                       -> STATE line
+// -->   MOVE <game> <index>  plays the move with that index     -> STATE line, also pushed to the game's watchers
+// -->   STATE <game>         the game's current state           -> STATE line
+// -->   JOIN <game>          watch the game: receive every STATE line pushed after a move, and its CLOSED line
+// -->   CLOSE <game>         closes the game                    -> CLOSED <game>, also pushed to its watchers
+// -->   Only the connection that opened a game may MOVE in it or CLOSE it; any connection may watch it.
+// -->   METRICS [ON|OFF]     switches Metrics on or off         -> METRICS and the figures on one line
+// -->   Errors are answered with ERR <message>.
+// --> STATE <game> <plies> <side to move> <result> <white> <black> <kings> gives the bitmasks in hexadecimal (see
+// --> Position) and the result as w, b, d (drawn, see GameHistory) or * (unfinished). A move's index is its position
+// --> among the legal moves in ascending order of their encoding, as in the binary game format, so a client
+// --> generates the moves itself.
+// A game stays open while the connection that opened it, or one that joined it, is still connected; when the last
+// --> one disconnects the game is closed and its slot freed.
+// Replies wait in a connection's output buffer until the socket takes them. Once more than MAX_QUEUED bytes wait, the
+// --> server stops reading that connection's requests until the client has read enough of its replies; a watcher
+// --> that lets pushed states pile up beyond MAX_PENDING bytes is disconnected.
+// Methods:
+// SessionServer(int port) binds the port (0 for any free one), run() serves until close(), getPort().
+// main() starts a server: SessionServer [port]. LoadGenerator measures it.
+
+package Checkers;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class SessionServer implements Runnable, Closeable {
+
+    public static final int DEFAULT_PORT = 7700;
+    private static final int MAX_LINE = 256; // Longest request accepted; longer lines close the connection
+    private static final int MAX_QUEUED = 64 * 1024; // Output bytes waiting beyond which a connection's requests wait
+    private static final int MAX_PENDING = 1024 * 1024; // Output bytes waiting beyond which a connection is dropped
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final SessionStore games = new SessionStore();
+    private final Map<Integer, List<Connection>> watchers = new HashMap<>(); // Only games someone has joined
+    private final List<Connection> pending = new ArrayList<>(); // Connections with replies not yet written
+    private final byte[] line = new byte[MAX_LINE];
+    private int connections; // Connections accepted so far, which numbers them as game owners
+    private volatile boolean running = true;
+
+    // The buffers of one client connection
+    private static final class Connection {
+        final SocketChannel channel;
+        final int number; // Owner of the games this connection opens
+        final ByteBuffer in = ByteBuffer.allocate(4096);
+        ByteBuffer out = ByteBuffer.allocate(4096); // Replies not yet written, in write mode
+        final List<Integer> joined = new ArrayList<>(); // Games this connection watches
+        final Set<Long> attached = new HashSet<>(); // Games this connection uses, as generation << 32 | id
+        boolean queued; // In the pending list
+        boolean dropped; // Fell too far behind; disconnected when the pending list is flushed
+
+        Connection(SocketChannel channel, int number) {
+            this.channel = channel;
+            this.number = number;
+        }
+    }
+
+    // Constructor: Listens on the given port of every interface; 0 picks a free port (see getPort())
+    public SessionServer(int port) throws IOException {
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port), 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    // Returns the port the server listens on
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    // Returns the number of games open
+    public int openGames() {
+        return games.openGames();
+    }
+
+    // Serves connections until close() is called
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            if (key.isReadable()) {
+                                read(key);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                flush(key, (Connection) key.attachment());
+                            }
+                        }
+                    } catch (IOException e) {
+                        disconnect(key);
+                    }
+                }
+                // Write the replies to everything read in this round, one write per connection
+                for (Connection c : pending) {
+                    c.queued = false;
+                    SelectionKey key = c.channel.keyFor(selector);
+                    if (key != null && key.isValid()) {
+                        if (c.dropped) {
+                            disconnect(key);
+                            continue;
+                        }
+                        try {
+                            flush(key, c);
+                        } catch (IOException e) {
+                            disconnect(key);
+                        }
+                    }
+                }
+                pending.clear();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Session server failed", e);
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        channel.register(selector, SelectionKey.OP_READ, new Connection(channel, ++connections));
+    }
+
+    // Reads what has arrived and handles every complete line in it
+    private void read(SelectionKey key) throws IOException {
+        Connection c = (Connection) key.attachment();
+        if (c.channel.read(c.in) < 0) {
+            disconnect(key);
+            return;
+        }
+        c.in.flip();
+        int start = c.in.position();
+        for (int i = start; i < c.in.limit(); i++) {
+            if (c.in.get(i) == '\n') {
+                int length = i - start;
+                if (length > 0 && c.in.get(i - 1) == '\r') {
+                    length--;
+                }
+                if (length > MAX_LINE) {
+                    throw new IOException("Request too long"); // closes the connection
+                }
+                c.in.position(start);
+                c.in.get(line, 0, length);
+                handle(c, length);
+                start = i + 1;
+            }
+        }
+        c.in.position(start);
+        c.in.compact();
+        if (c.in.position() > MAX_LINE) {
+            throw new IOException("Request too long"); // closes the connection
+        }
+    }
+
+    // Handles the request in line[0..length)
+    private void handle(Connection c, int length) {
+        int space = indexOf(' ', 0, length);
+        String command = new String(line, 0, space, StandardCharsets.US_ASCII);
+        int id = space < length ? parse(space + 1, indexOf(' ', space + 1, length)) : -1;
+        switch (command) {
+            case "NEW": {
+                int created = games.create(c.number);
+                attach(c, created);
+                writeState(c, created);
+                break;
+            }
+            case "MOVE": {
+                int next = indexOf(' ', space + 1, length);
+                int index = next < length ? parse(next + 1, length) : -1;
+                if (!games.isOpen(id)) {
+                    error(c, "no such game");
+                } else if (games.getOwner(id) != c.number) {
+                    error(c, "not your game");
+                } else if (!games.play(id, index)) {
+                    error(c, "illegal move");
+                } else {
+                    writeState(c, id);
+                    List<Connection> list = watchers.get(id);
+                    if (list != null) {
+                        for (Connection w : list) {
+                            if (w != c) {
+                                writeState(w, id);
+                            }
+                        }
+                    }
+                }
+                break;
+            }
+            case "STATE":
+                if (games.isOpen(id)) {
+                    writeState(c, id);
+                } else {
+                    error(c, "no such game");
+                }
+                break;
+            case "JOIN":
+                if (games.isOpen(id)) {
+                    if (!c.joined.contains(id)) {
+                        watchers.computeIfAbsent(id, k -> new ArrayList<>()).add(c);
+                        c.joined.add(id);
+                    }
+                    attach(c, id);
+                    writeState(c, id);
+                } else {
+                    error(c, "no such game");
+                }
+                break;
+            case "CLOSE":
+                if (!games.isOpen(id)) {
+                    error(c, "no such game");
+                } else if (games.getOwner(id) != c.number) {
+                    error(c, "not your game");
+                } else {
+                    c.attached.remove((long) games.getGeneration(id) << 32 | id);
+                    games.close(id);
+                    List<Connection> list = watchers.remove(id);
+                    if (list != null) {
+                        for (Connection w : list) {
+                            w.joined.remove(Integer.valueOf(id));
+                            if (w != c) {
+                                writeClosed(w, id);
+                            }
+                        }
+                    }
+                    writeClosed(c, id);
+                }
+                break;
+            case "METRICS": {
+                String argument = new String(line, Math.min(space + 1, length), length - Math.min(space + 1, length),
+                        StandardCharsets.US_ASCII);
+                if (argument.equals("ON") || argument.equals("OFF")) {
+                    Metrics.setEnabled(argument.equals("ON"));
+                }
+                writeLine(c, "METRICS " + Metrics.summary().replace(System.lineSeparator(), " | "));
+                break;
+            }
+            default:
+                error(c, "unknown request");
+        }
+    }
+
+    // Counts c among the clients of an open game, once
+    private void attach(Connection c, int id) {
+        if (c.attached.add((long) games.getGeneration(id) << 32 | id)) {
+            games.attach(id);
+        }
+    }
+
+    // Returns the index of the first b in line[from..to), or to if there is none
+    private int indexOf(char b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (line[i] == b) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    // Parses the decimal number in line[from..to), or returns -1 if it is not one
+    private int parse(int from, int to) {
+        if (from >= to || to - from > 9) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            if (line[i] < '0' || line[i] > '9') {
+                return -1;
+            }
+            value = value * 10 + line[i] - '0';
+        }
+        return value;
+    }
+
+    private void writeState(Connection c, int id) {
+        ByteBuffer out = reserve(c, 64);
+        if (out == null) {
+            return;
+        }
+        putAscii(out, "STATE ");
+        putDecimal(out, id);
+        out.put((byte) ' ');
+        putDecimal(out, games.getPlies(id));
+        out.put((byte) ' ').put((byte) games.getSideToMove(id)).put((byte) ' ').put((byte) games.getResult(id));
+        out.put((byte) ' ');
+        putAscii(out, Integer.toHexString(games.getWhite(id)));
+        out.put((byte) ' ');
+        putAscii(out, Integer.toHexString(games.getBlack(id)));
+        out.put((byte) ' ');
+        putAscii(out, Integer.toHexString(games.getKings(id)));
+        out.put((byte) '\n');
+    }
+
+    private void writeClosed(Connection c, int id) {
+        ByteBuffer out = reserve(c, 24);
+        if (out == null) {
+            return;
+        }
+        putAscii(out, "CLOSED ");
+        putDecimal(out, id);
+        out.put((byte) '\n');
+    }
+
+    private void error(Connection c, String message) {
+        writeLine(c, "ERR " + message);
+    }
+
+    private void writeLine(Connection c, String text) {
+        ByteBuffer out = reserve(c, text.length() + 1);
+        if (out == null) {
+            return;
+        }
+        putAscii(out, text);
+        out.put((byte) '\n');
+    }
+
+    // Returns c's output buffer with room for n more bytes, and queues c to be flushed; returns null if c has more
+    // than MAX_PENDING bytes waiting, and drops it
+    private ByteBuffer reserve(Connection c, int n) {
+        if (c.dropped) {
+            return null;
+        }
+        if (c.out.position() + n > MAX_PENDING) {
+            c.dropped = true;
+        } else if (c.out.remaining() < n) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(c.out.capacity() * 2, c.out.position() + n));
+            c.out.flip();
+            bigger.put(c.out);
+            c.out = bigger;
+        }
+        if (!c.queued) {
+            c.queued = true;
+            pending.add(c);
+        }
+        return c.dropped ? null : c.out;
+    }
+
+    private static void putAscii(ByteBuffer out, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            out.put((byte) s.charAt(i));
+        }
+    }
+
+    private static void putDecimal(ByteBuffer out, int value) {
+        if (value >= 10) {
+            putDecimal(out, value / 10);
+        }
+        out.put((byte) ('0' + value % 10));
+    }
+
+    // Writes as much of c's output as the socket takes, and waits to be writable again if some is left. Requests are
+    // only read while no more than MAX_QUEUED bytes wait
+    private void flush(SelectionKey key, Connection c) throws IOException {
+        c.out.flip();
+        c.channel.write(c.out);
+        boolean left = c.out.hasRemaining();
+        c.out.compact();
+        int ops = c.out.position() > MAX_QUEUED ? 0 : SelectionKey.OP_READ;
+        key.interestOps(left ? ops | SelectionKey.OP_WRITE : ops);
+    }
+
+    // Closes a connection and stops it watching games; games it was the last client of are closed
+    private void disconnect(SelectionKey key) {
+        Connection c = (Connection) key.attachment();
+        key.cancel();
+        if (c == null) {
+            return;
+        }
+        for (int id : c.joined) {
+            List<Connection> list = watchers.get(id);
+            if (list != null) {
+                list.remove(c);
+                if (list.isEmpty()) {
+                    watchers.remove(id);
+                }
+            }
+        }
+        for (long game : c.attached) {
+            int id = (int) game;
+            if (games.isOpen(id) && games.getGeneration(id) == (int) (game >>> 32)) {
+                games.detach(id);
+            }
+        }
+        try {
+            c.channel.close();
+        } catch (IOException e) {
+            // already closed
+        }
+    }
+
+    // Stops run() and closes every connection
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    private void closeQuietly() {
+        try {
+            for (SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        } catch (IOException e) {
+            System.err.println("Could not close the session server: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Start a session server in the foreground.
+     * Usage: SessionServer [port]
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        SessionServer server = new SessionServer(port);
+        System.out.println("Serving games on port " + server.getPort());
+        server.run();
+    }
+}
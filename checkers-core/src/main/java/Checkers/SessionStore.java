@@ -0,0 +1,226 @@
+// General Description
+// Package: Checkers
+// Purpose: The state of many games at once, for SessionServer. Each game is a slot in parallel primitive arrays:
+// --> the three bitmasks of its Position, the side to move, its result and the number of moves played, and the
+// --> draw state: its plies without a capture or a man move and the hashes of its last REPETITION_WINDOW positions.
+// --> That is about 150 bytes a game, so 10,000 open games fit in a couple of megabytes and no object is kept per game.
+// Games end as GameHistory decides, except that a repetition is only noticed within REPETITION_WINDOW plies; a longer
+// --> cycle of king moves still ends at the quiet-ply limit.
+// A game also counts the clients using it (attach/detach); the server closes it when the last one leaves. Slots of
+// --> closed games are reused, and each slot's generation tells a game apart from earlier ones in the same slot.
+// Moves are given by their index among the legal moves in ascending order of their encoding, as in the binary
+// --> game format (see GameRecord.moveAt), so clients need not spell out paths.
+// Each game records the owner it was created for, so the server can keep other clients from moving in it or
+// --> closing it.
+// Not thread-safe: the server's selector thread is its only user.
+// Methods:
+// create(owner) and close(id) to open and close games, getOwner(id), isOpen(id), load(id, Position into) to read a game's position.
+// attach(id) and detach(id) to count a game's clients, getGeneration(id) to tell reused slots apart.
+// play(id, index) to play a move, getPlies(id), getQuietPlies(id) and getResult(id) for the rest of a game's state.
+
+package Checkers;
+
+import java.util.Arrays;
+
+public class SessionStore {
+
+    public static final int REPETITION_WINDOW = 16; // Positions kept per game to spot repetitions; a power of two
+
+    private int[] white = new int[1024];
+    private int[] black = new int[1024];
+    private int[] kings = new int[1024];
+    private char[] sideToMove = new char[1024]; // 0 for a free slot
+    private char[] result = new char[1024]; // GameRecord.UNFINISHED, GameRecord.DRAW, or the winner's colour
+    private int[] plies = new int[1024];
+    private int[] quietPlies = new int[1024]; // Plies since the last capture or man move
+    private long[] hashes = new long[1024 * REPETITION_WINDOW]; // Game id's ring at id * REPETITION_WINDOW
+    private int[] clients = new int[1024]; // Clients attached to each game
+    private int[] owner = new int[1024]; // The caller's number for the client that created each game
+    private int[] generation = new int[1024]; // Games ever opened in each slot
+    private final int quietLimit;
+    private int[] free = new int[1024]; // Stack of the free slots below size
+    private int freeCount;
+    private int size; // Slots ever used; those above are all free
+    private int open; // Number of open games
+
+    private final Position position = new Position(); // Scratch position for play()
+    private final long[] moves = new long[MoveGenerator.MAX_MOVES];
+
+    // Constructor: Draws games after GameHistory.DEFAULT_QUIET_PLIES plies without progress
+    public SessionStore() {
+        this(GameHistory.DEFAULT_QUIET_PLIES);
+    }
+
+    // Constructor: Draws games after the given number of plies without a capture or a man move
+    public SessionStore(int quietLimit) {
+        this.quietLimit = quietLimit;
+    }
+
+    // Opens a game at the start position for the given owner (a number of the caller's choosing) and returns its id
+    public int create(int owner) {
+        int id;
+        if (freeCount > 0) {
+            id = free[--freeCount];
+        } else {
+            if (size == white.length) {
+                grow(size * 2);
+            }
+            id = size++;
+        }
+        Position start = Position.start();
+        white[id] = start.getWhite();
+        black[id] = start.getBlack();
+        kings[id] = start.getKings();
+        sideToMove[id] = start.getSideToMove();
+        result[id] = GameRecord.UNFINISHED;
+        plies[id] = 0;
+        quietPlies[id] = 0;
+        hashes[id * REPETITION_WINDOW] = start.getHash();
+        clients[id] = 0;
+        this.owner[id] = owner;
+        generation[id]++;
+        open++;
+        return id;
+    }
+
+    private void grow(int capacity) {
+        white = Arrays.copyOf(white, capacity);
+        black = Arrays.copyOf(black, capacity);
+        kings = Arrays.copyOf(kings, capacity);
+        sideToMove = Arrays.copyOf(sideToMove, capacity);
+        result = Arrays.copyOf(result, capacity);
+        plies = Arrays.copyOf(plies, capacity);
+        quietPlies = Arrays.copyOf(quietPlies, capacity);
+        hashes = Arrays.copyOf(hashes, capacity * REPETITION_WINDOW);
+        clients = Arrays.copyOf(clients, capacity);
+        owner = Arrays.copyOf(owner, capacity);
+        generation = Arrays.copyOf(generation, capacity);
+        free = Arrays.copyOf(free, capacity);
+    }
+
+    // Closes a game, freeing its slot for a new one
+    public void close(int id) {
+        if (!isOpen(id)) {
+            return;
+        }
+        sideToMove[id] = 0;
+        free[freeCount++] = id;
+        open--;
+    }
+
+    // Counts one more client using an open game
+    public void attach(int id) {
+        clients[id]++;
+    }
+
+    // Counts one client fewer using an open game, and closes the game if it was the last; returns true if it closed
+    public boolean detach(int id) {
+        if (--clients[id] > 0) {
+            return false;
+        }
+        close(id);
+        return true;
+    }
+
+    // Returns the owner the game was created for
+    public int getOwner(int id) {
+        return owner[id];
+    }
+
+    // Returns the number of games opened so far in the game's slot, which tells it apart from the slot's earlier games
+    public int getGeneration(int id) {
+        return generation[id];
+    }
+
+    // Returns true if id names an open game
+    public boolean isOpen(int id) {
+        return id >= 0 && id < size && sideToMove[id] != 0;
+    }
+
+    // Returns the number of open games
+    public int openGames() {
+        return open;
+    }
+
+    // Copies a game's position into the given one
+    public void load(int id, Position into) {
+        into.set(white[id], black[id], kings[id], sideToMove[id]);
+    }
+
+    /**
+     * Play a move in an open, unfinished game. If it leaves the other side without a legal move, the game is won;
+     * if it repeats a position for the third time or reaches the quiet-ply limit, the game is drawn.
+     * @param id The game
+     * @param index The move's index among the legal moves, in ascending order of their encoding
+     * @return False if the game is over or there is no such move; the game is then unchanged
+     */
+    public boolean play(int id, int index) {
+        if (result[id] != GameRecord.UNFINISHED) {
+            return false;
+        }
+        load(id, position);
+        long move = GameRecord.moveAt(position, index, moves);
+        if (move == Move.NONE) {
+            return false;
+        }
+        boolean irreversible = GameHistory.isIrreversible(position, move);
+        position.apply(move);
+        white[id] = position.getWhite();
+        black[id] = position.getBlack();
+        kings[id] = position.getKings();
+        sideToMove[id] = position.getSideToMove();
+        plies[id]++;
+        quietPlies[id] = irreversible ? 0 : quietPlies[id] + 1;
+        hashes[id * REPETITION_WINDOW + (plies[id] & (REPETITION_WINDOW - 1))] = position.getHash();
+        if (MoveGenerator.generate(position, moves) == 0) {
+            result[id] = Position.opponent(position.getSideToMove());
+        } else if (quietPlies[id] >= quietLimit || repetitions(id) >= 2) {
+            result[id] = GameRecord.DRAW;
+        }
+        return true;
+    }
+
+    // Returns how many times the game's position occurred before within its window, as GameHistory.repetitions()
+    private int repetitions(int id) {
+        int base = id * REPETITION_WINDOW;
+        int back = Math.min(quietPlies[id], REPETITION_WINDOW - 1);
+        long hash = position.getHash();
+        int count = 0;
+        for (int i = 4; i <= back; i += 2) {
+            if (hashes[base + ((plies[id] - i) & (REPETITION_WINDOW - 1))] == hash) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getWhite(int id) {
+        return white[id];
+    }
+
+    public int getBlack(int id) {
+        return black[id];
+    }
+
+    public int getKings(int id) {
+        return kings[id];
+    }
+
+    public char getSideToMove(int id) {
+        return sideToMove[id];
+    }
+
+    public int getPlies(int id) {
+        return plies[id];
+    }
+
+    // Returns the number of plies since the game's last capture or man move
+    public int getQuietPlies(int id) {
+        return quietPlies[id];
+    }
+
+    // Returns GameRecord.UNFINISHED, GameRecord.DRAW, or the colour of the winner
+    public char getResult(int id) {
+        return result[id];
+    }
+}
@@ -0,0 +1,294 @@
+// General Description
+// Package: Checkers
+// Purpose: Endgame tablebase: the exact result of every position with few pieces, read from files written by
+// --> TablebaseGenerator. Each file holds one material slice (numbers of white men, white kings, black men and
+// --> black kings) and is memory-mapped, so opening a tablebase is instant and only the pages probed are loaded.
+// Values: one byte per position and side to move. 0 is a draw; otherwise the byte is the distance to the end of
+// --> the game in plies plus one. An odd distance is a win for the side to move, an even one a loss, so 1 means
+// --> the side to move has already lost.
+// Indexing: a position's index within its slice is a perfect hash built from combinatorial ranks: the white men
+// --> among squares 0-27, the black men among squares 4-31, then the white kings among the squares the men left
+// --> free and the black kings among the squares still free. Men of either colour can never stand on their own
+// --> kings row, which is what keeps the men's ranges to 28 squares.
+// Methods:
+// open(Path dir) to map every slice file in a directory, probe(Position p) to read a value, bestMove() to pick
+// --> the move that keeps the result (wins fastest, loses slowest, or holds the draw).
+// isWin(), isLoss() and distance() to decode a value; getMaxPieces() for the largest slice available.
+
+package Checkers;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class Tablebase {
+
+    public static final int UNKNOWN = -1; // Returned by probe() for positions not in the tablebase
+    public static final int DRAW = 0;
+    public static final int LOST = 1; // The side to move has no move left
+    public static final int MAX_DISTANCE = 254; // Longest distance a value byte can hold, in plies
+    public static final int MAX_PIECES = 12; // Largest number of pieces of one kind the slice numbering allows
+
+    static final String SUFFIX = ".tb";
+    static final int MEN_SQUARES = 28; // Squares a man can stand on without having been crowned
+
+    // CHOOSE[n][k] is the binomial coefficient "n choose k"
+    static final long[][] CHOOSE = new long[Position.SQUARES + 1][Position.SQUARES + 1];
+
+    static {
+        for (int n = 0; n <= Position.SQUARES; n++) {
+            CHOOSE[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                CHOOSE[n][k] = CHOOSE[n - 1][k - 1] + CHOOSE[n - 1][k];
+            }
+        }
+    }
+
+    private final MappedByteBuffer[] slices = new MappedByteBuffer[sliceCount()];
+    private int maxPieces;
+
+    // Constructor: Creates a tablebase without any slices; add them with load()
+    public Tablebase() {
+
+    }
+
+    // Opens every slice file in a directory. A missing directory gives an empty tablebase.
+    public static Tablebase open(Path dir) throws IOException {
+        Tablebase tablebase = new Tablebase();
+        if (!Files.isDirectory(dir)) {
+            return tablebase;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                tablebase.load(file);
+            }
+        }
+        return tablebase;
+    }
+
+    // Maps one slice file, named after its material as written by TablebaseGenerator
+    public void load(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        String[] counts = name.substring(0, name.length() - SUFFIX.length()).split("-");
+        int wm = Integer.parseInt(counts[0]);
+        int wk = Integer.parseInt(counts[1]);
+        int bm = Integer.parseInt(counts[2]);
+        int bk = Integer.parseInt(counts[3]);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != 2L * sliceSize(wm, wk, bm, bk)) {
+                throw new IOException("Tablebase file " + file + " has the wrong size");
+            }
+            slices[slice(wm, wk, bm, bk)] = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        maxPieces = Math.max(maxPieces, wm + wk + bm + bk);
+    }
+
+    // Returns the largest number of pieces of any slice loaded; positions with more pieces are never in the tablebase
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    /**
+     * Look up a position.
+     * @return Its value for the side to move (see the description above), or UNKNOWN if its slice is not loaded
+     */
+    public int probe(Position p) {
+        if (p.count(p.getSideToMove()) == 0) {
+            return LOST;
+        }
+        int occupied = p.getOccupied();
+        if (Integer.bitCount(occupied) > maxPieces) {
+            return UNKNOWN;
+        }
+        int kings = p.getKings();
+        int wm = Integer.bitCount(p.getWhite() & ~kings);
+        int wk = Integer.bitCount(p.getWhite() & kings);
+        int bm = Integer.bitCount(p.getBlack() & ~kings);
+        int bk = Integer.bitCount(p.getBlack() & kings);
+        MappedByteBuffer slice = slices[slice(wm, wk, bm, bk)];
+        if (slice == null) {
+            return UNKNOWN;
+        }
+        int index = index(p.getWhite(), p.getBlack(), kings);
+        if (p.getSideToMove() == 'b') {
+            index += slice.capacity() / 2;
+        }
+        return slice.get(index) & 0xFF;
+    }
+
+    /**
+     * Pick the move that keeps the tablebase result: the fastest win, the slowest loss, or a move that holds the draw.
+     * @return The move, or Move.NONE if the position is not in the tablebase or has no legal move
+     */
+    public long bestMove(Position p) {
+        int value = probe(p);
+        if (value == UNKNOWN || value == LOST) {
+            return Move.NONE;
+        }
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(p, moves);
+        Position child = new Position();
+        long best = Move.NONE;
+        int bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            child.copyFrom(p);
+            child.apply(moves[i]);
+            int reply = probe(child);
+            if (reply == UNKNOWN) {
+                continue;
+            }
+            // Rank the moves from our side: a lost reply for the opponent is best, sooner better; a won one is worst
+            int rank = isLoss(reply) ? 1000 - distance(reply) : reply == DRAW ? 0 : -1000 + distance(reply);
+            if (rank > bestRank) {
+                bestRank = rank;
+                best = moves[i];
+            }
+        }
+        return best;
+    }
+
+    // Returns true if a (known) value is a win for the side to move
+    public static boolean isWin(int value) {
+        return value > 0 && (value - 1) % 2 == 1;
+    }
+
+    // Returns true if a (known) value is a loss for the side to move
+    public static boolean isLoss(int value) {
+        return value > 0 && (value - 1) % 2 == 0;
+    }
+
+    // Returns the number of plies until the game ends with perfect play, for a win or a loss
+    public static int distance(int value) {
+        return value - 1;
+    }
+
+    // Returns the value byte of a win or loss (whichever the parity says) in the given number of plies
+    static int valueOf(int distance) {
+        return distance + 1;
+    }
+
+    /* --------------------------------------- */
+    // INDEXING
+    /* --------------------------------------- */
+
+    // Returns the number of the slice with the given material, for the slices array
+    static int slice(int wm, int wk, int bm, int bk) {
+        int base = MAX_PIECES + 1;
+        return ((wm * base + wk) * base + bm) * base + bk;
+    }
+
+    private static int sliceCount() {
+        int base = MAX_PIECES + 1;
+        return base * base * base * base;
+    }
+
+    // Returns the number of indexes of a slice, for one side to move
+    static int sliceSize(int wm, int wk, int bm, int bk) {
+        long size = CHOOSE[MEN_SQUARES][wm] * CHOOSE[MEN_SQUARES][bm]
+                * CHOOSE[Position.SQUARES - wm - bm][wk] * CHOOSE[Position.SQUARES - wm - bm - wk][bk];
+        if (size > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("Slice " + wm + "-" + wk + "-" + bm + "-" + bk + " is too large to index");
+        }
+        return (int) size;
+    }
+
+    // Returns the index of a placement of pieces within its slice
+    static int index(int white, int black, int kings) {
+        int whiteMen = white & ~kings;
+        int blackMen = black & ~kings;
+        int whiteKings = white & kings;
+        int blackKings = black & kings;
+        int men = whiteMen | blackMen;
+        int wm = Integer.bitCount(whiteMen);
+        int bm = Integer.bitCount(blackMen);
+        int wk = Integer.bitCount(whiteKings);
+        int bk = Integer.bitCount(blackKings);
+
+        long index = rank(whiteMen);
+        index = index * CHOOSE[MEN_SQUARES][bm] + rank(blackMen >>> 4);
+        index = index * CHOOSE[Position.SQUARES - wm - bm][wk] + rank(compress(whiteKings, men));
+        index = index * CHOOSE[Position.SQUARES - wm - bm - wk][bk] + rank(compress(blackKings, men | whiteKings));
+        return (int) index;
+    }
+
+    /**
+     * The reverse of index(): the placement with the given index within a slice.
+     * @param pieces Receives the white, black and kings masks, in that order
+     * @return False if the index is not a legal placement (white and black men on the same square)
+     */
+    static boolean unindex(int wm, int wk, int bm, int bk, int index, int[] pieces) {
+        long rest = index;
+        long kingChoices = CHOOSE[Position.SQUARES - wm - bm - wk][bk];
+        int blackKingsRank = (int) (rest % kingChoices);
+        rest /= kingChoices;
+        kingChoices = CHOOSE[Position.SQUARES - wm - bm][wk];
+        int whiteKingsRank = (int) (rest % kingChoices);
+        rest /= kingChoices;
+        int blackMenRank = (int) (rest % CHOOSE[MEN_SQUARES][bm]);
+        int whiteMenRank = (int) (rest / CHOOSE[MEN_SQUARES][bm]);
+
+        int whiteMen = unrank(whiteMenRank, wm);
+        int blackMen = unrank(blackMenRank, bm) << 4;
+        if ((whiteMen & blackMen) != 0) {
+            return false;
+        }
+        int men = whiteMen | blackMen;
+        int whiteKings = expand(unrank(whiteKingsRank, wk), men);
+        int blackKings = expand(unrank(blackKingsRank, bk), men | whiteKings);
+        pieces[0] = whiteMen | whiteKings;
+        pieces[1] = blackMen | blackKings;
+        pieces[2] = whiteKings | blackKings;
+        return true;
+    }
+
+    // Rank of a set of squares among all sets of the same size (combinatorial number system)
+    private static long rank(int mask) {
+        long rank = 0;
+        int i = 1;
+        for (int m = mask; m != 0; m &= m - 1) {
+            rank += CHOOSE[Integer.numberOfTrailingZeros(m)][i++];
+        }
+        return rank;
+    }
+
+    // The set of k squares with the given rank
+    private static int unrank(long rank, int k) {
+        int mask = 0;
+        for (int i = k; i > 0; i--) {
+            int c = i - 1;
+            while (CHOOSE[c + 1][i] <= rank) {
+                c++;
+            }
+            mask |= 1 << c;
+            rank -= CHOOSE[c][i];
+        }
+        return mask;
+    }
+
+    // Renumbers the squares of mask so that the squares in occupied are skipped
+    private static int compress(int mask, int occupied) {
+        int compressed = 0;
+        for (int m = mask; m != 0; m &= m - 1) {
+            int square = Integer.numberOfTrailingZeros(m);
+            compressed |= 1 << (square - Integer.bitCount(occupied & ((1 << square) - 1)));
+        }
+        return compressed;
+    }
+
+    // The reverse of compress(): maps the j-th free square back to its board square
+    private static int expand(int compressed, int occupied) {
+        int mask = 0;
+        int free = ~occupied;
+        int j = 0;
+        for (int f = free; f != 0 && compressed >>> j != 0; f &= f - 1, j++) {
+            if ((compressed & (1 << j)) != 0) {
+                mask |= f & -f;
+            }
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,246 @@
+// General Description
+// Package: Checkers
+// Purpose: Builds the endgame tablebase files read by Tablebase, for every material slice up to a number of pieces.
+// Slices are solved in an order where every move leads to an already solved slice or back into the same one:
+// --> fewer pieces first (captures remove pieces), and with equal pieces fewer men first (crowning turns a man
+// --> into a king). Each solved slice is written out and mapped straight back in to look up moves into it.
+// Within a slice the values are found by retrograde iteration to a fixpoint: pass 0 marks the positions without
+// --> a move as lost, and pass k marks as won in k plies every position with a move to a position lost in k-1,
+// --> and as lost in k plies every position all of whose moves reach positions won in at most k-1. Rather than
+// --> searching every position again on every pass, each pass takes back the steps into the positions resolved by
+// --> the one before (captures and crowning always leave the slice, so steps are all that need taking back).
+// Positions still unresolved when a pass changes nothing and no longer distance can follow are draws.
+// Methods:
+// generate(int pieces) writes every slice with up to that many pieces; generateSlice() solves a single slice.
+// setListener() follows the progress, one call per slice written.
+// main() runs it from the command line: TablebaseGenerator [pieces, default 4] [directory, default tablebase].
+
+package Checkers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class TablebaseGenerator {
+
+    private final Path dir;
+    private final Tablebase tablebase = new Tablebase(); // The slices solved so far
+    private int longestDistance; // Longest win or loss found in any slice so far, in plies
+    private Listener listener; // Told about every slice written, or null
+
+    private static final int NOT_ALL_WON = 0xFF; // In lowerWin: some move out of the slice does not reach a win
+
+    // Receives the figures of each slice as it is written, on the generating thread
+    public interface Listener {
+        void sliceWritten(Path file, long positions, int longestPlies, long nanos);
+    }
+
+    // Constructor: Writes the slice files into the given directory
+    public TablebaseGenerator(Path dir) {
+        this.dir = dir;
+    }
+
+    // Sets who is told about each slice written; null for nobody
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    // Returns the tablebase of every slice generated so far
+    public Tablebase getTablebase() {
+        return tablebase;
+    }
+
+    // Solves and writes every slice with 2 to the given number of pieces, both colours having at least one
+    public void generate(int pieces) throws IOException {
+        Files.createDirectories(dir);
+        for (int total = 2; total <= pieces; total++) {
+            for (int men = 0; men <= total; men++) {
+                for (int white = 1; white < total; white++) {
+                    int black = total - white;
+                    for (int wm = Math.max(0, men - black); wm <= Math.min(white, men); wm++) {
+                        int bm = men - wm;
+                        generateSlice(wm, white - wm, bm, black - bm);
+                    }
+                }
+            }
+        }
+    }
+
+    // Solves one slice, whose successor slices must already be solved, then writes and loads it
+    public void generateSlice(int wm, int wk, int bm, int bk) throws IOException {
+        long start = System.nanoTime();
+        int size = Tablebase.sliceSize(wm, wk, bm, bk);
+        // Per position, white to move first and then black to move:
+        byte[] values = new byte[2 * size]; // the result, 0 while unresolved
+        byte[] remaining = new byte[2 * size]; // moves staying in this slice whose result is not yet a known win
+        byte[] lowerLoss = new byte[2 * size]; // shortest loss (plus one) reached by a move into another slice, or 0
+        byte[] lowerWin = new byte[2 * size]; // longest win reached by a move into another slice, or NOT_ALL_WON
+        boolean[] valid = new boolean[size];
+        int[] pieces = new int[3];
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        Position p = new Position();
+        Position child = new Position();
+
+        // Pass 0: look at every move once. Positions without a move have been lost; moves leaving the slice
+        // --> reach known results, which are summarised; moves staying in it are counted.
+        for (int index = 0; index < size; index++) {
+            valid[index] = Tablebase.unindex(wm, wk, bm, bk, index, pieces);
+            if (!valid[index]) {
+                continue;
+            }
+            for (int side = 0; side < 2; side++) {
+                int at = side * size + index;
+                p.set(pieces[0], pieces[1], pieces[2], side == 0 ? 'w' : 'b');
+                int count = MoveGenerator.generate(p, moves);
+                if (count == 0) {
+                    values[at] = (byte) Tablebase.LOST;
+                    continue;
+                }
+                int shortestLoss = 0;
+                int longestWin = 0;
+                int inSlice = 0;
+                for (int i = 0; i < count; i++) {
+                    child.copyFrom(p);
+                    child.apply(moves[i]);
+                    if (sameSlice(child, wm, wk, bm, bk)) {
+                        inSlice++;
+                        continue;
+                    }
+                    int reply = tablebase.probe(child);
+                    if (reply > 0 && Tablebase.isLoss(reply)) {
+                        shortestLoss = shortestLoss == 0 ? reply : Math.min(shortestLoss, reply);
+                    } else if (reply > 0 && longestWin != NOT_ALL_WON) {
+                        longestWin = Math.max(longestWin, Tablebase.distance(reply));
+                    } else {
+                        longestWin = NOT_ALL_WON; // a draw, so this position is not lost
+                    }
+                }
+                remaining[at] = (byte) inSlice;
+                lowerLoss[at] = (byte) shortestLoss;
+                lowerWin[at] = (byte) longestWin;
+            }
+        }
+
+        // Pass k: resolve the positions won or lost in exactly k plies
+        int sliceLongest = 0;
+        for (int k = 1; k <= Tablebase.MAX_DISTANCE; k++) {
+            int resolved = 0;
+            for (int at = 0; at < 2 * size; at++) {
+                int index = at < size ? at : at - size;
+                if (!valid[index]) {
+                    continue;
+                }
+                int value = values[at] & 0xFF;
+                if (value == 0) {
+                    // Moves out of the slice reaching a result k-1 plies away
+                    if ((lowerLoss[at] & 0xFF) == Tablebase.valueOf(k - 1)) {
+                        values[at] = (byte) Tablebase.valueOf(k);
+                        resolved++;
+                    } else if (remaining[at] == 0 && lowerLoss[at] == 0 && (lowerWin[at] & 0xFF) == k - 1) {
+                        values[at] = (byte) Tablebase.valueOf(k);
+                        resolved++;
+                    }
+                } else if (value == Tablebase.valueOf(k - 1)) {
+                    // Resolved in the last pass: pass the result on to the positions that step into this one
+                    resolved += resolvePredecessors(at, size, k, wm, wk, bm, bk, values, remaining, lowerLoss, lowerWin,
+                            pieces, p, moves);
+                }
+            }
+            if (resolved > 0) {
+                sliceLongest = k;
+            } else if (k > longestDistance + 1) {
+                break; // nothing left that a longer line from another slice could resolve
+            }
+        }
+        longestDistance = Math.max(longestDistance, sliceLongest);
+
+        Path file = dir.resolve(wm + "-" + wk + "-" + bm + "-" + bk + Tablebase.SUFFIX);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(values);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        tablebase.load(file);
+        if (listener != null) {
+            listener.sliceWritten(file, 2L * size, sliceLongest, System.nanoTime() - start);
+        }
+    }
+
+    // Takes back every step that leads into a position resolved k-1 plies from the end, to reach the positions it
+    // --> was played from. A loss there makes the mover's position won in k; a win is one more of its moves known
+    // --> to lose, and if it was the last one (and every move out of the slice wins sooner) the position is lost in k.
+    // Returns the number of positions resolved.
+    private int resolvePredecessors(int at, int size, int k, int wm, int wk, int bm, int bk, byte[] values,
+                                    byte[] remaining, byte[] lowerLoss, byte[] lowerWin, int[] pieces,
+                                    Position parent, long[] moves) {
+        int index = at < size ? at : at - size;
+        Tablebase.unindex(wm, wk, bm, bk, index, pieces);
+        char mover = at < size ? 'b' : 'w'; // whoever moved into this position
+        int own = mover == 'w' ? pieces[0] : pieces[1];
+        int empty = ~(pieces[0] | pieces[1]);
+        boolean lost = Tablebase.isLoss(values[at] & 0xFF);
+        int parentBase = mover == 'w' ? 0 : size;
+        int resolved = 0;
+
+        for (int m = own; m != 0; m &= m - 1) {
+            int to = Integer.numberOfTrailingZeros(m);
+            boolean king = (pieces[2] & (1 << to)) != 0;
+            // A man can only have come from behind it; a king from any side
+            int firstDir = king ? MoveGenerator.UP_LEFT : mover == 'w' ? MoveGenerator.DOWN_LEFT : MoveGenerator.UP_LEFT;
+            int lastDir = king ? MoveGenerator.DOWN_RIGHT : firstDir + 1;
+            for (int dir = firstDir; dir <= lastDir; dir++) {
+                int from = MoveGenerator.neighbour(to, dir);
+                if (from < 0 || (empty & (1 << from)) == 0) {
+                    continue;
+                }
+                int both = (1 << from) | (1 << to);
+                int white = mover == 'w' ? pieces[0] ^ both : pieces[0];
+                int black = mover == 'b' ? pieces[1] ^ both : pieces[1];
+                int kings = king ? pieces[2] ^ both : pieces[2];
+                int p = parentBase + Tablebase.index(white, black, kings);
+                if (values[p] != 0) {
+                    continue;
+                }
+                // The step was only legal if the mover had no capture to make instead
+                parent.set(white, black, kings, mover);
+                if (MoveGenerator.generateCaptures(parent, moves) > 0) {
+                    continue;
+                }
+                if (lost) {
+                    values[p] = (byte) Tablebase.valueOf(k);
+                    resolved++;
+                } else if (--remaining[p] == 0 && lowerLoss[p] == 0 && (lowerWin[p] & 0xFF) <= k - 1) {
+                    values[p] = (byte) Tablebase.valueOf(k);
+                    resolved++;
+                }
+            }
+        }
+        return resolved;
+    }
+
+    // Returns true if a position has exactly the given material
+    private static boolean sameSlice(Position p, int wm, int wk, int bm, int bk) {
+        int kings = p.getKings();
+        return Integer.bitCount(p.getWhite() & ~kings) == wm && Integer.bitCount(p.getWhite() & kings) == wk
+                && Integer.bitCount(p.getBlack() & ~kings) == bm && Integer.bitCount(p.getBlack() & kings) == bk;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int pieces = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        Path dir = Paths.get(args.length > 1 ? args[1] : "tablebase");
+        long start = System.nanoTime();
+        TablebaseGenerator generator = new TablebaseGenerator(dir);
+        generator.setListener((file, positions, longestPlies, nanos) ->
+                System.out.printf("%s: %d positions, longest %d plies, %.1f s%n", file.getFileName(), positions,
+                        longestPlies, nanos / 1e9));
+        generator.generate(pieces);
+        System.out.printf("Tablebase up to %d pieces written to %s in %.1f s%n", pieces, dir,
+                (System.nanoTime() - start) / 1e9);
+    }
+}
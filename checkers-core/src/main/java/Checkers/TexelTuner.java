@@ -0,0 +1,333 @@
+// General Description
+// Package: Checkers
+// Purpose: Offline tuner of the Evaluation weights from game archives, by Texel's method: the weights are chosen so
+// --> that sigmoid(K * score) best predicts the results of the games the positions came from, by minimising the mean
+// --> squared error of that prediction with the Adam optimiser.
+// First the archives (.ckg or .pdn) are streamed once and every quiet position (no capture to make) after the first
+// --> few plies of each finished game is written to a temporary samples file, as its Evaluation features (one byte
+// --> each, white minus black) and the result for white (one byte: 0 loss, 1 draw, 2 win).
+// Every pass over the samples then reads that file a chunk of positions at a time into one reused byte array and
+// --> shares the chunk out over the common fork-join pool, each task summing the error and gradient of its slice
+// --> in primitive arrays. Memory stays at one chunk however many games there are, and the whole file is read
+// --> sequentially, so the operating system's cache serves it again on later passes.
+// K is fitted first, to the starting weights, so that the tuned weights stay in hundredths of a man.
+// Methods:
+// addFile() and add() collect samples until finishSamples() closes the file; only then can loss(), fitScale() and
+// --> tune() read it, and no more samples can be added. setListener() follows tune() one epoch at a time.
+// Usage:
+// TexelTuner [--epochs=n] [--rate=x] [--skip-plies=n] [--chunk=n] [--weights=file] [--out=file] archive...
+// --weights starts from a weights file instead of the defaults; the tuned weights are written to --out (eval.txt),
+// --> which SelfPlay and the game load with --weights=<file>.
+
+package Checkers;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+public class TexelTuner {
+
+    public static final int RECORD = Evaluation.FEATURES + 1; // Bytes per position in the samples file
+    public static final int DEFAULT_SKIP_PLIES = 8; // Opening plies of each game that are not used
+    public static final int DEFAULT_CHUNK = 1 << 20; // Positions read into memory at a time
+    private static final int MIN_SLICE = 4096; // Fewest positions worth a fork-join task of their own
+    private static final double LN10 = Math.log(10);
+    private static final double BETA1 = 0.9; // Adam's decay rates of the gradient mean and variance
+    private static final double BETA2 = 0.999;
+    private static final double EPSILON = 1e-8;
+
+    private final Path samples;
+    private final int skipPlies;
+    private final int chunk;
+    private OutputStream writer; // Open while samples are being added, null once they are finished
+    private Listener listener; // Told about every epoch of tune(), or null
+    private long positions;
+    private long games;
+
+    // Receives the loss after each epoch of tune(), on the tuning thread
+    public interface Listener {
+        void epochCompleted(int epoch, double loss);
+    }
+
+    // Constructor: Collects samples into the given file, skipping the first skipPlies plies of every game, and
+    // reads them back chunk positions at a time
+    public TexelTuner(Path samples, int skipPlies, int chunk) throws IOException {
+        this.samples = samples;
+        this.skipPlies = skipPlies;
+        this.chunk = chunk;
+        this.writer = new BufferedOutputStream(Files.newOutputStream(samples), 1 << 16);
+    }
+
+    // Adds the quiet positions of every finished game in an archive, as binary if the name ends in ".ckg" and as
+    // PDN otherwise
+    public void addFile(Path file) throws IOException {
+        GameRecord game = new GameRecord();
+        if (file.getFileName().toString().endsWith(".ckg")) {
+            try (GameFileReader in = GameFileReader.open(file)) {
+                while (in.next(game)) {
+                    add(game);
+                }
+            }
+        } else {
+            try (PdnReader in = PdnReader.open(file)) {
+                while (in.next(game)) {
+                    add(game);
+                }
+            }
+        }
+    }
+
+    // Adds the quiet positions of one game, if it has a result
+    public void add(GameRecord game) throws IOException {
+        if (writer == null) {
+            throw new IllegalStateException("The samples are finished; no more games can be added");
+        }
+        int result;
+        if (game.getResult() == 'w') {
+            result = 2;
+        } else if (game.getResult() == 'b') {
+            result = 0;
+        } else if (game.getResult() == GameRecord.DRAW) {
+            result = 1;
+        } else {
+            return;
+        }
+        Position p = Position.start();
+        int[] features = new int[Evaluation.FEATURES];
+        long[] captures = new long[MoveGenerator.MAX_MOVES];
+        byte[] record = new byte[RECORD];
+        for (int i = 0; i <= game.size(); i++) {
+            // Positions in the middle of an exchange score what is about to change hands, not what the game is about
+            if (i >= skipPlies && MoveGenerator.generateCaptures(p, captures) == 0) {
+                Evaluation.features(p, features);
+                for (int f = 0; f < Evaluation.FEATURES; f++) {
+                    record[f] = (byte) features[f]; // No feature can reach 128 on an 8 by 8 board
+                }
+                record[Evaluation.FEATURES] = (byte) result;
+                writer.write(record);
+                positions++;
+            }
+            if (i < game.size()) {
+                p.apply(game.getMove(i));
+            }
+        }
+        games++;
+    }
+
+    // Ends the collection of samples and closes the samples file, so that it can be read; does nothing if it is closed
+    public void finishSamples() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    // Sets who is told about each epoch of tune(); null for nobody
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    // Returns the number of positions collected
+    public long getPositions() {
+        return positions;
+    }
+
+    // Returns the number of finished games the positions came from
+    public long getGames() {
+        return games;
+    }
+
+    // Returns the mean squared error of predicting the results with the given weights and scale
+    public double loss(double[] weights, double k) throws IOException {
+        double[] sums = pass(weights, k);
+        return sums[Evaluation.FEATURES] / positions;
+    }
+
+    // Returns the scale K that best fits the results with the given weights, by golden-section search
+    public double fitScale(double[] weights) throws IOException {
+        double low = 0.05;
+        double high = 5;
+        double ratio = (Math.sqrt(5) - 1) / 2;
+        double a = high - ratio * (high - low);
+        double b = low + ratio * (high - low);
+        double lossA = loss(weights, a);
+        double lossB = loss(weights, b);
+        for (int i = 0; i < 16; i++) {
+            if (lossA < lossB) {
+                high = b;
+                b = a;
+                lossB = lossA;
+                a = high - ratio * (high - low);
+                lossA = loss(weights, a);
+            } else {
+                low = a;
+                a = b;
+                lossA = lossB;
+                b = low + ratio * (high - low);
+                lossB = loss(weights, b);
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    // Tunes the weights in place for the given number of passes over the samples, telling the listener the loss
+    // after each one (the loss of the weights the pass started from)
+    public void tune(double[] weights, double k, int epochs, double rate) throws IOException {
+        double[] mean = new double[Evaluation.FEATURES];
+        double[] variance = new double[Evaluation.FEATURES];
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            double[] sums = pass(weights, k);
+            // d(error)/d(w) = -2 (r - s) s (1 - s) K ln10 / 400 f, summed in pass() up to the constant factor
+            double scale = -2 * k * LN10 / 400 / positions;
+            for (int f = 0; f < Evaluation.FEATURES; f++) {
+                double gradient = sums[f] * scale;
+                mean[f] = BETA1 * mean[f] + (1 - BETA1) * gradient;
+                variance[f] = BETA2 * variance[f] + (1 - BETA2) * gradient * gradient;
+                double meanHat = mean[f] / (1 - Math.pow(BETA1, epoch));
+                double varianceHat = variance[f] / (1 - Math.pow(BETA2, epoch));
+                weights[f] -= rate * meanHat / (Math.sqrt(varianceHat) + EPSILON);
+            }
+            if (listener != null) {
+                listener.epochCompleted(epoch, sums[Evaluation.FEATURES] / positions);
+            }
+        }
+    }
+
+    // Reads the whole samples file once and returns the gradient sums of every feature followed by the summed
+    // squared error
+    private double[] pass(double[] weights, double k) throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("The samples are still being added; call finishSamples() first");
+        }
+        double[] total = new double[Evaluation.FEATURES + 1];
+        byte[] buffer = new byte[chunk * RECORD];
+        try (InputStream in = Files.newInputStream(samples)) {
+            int read;
+            while ((read = in.readNBytes(buffer, 0, buffer.length)) > 0) {
+                int count = read / RECORD;
+                int slices = Math.max(1, Math.min(count / MIN_SLICE, 4 * Runtime.getRuntime().availableProcessors()));
+                double[] sums = IntStream.range(0, slices).parallel()
+                        .mapToObj(s -> slice(buffer, (int) ((long) count * s / slices),
+                                (int) ((long) count * (s + 1) / slices), weights, k))
+                        .reduce(TexelTuner::add).orElseThrow();
+                add(total, sums);
+            }
+        }
+        return total;
+    }
+
+    // Sums the gradient (without its constant factor) and the squared error over positions from..to-1 of a chunk
+    private static double[] slice(byte[] buffer, int from, int to, double[] weights, double k) {
+        double[] sums = new double[Evaluation.FEATURES + 1];
+        double exponent = -k * LN10 / 400;
+        for (int i = from; i < to; i++) {
+            int offset = i * RECORD;
+            double score = 0;
+            for (int f = 0; f < Evaluation.FEATURES; f++) {
+                score += weights[f] * buffer[offset + f];
+            }
+            double predicted = 1 / (1 + Math.exp(exponent * score));
+            double error = buffer[offset + Evaluation.FEATURES] * 0.5 - predicted;
+            double term = error * predicted * (1 - predicted);
+            for (int f = 0; f < Evaluation.FEATURES; f++) {
+                sums[f] += term * buffer[offset + f];
+            }
+            sums[Evaluation.FEATURES] += error * error;
+        }
+        return sums;
+    }
+
+    // Adds the second array of sums into the first and returns the first
+    private static double[] add(double[] into, double[] sums) {
+        for (int i = 0; i < into.length; i++) {
+            into[i] += sums[i];
+        }
+        return into;
+    }
+
+    // Returns the weights rounded to whole numbers, as the engine uses them
+    public static int[] round(double[] weights) {
+        int[] rounded = new int[weights.length];
+        for (int i = 0; i < weights.length; i++) {
+            rounded[i] = (int) Math.round(weights[i]);
+        }
+        return rounded;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int epochs = 100;
+        double rate = 1;
+        int skipPlies = DEFAULT_SKIP_PLIES;
+        int chunk = DEFAULT_CHUNK;
+        int[] start = Evaluation.defaultWeights();
+        Path out = Paths.get("eval.txt");
+        List<Path> inputs = new ArrayList<>();
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--epochs=")) {
+                epochs = Integer.parseInt(value);
+            } else if (arg.startsWith("--rate=")) {
+                rate = Double.parseDouble(value);
+            } else if (arg.startsWith("--skip-plies=")) {
+                skipPlies = Integer.parseInt(value);
+            } else if (arg.startsWith("--chunk=")) {
+                chunk = Integer.parseInt(value);
+            } else if (arg.startsWith("--weights=")) {
+                start = Evaluation.loadWeights(Paths.get(value));
+            } else if (arg.startsWith("--out=")) {
+                out = Paths.get(value);
+            } else if (arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown option " + arg);
+            } else {
+                inputs.add(Paths.get(arg));
+            }
+        }
+
+        Path samples = Files.createTempFile("texel", ".samples");
+        try {
+            long begin = System.nanoTime();
+            TexelTuner tuner = new TexelTuner(samples, skipPlies, chunk);
+            for (Path input : inputs) {
+                tuner.addFile(input);
+            }
+            tuner.finishSamples();
+            if (tuner.getPositions() == 0) {
+                throw new IllegalArgumentException("No finished games in the archives");
+            }
+            System.out.printf("%d positions from %d games in %.1f s%n", tuner.getPositions(), tuner.getGames(),
+                    (System.nanoTime() - begin) / 1e9);
+
+            double[] weights = new double[Evaluation.FEATURES];
+            for (int f = 0; f < Evaluation.FEATURES; f++) {
+                weights[f] = start[f];
+            }
+            double k = tuner.fitScale(weights);
+            System.out.printf("K %.4f, loss %.6f%n", k, tuner.loss(weights, k));
+            int last = epochs;
+            tuner.setListener((epoch, loss) -> {
+                if (epoch == 1 || epoch % 10 == 0 || epoch == last) {
+                    System.out.printf("epoch %d: loss %.6f%n", epoch, loss);
+                }
+            });
+            begin = System.nanoTime();
+            tuner.tune(weights, k, epochs, rate);
+            System.out.printf("%d epochs in %.1f s%n", epochs, (System.nanoTime() - begin) / 1e9);
+
+            int[] tuned = round(weights);
+            Evaluation.saveWeights(out, tuned);
+            for (int f = 0; f < Evaluation.FEATURES; f++) {
+                System.out.printf("%-10s %5d -> %5d%n", Evaluation.FEATURE_NAMES[f], start[f], tuned[f]);
+            }
+            System.out.println("Weights written to " + out);
+        } finally {
+            Files.deleteIfExists(samples);
+        }
+    }
+}
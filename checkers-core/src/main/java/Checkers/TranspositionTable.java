@@ -0,0 +1,162 @@
+// General Description
+// Package: Checkers
+// Purpose: Fixed-size hash table of search results, keyed by Zobrist hash, so positions reached again through a
+// --> different move order are not searched twice.
+// Storage: a single long[]; each entry is two longs, (key XOR data) and data. An entry only counts as a hit if
+// --> the two XOR back to the probed key, so an entry half-written by another thread is simply a miss. That makes
+// --> the table safe to share between search threads without any locking.
+// Entries are grouped in buckets of four; a new result replaces the entry for the same position, else the
+// --> shallowest and oldest entry of the bucket.
+// Data layout (one long):
+// bits 0-9    best move from/to squares (5 bits each), or 0
+// bits 10-25  score (signed 16 bits)
+// bits 26-33  depth searched
+// bits 34-35  bound: EXACT, LOWER or UPPER
+// bits 36-43  age (search generation) the entry was written in
+// Methods:
+// probe() to look a position up, store() to save a result, newSearch() to start a new generation, clear() to empty it.
+
+package Checkers;
+
+import java.util.Arrays;
+
+public class TranspositionTable {
+
+    public static final int DEFAULT_MEGABYTES = 16;
+
+    // Kind of score stored in an entry
+    public static final int EXACT = 0; // The score is exact
+    public static final int LOWER = 1; // The real score is at least this (the search failed high)
+    public static final int UPPER = 2; // The real score is at most this (the search failed low)
+
+    private static final int BUCKET = 4; // Entries per bucket
+    private static final int LONGS_PER_ENTRY = 2;
+
+    private final long[] table;
+    private final int bucketMask; // Number of buckets - 1, a power of two minus one
+    private volatile int age; // Generation of the current search, stored with each entry; read by every search thread
+
+    // Constructor: Creates a table using at most the given number of megabytes
+    public TranspositionTable(int megabytes) {
+        long bytes = Math.max(1, megabytes) * 1024L * 1024L;
+        long buckets = Long.highestOneBit(bytes / (BUCKET * LONGS_PER_ENTRY * 8L));
+        this.table = new long[(int) (buckets * BUCKET * LONGS_PER_ENTRY)];
+        this.bucketMask = (int) buckets - 1;
+    }
+
+    // Starts a new search generation, so entries from earlier searches are replaced first. Called once per search:
+    // threads searching the same root together share one generation
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    // Empties the table
+    public void clear() {
+        Arrays.fill(table, 0L);
+        age = 0;
+    }
+
+    /**
+     * Look up a position.
+     * @param hash Zobrist hash of the position
+     * @return The data of the entry stored for it (decode with move(), score(), depth() and bound()), or 0 if none
+     */
+    public long probe(long hash) {
+        int index = ((int) hash & bucketMask) * BUCKET * LONGS_PER_ENTRY;
+        for (int i = 0; i < BUCKET; i++, index += LONGS_PER_ENTRY) {
+            long data = table[index + 1];
+            if ((table[index] ^ data) == hash && data != 0) {
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Store the result of searching a position.
+     * @param hash Zobrist hash of the position
+     * @param move Best move found, or Move.NONE
+     * @param score Score of the position
+     * @param depth Depth the position was searched to
+     * @param bound EXACT, LOWER or UPPER
+     */
+    public void store(long hash, long move, int score, int depth, int bound) {
+        int base = ((int) hash & bucketMask) * BUCKET * LONGS_PER_ENTRY;
+        int replace = base;
+        int worst = Integer.MAX_VALUE;
+        int current = age;
+        for (int i = 0, index = base; i < BUCKET; i++, index += LONGS_PER_ENTRY) {
+            long data = table[index + 1];
+            if ((table[index] ^ data) == hash) {
+                // Same position: keep the old best move if this search did not find one
+                if (move == Move.NONE) {
+                    move = moveOf(data);
+                }
+                replace = index;
+                break;
+            }
+            // Prefer to replace shallow entries, and entries from earlier searches over those
+            int value = depth(data) - 8 * ((current - age(data)) & 0xFF);
+            if (value < worst) {
+                worst = value;
+                replace = index;
+            }
+        }
+
+        long data = pack(move, score, depth, bound, current);
+        table[replace] = hash ^ data;
+        table[replace + 1] = data;
+    }
+
+    // Packs an entry's data into one long
+    private static long pack(long move, int score, int depth, int bound, int age) {
+        long squares = move == Move.NONE ? 0L : Move.from(move) | (Move.to(move) << 5);
+        return squares
+                | ((long) (score & 0xFFFF) << 10)
+                | ((long) Math.min(Math.max(depth, 0), 0xFF) << 26)
+                | ((long) bound << 34)
+                | ((long) age << 36)
+                | (1L << 44); // never 0, so an empty slot cannot look like a stored entry
+    }
+
+    // Returns the stored best move as an encoded move without captures (only its squares are stored), or Move.NONE
+    private static long moveOf(long data) {
+        int squares = (int) (data & 0x3FF);
+        return squares == 0 ? Move.NONE : Move.encode(squares & 0x1F, squares >>> 5, 0);
+    }
+
+    // Returns the from square of the stored best move; only meaningful if hasMove() is true
+    public static int moveFrom(long data) {
+        return (int) (data & 0x1F);
+    }
+
+    // Returns the to square of the stored best move; only meaningful if hasMove() is true
+    public static int moveTo(long data) {
+        return (int) ((data >>> 5) & 0x1F);
+    }
+
+    // Returns true if the entry holds a best move
+    public static boolean hasMove(long data) {
+        return (data & 0x3FF) != 0;
+    }
+
+    // Returns the stored score
+    public static int score(long data) {
+        return (short) (data >>> 10);
+    }
+
+    // Returns the stored depth
+    public static int depth(long data) {
+        return (int) ((data >>> 26) & 0xFF);
+    }
+
+    // Returns the stored bound
+    public static int bound(long data) {
+        return (int) ((data >>> 34) & 0x3);
+    }
+
+    // Returns the age of the stored entry
+    private static int age(long data) {
+        return (int) ((data >>> 36) & 0xFF);
+    }
+}
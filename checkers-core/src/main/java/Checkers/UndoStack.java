@@ -0,0 +1,93 @@
+// General Description
+// Package: Checkers
+// Purpose: Stack of undo records for moves made with Position.makeMove(), so they can be taken back with
+// --> Position.unmakeMove() without ever copying the board.
+// Each record is held in parallel primitive arrays: the move itself (which includes the captured-square mask),
+// --> a state word (which captured pieces were kings, and whether the move crowned its piece) and the hash
+// --> the position had before the move. The arrays grow as needed, so the stack is unlimited.
+// Methods:
+// push() and pop() used by Position, size(), moveAt(int i) to read the moves played, clear() to empty it.
+
+package Checkers;
+
+import java.util.Arrays;
+
+public class UndoStack {
+
+    // Layout of the state word
+    static final long PROMOTED = 1L << 32; // The moving man was crowned by the move
+    private static final long CAPTURED_KINGS = 0xFFFFFFFFL; // Bits 0-31: the captured squares that held kings
+
+    private long[] moves;
+    private long[] states;
+    private long[] hashes;
+    private int size;
+
+    // Constructor: Creates an empty stack with room for a typical game before it needs to grow
+    public UndoStack() {
+        this(256);
+    }
+
+    // Constructor: Creates an empty stack with room for the given number of moves before it needs to grow
+    public UndoStack(int capacity) {
+        capacity = Math.max(1, capacity);
+        moves = new long[capacity];
+        states = new long[capacity];
+        hashes = new long[capacity];
+    }
+
+    // Saves the record of a move about to be made
+    void push(long move, int capturedKings, boolean promoted, long hash) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+            states = Arrays.copyOf(states, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        moves[size] = move;
+        states[size] = (capturedKings & CAPTURED_KINGS) | (promoted ? PROMOTED : 0L);
+        hashes[size] = hash;
+        size++;
+    }
+
+    // Removes the most recent record; read it first with lastMove(), lastState() and lastHash()
+    void pop() {
+        size--;
+    }
+
+    long lastMove() {
+        return moves[size - 1];
+    }
+
+    long lastState() {
+        return states[size - 1];
+    }
+
+    long lastHash() {
+        return hashes[size - 1];
+    }
+
+    // Returns the captured-kings mask of a state word
+    static int capturedKings(long state) {
+        return (int) (state & CAPTURED_KINGS);
+    }
+
+    // Returns the number of moves on the stack
+    public int size() {
+        return size;
+    }
+
+    // Returns true if there is no move to undo
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Returns the i-th move made, counting from the oldest
+    public long moveAt(int i) {
+        return moves[i];
+    }
+
+    // Empties the stack
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,180 @@
+// General Description
+// Package: Checkers
+// Purpose: Legal move generation for any Ruleset on a WidePosition.
+// Captures are mandatory. They are found depth first from each piece, with captured pieces staying on the board
+// --> (so they block and cannot be jumped twice) until the move ends, as the rules require.
+// Flying kings are the expensive case, so everything they need is precomputed: BoardGeometry's ray tables give the
+// --> squares along each diagonal, and a king scans a ray with one occupancy test per square, looking for the first
+// --> piece and the empty squares beyond it. Nothing is allocated per move.
+// Under majority capture only the captures taking the most pieces are kept; otherwise a man crowned by a capture
+// --> stops there (English rules).
+// Methods:
+// generate(WidePosition p, WideMoveList list) fills the list with every legal move for the side to move.
+
+package Checkers;
+
+public class WideMoveGenerator {
+
+    // Direction indices of BoardGeometry: UP (0, 1) is white's forward, DOWN (2, 3) black's
+    private static final int[] ALL_DIRECTIONS = {0, 1, 2, 3};
+    private static final int[] WHITE_FORWARD = {0, 1};
+    private static final int[] BLACK_FORWARD = {2, 3};
+
+    private final Ruleset rules;
+    private final BoardGeometry geometry;
+
+    // State of the generate() call in progress, so the capture search passes only what changes
+    private WideMoveList list;
+    private WidePosition position;
+    private char side;
+    private long occupiedLo, occupiedHi; // Every piece, except the one capturing once it has left its square
+    private long enemyLo, enemyHi;
+    private int bestCount; // Most pieces taken by a capture found so far, under majority capture
+
+    // Constructor: Creates a generator for the given rules
+    public WideMoveGenerator(Ruleset rules) {
+        this.rules = rules;
+        this.geometry = rules.getGeometry();
+    }
+
+    // Fills the list with every legal move for the side to move in p
+    public void generate(WidePosition p, WideMoveList list) {
+        this.list = list;
+        this.position = p;
+        this.side = p.getSideToMove();
+        list.clear();
+        occupiedLo = p.getWhiteLo() | p.getBlackLo();
+        occupiedHi = p.getWhiteHi() | p.getBlackHi();
+        enemyLo = side == 'w' ? p.getBlackLo() : p.getWhiteLo();
+        enemyHi = side == 'w' ? p.getBlackHi() : p.getWhiteHi();
+        long ownLo = side == 'w' ? p.getWhiteLo() : p.getBlackLo();
+        long ownHi = side == 'w' ? p.getWhiteHi() : p.getBlackHi();
+
+        bestCount = 0;
+        forEachSquare(ownLo, ownHi, true);
+        if (list.size() == 0) {
+            forEachSquare(ownLo, ownHi, false);
+        }
+        this.list = null;
+        this.position = null;
+    }
+
+    // Generates captures or steps for every piece in the set (lo, hi)
+    private void forEachSquare(long lo, long hi, boolean captures) {
+        for (long bits = lo; bits != 0; bits &= bits - 1) {
+            generateFor(Long.numberOfTrailingZeros(bits), captures);
+        }
+        for (long bits = hi; bits != 0; bits &= bits - 1) {
+            generateFor(64 + Long.numberOfTrailingZeros(bits), captures);
+        }
+    }
+
+    private void generateFor(int from, boolean captures) {
+        boolean king = position.isKing(from);
+        if (captures) {
+            // The capturing piece leaves its square, which it may pass over or land on again
+            long saveLo = occupiedLo;
+            long saveHi = occupiedHi;
+            if (from < 64) {
+                occupiedLo &= ~(1L << from);
+            } else {
+                occupiedHi &= ~(1L << from);
+            }
+            captures(from, from, king, 0, 0);
+            occupiedLo = saveLo;
+            occupiedHi = saveHi;
+        } else {
+            steps(from, king);
+        }
+    }
+
+    private boolean occupied(int square) {
+        return WidePosition.has(occupiedLo, occupiedHi, square);
+    }
+
+    // Continues a capture from square, having taken the pieces in (capLo, capHi) so far
+    private void captures(int from, int square, boolean king, long capLo, long capHi) {
+        boolean extended = false;
+        int[] directions = king || rules.menCaptureBackwards() ? ALL_DIRECTIONS : forward();
+        for (int dir : directions) {
+            if (king && rules.hasFlyingKings()) {
+                int[] ray = geometry.ray(square, dir);
+                int i = 0;
+                while (i < ray.length && !occupied(ray[i])) {
+                    i++;
+                }
+                if (i >= ray.length - 1 || !capturable(ray[i], capLo, capHi)) {
+                    continue;
+                }
+                long victimLo = ray[i] < 64 ? 1L << ray[i] : 0;
+                long victimHi = ray[i] < 64 ? 0 : 1L << ray[i];
+                for (int j = i + 1; j < ray.length && !occupied(ray[j]); j++) {
+                    extended = true;
+                    captures(from, ray[j], true, capLo | victimLo, capHi | victimHi);
+                }
+            } else {
+                int victim = geometry.neighbour(square, dir);
+                if (victim < 0 || !capturable(victim, capLo, capHi)) {
+                    continue;
+                }
+                int landing = geometry.neighbour(victim, dir);
+                if (landing < 0 || occupied(landing)) {
+                    continue;
+                }
+                extended = true;
+                long lo = capLo | (victim < 64 ? 1L << victim : 0);
+                long hi = capHi | (victim < 64 ? 0 : 1L << victim);
+                if (!king && !rules.hasMajorityCapture() && position.isKingsRow(landing, side)) {
+                    record(from, landing, lo, hi); // Crowning ends the move
+                } else {
+                    captures(from, landing, king, lo, hi);
+                }
+            }
+        }
+        if (!extended && (capLo | capHi) != 0) {
+            record(from, square, capLo, capHi);
+        }
+    }
+
+    // Returns whether the piece on square is an enemy not already taken by this capture
+    private boolean capturable(int square, long capLo, long capHi) {
+        return WidePosition.has(enemyLo, enemyHi, square) && !WidePosition.has(capLo, capHi, square);
+    }
+
+    private void record(int from, int to, long capLo, long capHi) {
+        if (rules.hasMajorityCapture()) {
+            int count = Long.bitCount(capLo) + Long.bitCount(capHi);
+            if (count < bestCount) {
+                return;
+            }
+            if (count > bestCount) {
+                bestCount = count;
+                list.clear();
+            }
+        }
+        list.addCapture(from, to, capLo, capHi);
+    }
+
+    // Adds the non-capturing moves of the piece on from
+    private void steps(int from, boolean king) {
+        for (int dir : king ? ALL_DIRECTIONS : forward()) {
+            if (king && rules.hasFlyingKings()) {
+                for (int to : geometry.ray(from, dir)) {
+                    if (occupied(to)) {
+                        break;
+                    }
+                    list.add(from, to, 0, 0);
+                }
+            } else {
+                int to = geometry.neighbour(from, dir);
+                if (to >= 0 && !occupied(to)) {
+                    list.add(from, to, 0, 0);
+                }
+            }
+        }
+    }
+
+    private int[] forward() {
+        return side == 'w' ? WHITE_FORWARD : BLACK_FORWARD;
+    }
+}
@@ -0,0 +1,74 @@
+// General Description
+// Package: Checkers
+// Purpose: The moves WideMoveGenerator produces for a WidePosition, kept in parallel primitive arrays so that
+// --> generating moves allocates nothing once the list is created.
+// A move is its from and to squares plus the pair of longs holding the captured squares (0 for a step).
+// Methods:
+// size(), clear(), getFrom(), getTo(), getCapturedLo(), getCapturedHi(), getCaptureCount(), add() and addCapture().
+
+package Checkers;
+
+import java.util.Arrays;
+
+public class WideMoveList {
+
+    private int[] from = new int[64];
+    private int[] to = new int[64];
+    private long[] capturedLo = new long[64];
+    private long[] capturedHi = new long[64];
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int getFrom(int i) {
+        return from[i];
+    }
+
+    public int getTo(int i) {
+        return to[i];
+    }
+
+    public long getCapturedLo(int i) {
+        return capturedLo[i];
+    }
+
+    public long getCapturedHi(int i) {
+        return capturedHi[i];
+    }
+
+    // Returns the number of pieces move i captures
+    public int getCaptureCount(int i) {
+        return Long.bitCount(capturedLo[i]) + Long.bitCount(capturedHi[i]);
+    }
+
+    // Adds a capture unless the same one (same squares and captures, reached along another path) is already listed
+    public void addCapture(int fromSquare, int toSquare, long lo, long hi) {
+        for (int i = 0; i < size; i++) {
+            if (from[i] == fromSquare && to[i] == toSquare && capturedLo[i] == lo && capturedHi[i] == hi) {
+                return;
+            }
+        }
+        add(fromSquare, toSquare, lo, hi);
+    }
+
+    // Adds a move
+    public void add(int fromSquare, int toSquare, long lo, long hi) {
+        if (size == from.length) {
+            from = Arrays.copyOf(from, size * 2);
+            to = Arrays.copyOf(to, size * 2);
+            capturedLo = Arrays.copyOf(capturedLo, size * 2);
+            capturedHi = Arrays.copyOf(capturedHi, size * 2);
+        }
+        from[size] = fromSquare;
+        to[size] = toSquare;
+        capturedLo[size] = lo;
+        capturedHi[size] = hi;
+        size++;
+    }
+}
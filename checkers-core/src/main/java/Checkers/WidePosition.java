@@ -0,0 +1,218 @@
+// General Description
+// Package: Checkers
+// Purpose: A position on a board of any Ruleset, up to 128 playable squares (16x16), kept as bitboards like Position.
+// Each set of squares is a pair of longs: the low word holds squares 0-63 and the high word squares 64-127, so a
+// --> 10x10 board (50 squares) only ever uses the low word and a 12x12 board (72 squares) spills into the high one.
+// Squares are numbered by the ruleset's BoardGeometry. White starts on the first rows and moves first, towards
+// --> the last row; black starts on the last rows and moves towards row 0.
+// Methods:
+// start(Ruleset) to create the initial position, copy() for an independent copy.
+// colourAt(), isKing(), isOccupied() and count() for queries, put() and remove() for updates.
+// apply(from, to, capturedLo, capturedHi) to play a move produced by WideMoveGenerator.
+
+package Checkers;
+
+public class WidePosition {
+
+    private final Ruleset rules;
+    private final BoardGeometry geometry;
+    private long whiteLo, whiteHi; // Bit s of the pair is set if a white piece stands on square s.
+    private long blackLo, blackHi; // Bit s of the pair is set if a black piece stands on square s.
+    private long kingsLo, kingsHi; // Bit s of the pair is set if the piece on square s is a king, of either colour.
+    private char sideToMove = 'w';
+
+    // Constructor: Creates an empty board of the given ruleset with white to move
+    public WidePosition(Ruleset rules) {
+        this.rules = rules;
+        this.geometry = rules.getGeometry();
+    }
+
+    // Returns the starting position: the ruleset's rows of men for each side, white to move
+    public static WidePosition start(Ruleset rules) {
+        WidePosition p = new WidePosition(rules);
+        int perRow = rules.getBoardWidth() / 2;
+        int men = rules.getRowsOfMen() * perRow;
+        int squares = rules.getGeometry().getSquares();
+        for (int i = 0; i < men; i++) {
+            p.put(i, 'w', false);
+            p.put(squares - 1 - i, 'b', false);
+        }
+        return p;
+    }
+
+    // Returns an independent copy of this position
+    public WidePosition copy() {
+        WidePosition p = new WidePosition(rules);
+        p.whiteLo = whiteLo;
+        p.whiteHi = whiteHi;
+        p.blackLo = blackLo;
+        p.blackHi = blackHi;
+        p.kingsLo = kingsLo;
+        p.kingsHi = kingsHi;
+        p.sideToMove = sideToMove;
+        return p;
+    }
+
+    // Returns whether square s is set in the pair (lo, hi). Shifts use the low six bits, so hi >>> s is bit s - 64.
+    static boolean has(long lo, long hi, int s) {
+        return ((s < 64 ? lo : hi) >>> s & 1) != 0;
+    }
+
+    public Ruleset getRuleset() {
+        return rules;
+    }
+
+    public BoardGeometry getGeometry() {
+        return geometry;
+    }
+
+    public long getWhiteLo() {
+        return whiteLo;
+    }
+
+    public long getWhiteHi() {
+        return whiteHi;
+    }
+
+    public long getBlackLo() {
+        return blackLo;
+    }
+
+    public long getBlackHi() {
+        return blackHi;
+    }
+
+    public long getKingsLo() {
+        return kingsLo;
+    }
+
+    public long getKingsHi() {
+        return kingsHi;
+    }
+
+    public char getSideToMove() {
+        return sideToMove;
+    }
+
+    public void setSideToMove(char sideToMove) {
+        this.sideToMove = sideToMove;
+    }
+
+    // Returns the number of pieces of a colour
+    public int count(char colour) {
+        return colour == 'w' ? Long.bitCount(whiteLo) + Long.bitCount(whiteHi)
+                : Long.bitCount(blackLo) + Long.bitCount(blackHi);
+    }
+
+    // Returns 'w', 'b' or Position.EMPTY for the piece on a square
+    public char colourAt(int square) {
+        if (has(whiteLo, whiteHi, square)) {
+            return 'w';
+        }
+        if (has(blackLo, blackHi, square)) {
+            return 'b';
+        }
+        return Position.EMPTY;
+    }
+
+    public boolean isOccupied(int square) {
+        return has(whiteLo | blackLo, whiteHi | blackHi, square);
+    }
+
+    public boolean isKing(int square) {
+        return has(kingsLo, kingsHi, square);
+    }
+
+    // Returns whether a man of the given colour is crowned on a square: the last row for white, row 0 for black
+    public boolean isKingsRow(int square, char colour) {
+        return geometry.squareY(square) == (colour == 'w' ? rules.getBoardWidth() - 1 : 0);
+    }
+
+    // Places a piece on an empty square
+    public void put(int square, char colour, boolean king) {
+        long lo = square < 64 ? 1L << square : 0;
+        long hi = square < 64 ? 0 : 1L << square;
+        if (colour == 'w') {
+            whiteLo |= lo;
+            whiteHi |= hi;
+        } else {
+            blackLo |= lo;
+            blackHi |= hi;
+        }
+        if (king) {
+            kingsLo |= lo;
+            kingsHi |= hi;
+        }
+    }
+
+    // Removes whatever piece stands on a square
+    public void remove(int square) {
+        long lo = square < 64 ? ~(1L << square) : -1L;
+        long hi = square < 64 ? -1L : ~(1L << square);
+        whiteLo &= lo;
+        whiteHi &= hi;
+        blackLo &= lo;
+        blackHi &= hi;
+        kingsLo &= lo;
+        kingsHi &= hi;
+    }
+
+    // Plays a move: moves the piece, removes the captured pieces, crowns a man ending on its kings row
+    // --> and passes the turn to the other side
+    public void apply(int from, int to, long capturedLo, long capturedHi) {
+        char colour = colourAt(from);
+        boolean king = isKing(from);
+        remove(from);
+        whiteLo &= ~capturedLo;
+        whiteHi &= ~capturedHi;
+        blackLo &= ~capturedLo;
+        blackHi &= ~capturedHi;
+        kingsLo &= ~capturedLo;
+        kingsHi &= ~capturedHi;
+        put(to, colour, king || isKingsRow(to, colour));
+        sideToMove = Position.opponent(sideToMove);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof WidePosition)) {
+            return false;
+        }
+        WidePosition p = (WidePosition) o;
+        return rules == p.rules && whiteLo == p.whiteLo && whiteHi == p.whiteHi && blackLo == p.blackLo
+                && blackHi == p.blackHi && kingsLo == p.kingsLo && kingsHi == p.kingsHi && sideToMove == p.sideToMove;
+    }
+
+    @Override
+    public int hashCode() {
+        long h = whiteLo * 31 + whiteHi;
+        h = h * 31 + blackLo;
+        h = h * 31 + blackHi;
+        h = h * 31 + kingsLo;
+        h = h * 31 + kingsHi;
+        return Long.hashCode(h * 31 + sideToMove);
+    }
+
+    // Returns the board as text, row 0 at the bottom: w/b for men, W/B for kings, '.' for empty dark squares
+    @Override
+    public String toString() {
+        int width = rules.getBoardWidth();
+        StringBuilder sb = new StringBuilder();
+        for (int y = width - 1; y >= 0; y--) {
+            for (int x = 0; x < width; x++) {
+                int square = geometry.square(x, y);
+                if (square < 0) {
+                    sb.append(' ');
+                } else if (colourAt(square) == Position.EMPTY) {
+                    sb.append('.');
+                } else {
+                    char c = colourAt(square);
+                    sb.append(isKing(square) ? Character.toUpperCase(c) : c);
+                }
+            }
+            sb.append('\n');
+        }
+        sb.append(sideToMove).append(" to move");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,53 @@
+// General Description
+// Package: Checkers
+// Purpose: Random keys for Zobrist hashing of positions. The hash of a position is the XOR of one key per
+// --> piece (by colour, rank and square) and the side-to-move key when black is to move, so a move only
+// --> has to XOR in and out the keys of the pieces it changes.
+// The keys come from a fixed seed, so hashes are the same on every run and can be stored in files.
+// Methods:
+// piece(char colour, boolean king, int square) returns the key of one piece, compute(...) hashes a position from scratch.
+
+package Checkers;
+
+import java.util.SplittableRandom;
+
+public final class Zobrist {
+
+    private static final long SEED = 0x5DEECE66DL; // Fixed so that hashes are stable between runs.
+
+    // Keys indexed by piece type * 32 + square, piece types: white man, white king, black man, black king
+    private static final long[] PIECES = new long[4 * Position.SQUARES];
+
+    // Key XORed in when black is to move
+    public static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < PIECES.length; i++) {
+            PIECES[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    // Not instantiable: all methods are static
+    private Zobrist() {
+
+    }
+
+    // Returns the key of a piece of the given colour and rank standing on a square
+    public static long piece(char colour, boolean king, int square) {
+        int type = (colour == 'w' ? 0 : 2) + (king ? 1 : 0);
+        return PIECES[type * Position.SQUARES + square];
+    }
+
+    // Hashes a position from its bitmasks
+    public static long compute(int white, int black, int kings, char sideToMove) {
+        long hash = sideToMove == 'b' ? BLACK_TO_MOVE : 0L;
+        for (int m = white | black; m != 0; m &= m - 1) {
+            int square = Integer.numberOfTrailingZeros(m);
+            int bit = 1 << square;
+            hash ^= piece((white & bit) != 0 ? 'w' : 'b', (kings & bit) != 0, square);
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,102 @@
+package Checkers;
+
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EngineServiceTest {
+
+    // Polls like the draw loop does until the given request has a final result
+    private static EngineResult await(EngineService engine, long request) throws InterruptedException {
+        for (int i = 0; i < 1000; i++) {
+            EngineResult r = engine.poll();
+            if (r != null && r.getRequest() == request && r.isFinished()) {
+                return r;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("no result for request " + request);
+    }
+
+    // Polls until the given request has published the result of at least one depth
+    private static EngineResult awaitProgress(EngineService engine, long request) throws InterruptedException {
+        for (int i = 0; i < 1000; i++) {
+            EngineResult r = engine.poll();
+            if (r != null && r.getRequest() == request) {
+                return r;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("no progress for request " + request);
+    }
+
+    @Test
+    public void thinkPublishesALegalMove() throws InterruptedException {
+        EngineService engine = new EngineService(2, 4);
+        long request = engine.think(Position.start(), 8, 2000);
+        EngineResult r = await(engine, request);
+        assertEquals(Position.start().getHash(), r.getHash());
+        assertNotEquals(Move.NONE, r.getMove());
+        assertFalse(engine.isBusy());
+        engine.shutdown();
+    }
+
+    @Test
+    public void newRequestReplacesAnalysis() throws InterruptedException {
+        EngineService engine = new EngineService(2, 4);
+        long analysis = engine.analyse(Position.start());
+        EngineResult progress = awaitProgress(engine, analysis);
+        assertFalse(progress.isFinished());
+
+        // The analysis would run for an hour: thinking must stop it and answer within its own budget
+        long start = System.nanoTime();
+        long request = engine.think(Position.start(), Search.MAX_PLY, 200);
+        await(engine, request);
+        assertTrue(System.nanoTime() - start < 2_000_000_000L);
+        engine.shutdown();
+    }
+
+    @Test
+    public void cancelStopsTheSearchAndPublishesNothingMore() throws InterruptedException {
+        EngineService engine = new EngineService(2, 4);
+        long analysis = engine.analyse(Position.start());
+        awaitProgress(engine, analysis);
+        assertTrue(engine.isBusy());
+
+        engine.cancel();
+        assertFalse(engine.isBusy());
+        EngineResult last = engine.poll();
+        Thread.sleep(50);
+        assertSame(last, engine.poll());
+        assertFalse(last.isFinished());
+        engine.shutdown();
+    }
+
+    @Test
+    public void pondersThePositionAfterTheExpectedReply() throws InterruptedException {
+        EngineService engine = new EngineService(2, 4);
+        Position p = Position.start();
+        EngineResult thought = await(engine, engine.think(p, 8, 2000));
+        p.apply(thought.getMove());
+
+        // The search left the reply it expects in the table, so pondering searches the position after it
+        long request = engine.ponder(p);
+        EngineResult progress = awaitProgress(engine, request);
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(p, moves);
+        boolean afterAReply = false;
+        for (int i = 0; i < count; i++) {
+            Position reply = p.copy();
+            reply.apply(moves[i]);
+            afterAReply |= reply.getHash() == progress.getHash();
+        }
+        assertTrue(afterAReply);
+        engine.cancel();
+        engine.shutdown();
+    }
+}
@@ -0,0 +1,120 @@
+package Checkers;
+
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameHistoryTest {
+
+    // Returns the legal move of the side to move from one square to another
+    private static long move(Position p, int from, int to) {
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(p, moves);
+        for (int i = 0; i < count; i++) {
+            if (Move.from(moves[i]) == from && Move.to(moves[i]) == to) {
+                return moves[i];
+            }
+        }
+        throw new IllegalArgumentException(from + "-" + to);
+    }
+
+    // A white king on square 0 and a black king on square 31, far apart, with white to move
+    private static Position twoKings() {
+        return new Position(1, 1 << 31, 1 | 1 << 31, 'w');
+    }
+
+    // Both kings step out and back again: four plies that return to the same position
+    private static void shuffle(GameHistory history, Position p) {
+        history.play(p, move(p, 0, 4));
+        history.play(p, move(p, 31, 27));
+        history.play(p, move(p, 4, 0));
+        history.play(p, move(p, 27, 31));
+    }
+
+    @Test
+    public void thirdOccurrenceIsADraw() {
+        Position p = twoKings();
+        GameHistory history = new GameHistory();
+        history.reset(p);
+        shuffle(history, p);
+        assertEquals(1, history.repetitions());
+        assertEquals(GameRecord.UNFINISHED, history.result(p));
+        shuffle(history, p);
+        assertEquals(2, history.repetitions());
+        assertEquals(GameRecord.DRAW, history.result(p));
+    }
+
+    @Test
+    public void quietPlyLimitIsADraw() {
+        Position p = twoKings();
+        GameHistory history = new GameHistory(3);
+        history.reset(p);
+        history.play(p, move(p, 0, 4));
+        history.play(p, move(p, 31, 27));
+        assertFalse(history.isDraw());
+        history.play(p, move(p, 4, 0));
+        assertEquals(3, history.getQuietPlies());
+        assertTrue(history.isDraw());
+    }
+
+    @Test
+    public void manMovesAndCapturesStartAFreshCount() {
+        // A white man on square 8 as well: once it moves, no earlier position can come back
+        Position p = new Position(1 | 1 << 8, 1 << 31, 1 | 1 << 31, 'w');
+        GameHistory history = new GameHistory();
+        history.reset(p);
+        shuffle(history, p);
+        assertEquals(4, history.getQuietPlies());
+        history.play(p, move(p, 8, 12));
+        assertEquals(0, history.getQuietPlies());
+        assertEquals(0, history.repetitions());
+
+        // Taking the move back restores the count
+        history.pop();
+        assertEquals(4, history.getQuietPlies());
+        assertEquals(1, history.repetitions());
+    }
+
+    @Test
+    public void sideWithoutMovesHasLost() {
+        GameHistory history = new GameHistory();
+        Position p = new Position(1 << 13, 0, 0, 'b');
+        history.reset(p);
+        assertEquals('w', history.result(p));
+        assertEquals(GameRecord.UNFINISHED, history.result(twoKings()));
+    }
+
+    @Test
+    public void longGamesWrapTheRing() {
+        Position p = twoKings();
+        GameHistory history = new GameHistory();
+        history.reset(p);
+        for (int i = 0; i < 1000; i++) {
+            history.push(i, true);
+        }
+        history.push(p.getHash(), false);
+        assertEquals(0, history.repetitions()); // the first position is long gone behind an irreversible move
+        assertEquals(p.getHash(), history.getHash());
+    }
+
+    @Test
+    public void searchScoresTheQuietPlyLimitAsADraw() {
+        // White is a king up, so the search scores the position above a draw
+        Position p = new Position(1 | 1 << 5, 1 << 31, 1 | 1 << 5 | 1 << 31, 'w');
+        GameHistory history = new GameHistory();
+        history.reset(p);
+        Search search = new Search(new TranspositionTable(1));
+        search.search(p, history, 6, 10_000);
+        assertTrue(search.getScore() > 0);
+
+        // With a limit of two quiet plies no capture is in reach before the game is drawn
+        GameHistory nearlyDrawn = new GameHistory(2);
+        nearlyDrawn.reset(p);
+        search.getTable().clear();
+        search.search(p, nearlyDrawn, 6, 10_000);
+        assertEquals(0, search.getScore());
+    }
+}
@@ -0,0 +1,145 @@
+package Checkers;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameRecordTest {
+
+    // Plays random moves until the game ends or a ply limit is reached
+    private static GameRecord randomGame(Random random) {
+        GameRecord game = new GameRecord();
+        Position p = Position.start();
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        for (int ply = 0; ply < 150; ply++) {
+            int count = MoveGenerator.generate(p, moves);
+            if (count == 0) {
+                game.setResult(Position.opponent(p.getSideToMove()));
+                return game;
+            }
+            long move = moves[random.nextInt(count)];
+            game.add(move);
+            p.apply(move);
+        }
+        game.setResult(GameRecord.DRAW);
+        return game;
+    }
+
+    private static void assertSameGame(GameRecord expected, GameRecord actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getMove(i), actual.getMove(i), "ply " + (i + 1));
+        }
+        assertEquals(expected.getResult(), actual.getResult());
+    }
+
+    @Test
+    public void binaryArchiveRoundTrip() throws IOException {
+        Random random = new Random(13);
+        GameRecord[] games = new GameRecord[200];
+        Path file = Files.createTempFile("games", ".ckg");
+        try {
+            try (GameFileWriter out = GameFileWriter.open(file)) {
+                for (int i = 0; i < games.length; i++) {
+                    games[i] = randomGame(random);
+                    out.write(games[i]);
+                }
+            }
+            GameRecord game = new GameRecord();
+            try (GameFileReader in = GameFileReader.open(file)) {
+                for (GameRecord expected : games) {
+                    assertTrue(in.next(game));
+                    assertSameGame(expected, game);
+                }
+                assertFalse(in.next(game));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void pdnRoundTrip() throws IOException {
+        Random random = new Random(14);
+        GameRecord[] games = new GameRecord[50];
+        StringWriter text = new StringWriter();
+        try (PdnWriter out = new PdnWriter(text)) {
+            for (int i = 0; i < games.length; i++) {
+                games[i] = randomGame(random);
+                out.write(games[i]);
+            }
+        }
+        GameRecord game = new GameRecord();
+        try (PdnReader in = new PdnReader(new StringReader(text.toString()))) {
+            for (GameRecord expected : games) {
+                assertTrue(in.next(game));
+                assertSameGame(expected, game);
+            }
+            assertFalse(in.next(game));
+        }
+    }
+
+    @Test
+    public void readsStandardPdn() throws IOException {
+        // Standard numbering, with the side on 1-12 (our white) moving first; comments and variations are skipped
+        String pdn = "[Event \"Example\"]\n[Result \"*\"]\n"
+                + "1. 11-15 {a common opening} 23-19 2.8-11 22-17 3. 15-18 17-13 4. 3-8 19-15 (4... 24-20)\n"
+                + "5. 10x19 *\n";
+        GameRecord game = new GameRecord();
+        try (PdnReader in = new PdnReader(new StringReader(pdn))) {
+            assertTrue(in.next(game));
+        }
+        assertEquals(9, game.size());
+        assertEquals("10x19", Move.toString(game.getMove(8)));
+        assertEquals(GameRecord.UNFINISHED, game.getResult());
+        assertEquals(11, game.replay().count('b'));
+    }
+
+    @Test
+    public void aGameWithoutAResultTokenEndsAtTheNextGamesTags() throws IOException {
+        String pdn = "[Event \"First\"]\n[Result \"0-1\"]\n1. 11-15 23-19 2. 8-11\n\n"
+                + "[Event \"Second\"]\n1. 9-13 22-18 1-0\n\n"
+                + "[Event \"Third\"]\n1. 10-14\n";
+        GameRecord game = new GameRecord();
+        try (PdnReader in = new PdnReader(new StringReader(pdn))) {
+            assertTrue(in.next(game));
+            assertEquals(3, game.size());
+            assertEquals('w', game.getResult()); // from the Result tag
+            assertTrue(in.next(game));
+            assertEquals(2, game.size());
+            assertEquals("9-13", Move.toString(game.getMove(0)));
+            assertEquals('b', game.getResult());
+            assertTrue(in.next(game));
+            assertEquals(1, game.size());
+            assertEquals(GameRecord.UNFINISHED, game.getResult());
+            assertFalse(in.next(game));
+        }
+    }
+
+    @Test
+    public void aGameFromASetUpPositionIsRejected() throws IOException {
+        // Our records always start from the start position, so these would otherwise be misread or fail on a move
+        String[] games = {
+                "[Event \"Problem\"]\n[SetUp \"1\"]\n[FEN \"W:W18,K3:B14\"]\n1. 18x9 1-0\n",
+                "[FEN \"B:W21,22,23:B9,10,11\"]\n1. 11-15 *\n"
+        };
+        String[] tags = {"SetUp", "FEN"};
+        for (int i = 0; i < games.length; i++) {
+            try (PdnReader in = new PdnReader(new StringReader(games[i]))) {
+                IOException e = assertThrows(IOException.class, () -> in.next(new GameRecord()));
+                assertTrue(e.getMessage().contains(tags[i]), e.getMessage());
+            }
+        }
+    }
+}
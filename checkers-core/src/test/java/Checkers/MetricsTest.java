@@ -0,0 +1,54 @@
+package Checkers;
+
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetricsTest {
+
+    @Test
+    public void histogramBucketsAreWithinAnEighth() {
+        for (long value = 0; value < 1_000_000; value = value * 5 / 4 + 1) {
+            long lowest = LogHistogram.lowestValue(LogHistogram.bucket(value));
+            assertTrue(lowest <= value && value - lowest <= value / 8, "value " + value);
+        }
+        assertEquals(15L << 59, LogHistogram.lowestValue(LogHistogram.bucket(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void histogramPercentiles() {
+        LogHistogram h = new LogHistogram("test", "ns");
+        for (int i = 1; i <= 1000; i++) {
+            h.record(i);
+        }
+        assertEquals(1000, h.count());
+        assertEquals(1000, h.max());
+        assertTrue(Math.abs(h.percentile(0.5) - 500) <= 500 / 8);
+        assertTrue(Math.abs(h.percentile(0.99) - 990) <= 990 / 8);
+        h.reset();
+        assertEquals(0, h.percentile(0.5));
+    }
+
+    @Test
+    public void countsOnlyWhileEnabled() {
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        long before = Metrics.MOVE_GENERATIONS.sum();
+        MoveGenerator.generate(Position.start(), moves);
+        assertEquals(before, Metrics.MOVE_GENERATIONS.sum());
+
+        Metrics.setEnabled(true);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                MoveGenerator.generate(Position.start(), moves);
+            }
+            new Search().search(Position.start(), 4, 1000);
+        } finally {
+            Metrics.setEnabled(false);
+        }
+        assertTrue(Metrics.MOVE_GENERATIONS.sum() - before >= 1000);
+        assertTrue(Metrics.MOVE_GENERATION.count() > 0); // about one call in SAMPLE_RATE is timed
+        assertTrue(Metrics.SEARCHES.sum() > 0 && Metrics.TABLE_PROBES.sum() > 0);
+    }
+}
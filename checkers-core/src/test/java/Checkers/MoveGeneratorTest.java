@@ -0,0 +1,125 @@
+package Checkers;
+
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MoveGeneratorTest {
+
+    private final long[] moves = new long[MoveGenerator.MAX_MOVES];
+
+    @Test
+    public void startPositionHasSevenMoves() {
+        assertEquals(7, MoveGenerator.generate(Position.start(), moves));
+    }
+
+    @Test
+    public void moveEncodingRoundTrips() {
+        long move = Move.encode(9, 18, 1 << 13);
+        assertEquals(9, Move.from(move));
+        assertEquals(18, Move.to(move));
+        assertEquals(1 << 13, Move.captured(move));
+        assertTrue(Move.isCapture(move));
+        assertEquals("10x19", Move.toString(move));
+    }
+
+    @Test
+    public void menCannotJumpTheirOwnColour() {
+        Position p = new Position();
+        p.put(Position.square(1, 0), 'w', false);
+        p.put(Position.square(2, 1), 'w', false);
+        int count = MoveGenerator.generate(p, moves);
+        for (int i = 0; i < count; i++) {
+            assertEquals(0, Move.captured(moves[i]));
+        }
+    }
+
+    @Test
+    public void kingsMoveBackwards() {
+        Position p = new Position();
+        p.put(Position.square(3, 4), 'b', true);
+        p.setSideToMove('b');
+        assertEquals(4, MoveGenerator.generate(p, moves));
+    }
+
+    @Test
+    public void captureIsMandatory() {
+        Position p = new Position();
+        p.put(Position.square(1, 0), 'w', false);
+        p.put(Position.square(5, 2), 'w', false);
+        p.put(Position.square(6, 3), 'b', false);
+        assertEquals(1, MoveGenerator.generate(p, moves));
+        assertEquals(Position.square(7, 4), Move.to(moves[0]));
+    }
+
+    @Test
+    public void multiJumpTakesEveryPiece() {
+        Position p = new Position();
+        p.put(Position.square(1, 0), 'w', false);
+        p.put(Position.square(2, 1), 'b', false);
+        p.put(Position.square(4, 3), 'b', false);
+        p.put(Position.square(4, 5), 'b', false);
+        assertEquals(1, MoveGenerator.generate(p, moves));
+        assertEquals(Position.square(3, 6), Move.to(moves[0]));
+        assertEquals(3, Integer.bitCount(Move.captured(moves[0])));
+
+        int[] path = new int[Position.SQUARES];
+        assertEquals(3, MoveGenerator.path(p, moves[0], path));
+        assertEquals(Position.square(3, 2), path[0]);
+        assertEquals(Position.square(5, 4), path[1]);
+        assertEquals(Position.square(3, 6), path[2]);
+
+        p.apply(moves[0]);
+        assertEquals(0, p.count('b'));
+    }
+
+    @Test
+    public void pathNeverLandsOnAnOccupiedSquare() {
+        // Jumping both black men would land on white's own man first, so no path exists: go straight to the end
+        Position p = new Position();
+        p.put(Position.square(1, 0), 'w', true);
+        p.put(Position.square(2, 1), 'b', false);
+        p.put(Position.square(3, 2), 'w', false);
+        p.put(Position.square(4, 3), 'b', false);
+        long move = Move.encode(Position.square(1, 0), Position.square(5, 4),
+                1 << Position.square(2, 1) | 1 << Position.square(4, 3));
+        int[] path = new int[Position.SQUARES];
+        assertEquals(1, MoveGenerator.path(p, move, path));
+        assertEquals(Position.square(5, 4), path[0]);
+    }
+
+    @Test
+    public void crowningEndsTheCapture() {
+        Position p = new Position();
+        p.put(Position.square(4, 5), 'w', false);
+        p.put(Position.square(5, 6), 'b', false);
+        p.put(Position.square(5, 4), 'b', false);
+        assertEquals(1, MoveGenerator.generate(p, moves));
+        assertEquals(Position.square(6, 7), Move.to(moves[0]));
+        p.apply(moves[0]);
+        assertTrue(p.isKing(Position.square(6, 7)));
+        assertEquals(1, p.count('b'));
+    }
+
+    @Test
+    public void kingCaptureLoopIsListedOnce() {
+        // A king can go round four pieces and back to its start in either direction: both are the same move
+        Position p = new Position();
+        p.put(Position.square(3, 2), 'w', true);
+        p.put(Position.square(2, 3), 'b', false);
+        p.put(Position.square(2, 5), 'b', false);
+        p.put(Position.square(4, 5), 'b', false);
+        p.put(Position.square(4, 3), 'b', false);
+        int count = MoveGenerator.generate(p, moves);
+        int loops = 0;
+        for (int i = 0; i < count; i++) {
+            if (Move.from(moves[i]) == Move.to(moves[i])) {
+                loops++;
+                assertEquals(4, Integer.bitCount(Move.captured(moves[i])));
+            }
+        }
+        assertEquals(1, loops);
+    }
+}
@@ -0,0 +1,115 @@
+package Checkers;
+
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class NeuralEvaluatorTest {
+
+    // A network with random weights, small enough that no accumulator can overflow
+    private static NeuralNetwork randomNetwork(int hidden, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        short[] weights = new short[NeuralNetwork.FEATURES * hidden];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (short) random.nextInt(-40, 41);
+        }
+        short[] bias = new short[hidden];
+        short[] output = new short[2 * hidden];
+        for (int j = 0; j < hidden; j++) {
+            bias[j] = (short) random.nextInt(-100, 101);
+            output[j] = (short) random.nextInt(-64, 65);
+            output[hidden + j] = (short) random.nextInt(-64, 65);
+        }
+        return new NeuralNetwork(hidden, weights, bias, output, 17, 32);
+    }
+
+    @Test
+    public void materialNetworkCountsMaterial() {
+        NeuralEvaluator evaluator = new NeuralEvaluator(NeuralNetwork.material());
+        Position p = new Position();
+        p.put(0, 'w', false);
+        p.put(1, 'w', true);
+        p.put(20, 'b', false);
+        p.setSideToMove('b');
+        evaluator.reset(p);
+        assertEquals(-Evaluation.KING, evaluator.evaluate(p));
+    }
+
+    @Test
+    public void incrementalUpdatesMatchARefresh() {
+        NeuralNetwork network = randomNetwork(32, 1);
+        NeuralEvaluator incremental = new NeuralEvaluator(network);
+        NeuralEvaluator fresh = new NeuralEvaluator(network);
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        UndoStack undo = new UndoStack();
+        SplittableRandom random = new SplittableRandom(2);
+        for (int game = 0; game < 20; game++) {
+            Position p = Position.start();
+            incremental.reset(p);
+            int made = 0;
+            for (int ply = 0; ply < 60; ply++) {
+                int count = MoveGenerator.generate(p, moves);
+                if (count == 0) {
+                    break;
+                }
+                // Take a move back now and then, as the search does
+                if (made > 0 && random.nextInt(4) == 0) {
+                    p.unmakeMove(undo);
+                    incremental.unmakeMove();
+                    made--;
+                } else if (made < Search.MAX_PLY) {
+                    long move = moves[random.nextInt(count)];
+                    incremental.makeMove(p, move);
+                    p.makeMove(move, undo);
+                    made++;
+                }
+                fresh.reset(p);
+                assertEquals(fresh.evaluate(p), incremental.evaluate(p), "game " + game + " ply " + ply);
+            }
+            undo.clear();
+        }
+    }
+
+    @Test
+    public void savedNetworkLoadsTheSame() throws IOException {
+        NeuralNetwork network = randomNetwork(16, 3);
+        Path file = Files.createTempFile("network", ".nnue");
+        try {
+            network.save(file);
+            NeuralEvaluator original = new NeuralEvaluator(network);
+            NeuralEvaluator loaded = new NeuralEvaluator(NeuralNetwork.load(file));
+            Position p = Position.start();
+            assertEquals(original.evaluate(p), loaded.evaluate(p));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void rejectsWeightsThatCouldOverflow() {
+        short[] weights = new short[NeuralNetwork.FEATURES];
+        weights[0] = 2000; // 24 pieces could reach 48000
+        assertThrows(IllegalArgumentException.class,
+                () -> new NeuralNetwork(1, weights, new short[1], new short[2], 0, 1));
+    }
+
+    @Test
+    public void rejectsOutputWeightsThatCouldOverflow() {
+        // 256 units at CLIP on both sides, times the largest int16 weight, is more than an int32 holds
+        int hidden = 256;
+        short[] output = new short[2 * hidden];
+        Arrays.fill(output, Short.MAX_VALUE);
+        assertThrows(IllegalArgumentException.class, () -> new NeuralNetwork(hidden,
+                new short[NeuralNetwork.FEATURES * hidden], new short[hidden], output, 0, 1));
+        Arrays.fill(output, (short) 100);
+        new NeuralNetwork(hidden, new short[NeuralNetwork.FEATURES * hidden], new short[hidden], output, 0, 1);
+    }
+}
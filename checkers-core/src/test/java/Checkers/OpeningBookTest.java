@@ -0,0 +1,71 @@
+package Checkers;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class OpeningBookTest {
+
+    // Returns the legal move of the side to move written as text (see Move.toString)
+    private static long move(Position p, String text) {
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(p, moves);
+        for (int i = 0; i < count; i++) {
+            if (Move.toString(moves[i]).equals(text)) {
+                return moves[i];
+            }
+        }
+        throw new IllegalArgumentException(text);
+    }
+
+    // A game of the given moves from the start position
+    private static GameRecord game(char result, String... moves) {
+        GameRecord game = new GameRecord();
+        Position p = Position.start();
+        for (String text : moves) {
+            long move = move(p, text);
+            game.add(move);
+            p.apply(move);
+        }
+        game.setResult(result);
+        return game;
+    }
+
+    @Test
+    public void playsTheMoveThatScoredBest() throws IOException {
+        OpeningBookBuilder builder = new OpeningBookBuilder(OpeningBookBuilder.DEFAULT_PLIES);
+        builder.add(game('w', "11-15", "23-19"));
+        builder.add(game('w', "11-15", "22-18"));
+        builder.add(game(GameRecord.DRAW, "9-13", "23-19"));
+        builder.add(game(GameRecord.DRAW, "9-13", "22-18"));
+        builder.add(game('b', "10-14", "23-19"));
+        builder.add(game('b', "10-14", "23-19"));
+
+        Path file = Files.createTempFile("book", ".bin");
+        try {
+            // 11-15, 9-13 and black's 23-19 after 10-14: 10-14 never scored for white, the other replies had one game each
+            assertEquals(3, builder.write(file, 2));
+            OpeningBook book = OpeningBook.open(file);
+            Position start = Position.start();
+            assertEquals(move(start, "11-15"), book.bestMove(start));
+
+            Position after = start.copy();
+            after.apply(move(start, "10-14"));
+            assertEquals(move(after, "23-19"), book.bestMove(after));
+
+            after.apply(move(after, "23-19"));
+            assertEquals(Move.NONE, book.bestMove(after)); // not in the book
+
+            Search search = new Search();
+            search.setOpeningBook(book);
+            assertEquals(move(start, "11-15"), search.search(start, 10, 1000));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
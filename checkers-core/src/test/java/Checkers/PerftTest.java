@@ -0,0 +1,50 @@
+package Checkers;
+
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PerftTest {
+
+    private final Perft perft = new Perft(10);
+
+    @Test
+    public void startPositionMatchesPublishedCounts() {
+        for (int depth = 1; depth <= 9; depth++) {
+            assertEquals(Perft.START_COUNTS[depth], perft.count(Position.start(), depth), "depth " + depth);
+        }
+    }
+
+    @Test
+    public void kingCaptureLoop() {
+        // A white king can take four men going round in a loop, in either direction; that is one move.
+        // The other chains stop after one, two or three captures when the way on is blocked.
+        Position p = new Position(1 << Position.square(3, 2),
+                (1 << Position.square(2, 3)) | (1 << Position.square(2, 5))
+                        | (1 << Position.square(4, 5)) | (1 << Position.square(4, 3)),
+                1 << Position.square(3, 2), 'w');
+        assertEquals(1, perft.count(p, 1));
+    }
+
+    @Test
+    public void crowningStopsTheChain() {
+        // The white man is crowned on its jump to (4,7). As a king it could jump on backwards over (5,6) to the empty
+        // (6,5), but a crowning ends the move; black then has two steps with its remaining man
+        Position p = new Position(1 << Position.square(2, 5),
+                (1 << Position.square(3, 6)) | (1 << Position.square(5, 6)), 0, 'w');
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        assertEquals(1, MoveGenerator.generate(p, moves));
+        assertEquals(Position.square(4, 7), Move.to(moves[0]));
+        assertEquals(1 << Position.square(3, 6), Move.captured(moves[0]));
+        assertEquals(2, perft.count(p, 2));
+    }
+
+    @Test
+    public void manyKings() {
+        // Two kings in the open: each has four diagonal steps
+        Position p = new Position((1 << Position.square(1, 2)) | (1 << Position.square(5, 2)),
+                1 << Position.square(0, 7), (1 << Position.square(1, 2)) | (1 << Position.square(5, 2)), 'w');
+        assertEquals(8, perft.count(p, 1));
+    }
+}
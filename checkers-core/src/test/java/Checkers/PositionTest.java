@@ -0,0 +1,98 @@
+package Checkers;
+
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PositionTest {
+
+    @Test
+    public void squaresMapToDarkCells() {
+        for (int square = 0; square < Position.SQUARES; square++) {
+            int x = Position.squareX(square);
+            int y = Position.squareY(square);
+            assertEquals(1, (x + y) % 2);
+            assertEquals(square, Position.square(x, y));
+        }
+        assertEquals(-1, Position.square(0, 0));
+        assertEquals(-1, Position.square(8, 1));
+    }
+
+    @Test
+    public void startPosition() {
+        Position p = Position.start();
+        assertEquals(12, p.count('w'));
+        assertEquals(12, p.count('b'));
+        assertEquals('w', p.getSideToMove());
+        assertEquals('w', p.colourAt(Position.square(1, 0)));
+        assertEquals('b', p.colourAt(Position.square(0, 7)));
+        assertEquals(Position.EMPTY, p.colourAt(Position.square(0, 3)));
+    }
+
+    @Test
+    public void moveAndCrown() {
+        Position p = new Position();
+        p.put(25, 'w', false);
+        p.movePiece(25, 29);
+        p.crown(29);
+        assertEquals('w', p.colourAt(29));
+        assertTrue(p.isKing(29));
+        assertEquals(Position.EMPTY, p.colourAt(25));
+        assertFalse(p.isKing(25));
+        p.remove(29);
+        assertEquals(0, p.getOccupied());
+        assertEquals(0, p.getKings());
+    }
+
+    @Test
+    public void hashIsUpdatedIncrementally() {
+        // Play random games and compare the incremental hash with one computed from scratch after every move
+        java.util.Random random = new java.util.Random(1);
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        for (int game = 0; game < 50; game++) {
+            Position p = Position.start();
+            for (int ply = 0; ply < 150; ply++) {
+                int count = MoveGenerator.generate(p, moves);
+                if (count == 0) {
+                    break;
+                }
+                p.apply(moves[random.nextInt(count)]);
+                long expected = Zobrist.compute(p.getWhite(), p.getBlack(), p.getKings(), p.getSideToMove());
+                assertEquals(expected, p.getHash());
+            }
+        }
+    }
+
+    @Test
+    public void unmakeRestoresThePosition() {
+        // Make every legal move of positions from random games and check that unmaking it restores everything
+        java.util.Random random = new java.util.Random(2);
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        UndoStack undo = new UndoStack(1);
+        for (int game = 0; game < 50; game++) {
+            Position p = Position.start();
+            for (int ply = 0; ply < 150; ply++) {
+                int count = MoveGenerator.generate(p, moves);
+                if (count == 0) {
+                    break;
+                }
+                Position before = p.copy();
+                for (int i = 0; i < count; i++) {
+                    p.makeMove(moves[i], undo);
+                    p.unmakeMove(undo);
+                    assertEquals(before, p);
+                    assertEquals(before.getHash(), p.getHash());
+                }
+                p.makeMove(moves[random.nextInt(count)], undo);
+            }
+            // Take the whole game back
+            while (!undo.isEmpty()) {
+                p.unmakeMove(undo);
+            }
+            assertEquals(Position.start(), p);
+        }
+    }
+}
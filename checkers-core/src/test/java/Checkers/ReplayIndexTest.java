@@ -0,0 +1,43 @@
+package Checkers;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ReplayIndexTest {
+
+    @Test
+    public void seekMatchesPlayingFromTheStart() {
+        // A long random game, with every position along the way
+        Random random = new Random(14);
+        GameRecord game = new GameRecord();
+        Position p = Position.start();
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        Position[] expected = new Position[201];
+        expected[0] = p.copy();
+        for (int ply = 0; ply < 200; ply++) {
+            int count = MoveGenerator.generate(p, moves);
+            if (count == 0) {
+                break;
+            }
+            long move = moves[random.nextInt(count)];
+            game.add(move);
+            p.apply(move);
+            expected[ply + 1] = p.copy();
+        }
+
+        ReplayIndex replay = new ReplayIndex(game);
+        Position shown = new Position();
+        for (int i = 0; i < 500; i++) {
+            int ply = random.nextInt(game.size() + 1);
+            assertEquals(ply, replay.seek(ply, shown));
+            assertEquals(expected[ply], shown, "ply " + ply);
+            assertEquals(expected[ply].getHash(), shown.getHash());
+        }
+        assertEquals(game.size(), replay.seek(game.size() + 5, shown));
+        assertEquals(0, replay.seek(-1, shown));
+    }
+}
@@ -0,0 +1,68 @@
+package Checkers;
+
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SearchTest {
+
+    @Test
+    public void findsTheWinningMove() {
+        // White has ten moves, and only the king's step from 10 to 15 (square 9 to 14) wins within nine plies
+        Position p = new Position();
+        p.put(Position.square(3, 2), 'w', true);
+        p.put(Position.square(5, 2), 'w', true);
+        p.put(Position.square(1, 4), 'w', false);
+        p.put(Position.square(7, 2), 'b', false);
+        p.put(Position.square(6, 7), 'b', false);
+        assertEquals(10, MoveGenerator.generate(p, new long[MoveGenerator.MAX_MOVES]));
+        Search search = new Search();
+        long move = search.search(p, 9, 10000);
+        assertEquals(Move.encode(Position.square(3, 2), Position.square(4, 3), 0), move);
+        assertTrue(search.getScore() > Search.WIN - Search.MAX_PLY, "score " + search.getScore());
+    }
+
+    @Test
+    public void recognisesALostPosition() {
+        // White has four moves, but black's king and man win against every one of them
+        Position p = new Position();
+        p.put(Position.square(1, 6), 'w', true);
+        p.put(Position.square(7, 6), 'w', false);
+        p.put(Position.square(5, 4), 'b', true);
+        p.put(Position.square(6, 7), 'b', false);
+        assertEquals(4, MoveGenerator.generate(p, new long[MoveGenerator.MAX_MOVES]));
+        Search search = new Search();
+        assertTrue(search.search(p, 10, 10000) != Move.NONE);
+        assertTrue(search.getScore() < -(Search.WIN - Search.MAX_PLY), "score " + search.getScore());
+    }
+
+    @Test
+    public void aBlockedSideLosesEvenAtTheQuietPlyLimit() {
+        // Every king move reaches the limit of one quiet ply, a draw, except the one that leaves black without a move
+        Position p = new Position();
+        p.put(Position.square(2, 1), 'w', true);
+        p.put(Position.square(0, 1), 'b', false);
+        GameHistory game = new GameHistory(1);
+        game.reset(p);
+        Search search = new Search();
+        long move = search.search(p, game, 4, 10000);
+        assertEquals(Position.square(1, 0), Move.to(move));
+        assertTrue(search.getScore() > Search.WIN - Search.MAX_PLY, "score " + search.getScore());
+    }
+
+    @Test
+    public void respectsTheTimeBudget() {
+        // Deepening to MAX_PLY takes far longer than the budget, so only the clock can end this search. The elapsed
+        // time gets generous slack, as a loaded machine may be slow to schedule the search thread
+        Search search = new Search();
+        long start = System.nanoTime();
+        long move = search.search(Position.start(), Search.MAX_PLY, 200);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(move != Move.NONE);
+        assertTrue(search.getDepth() < Search.MAX_PLY - 1, "searched to the maximum depth");
+        assertTrue(search.getDepth() >= 4, "only reached depth " + search.getDepth());
+        assertTrue(elapsed < 2000, "search took " + elapsed + " ms");
+    }
+}
@@ -0,0 +1,128 @@
+package Checkers;
+
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SessionServerTest {
+
+    private static SessionServer server;
+
+    // A client connection speaking the line protocol
+    private static final class Client implements AutoCloseable {
+        final Socket socket;
+        final BufferedReader in;
+        final OutputStream out;
+
+        Client() throws IOException {
+            socket = new Socket("localhost", server.getPort());
+            in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            out = socket.getOutputStream();
+        }
+
+        String request(String line) throws IOException {
+            out.write((line + "\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            return in.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    @BeforeAll
+    public static void start() throws IOException {
+        server = new SessionServer(0);
+        Thread t = new Thread(server, "session-server");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    @AfterAll
+    public static void stop() {
+        server.close();
+    }
+
+    @Test
+    public void movesArePlayedAndPushedToWatchers() throws IOException {
+        try (Client player = new Client(); Client watcher = new Client()) {
+            String state = player.request("NEW");
+            String id = state.split(" ")[1];
+            assertEquals("STATE " + id + " 0 w * fff fff00000 0", state);
+            assertTrue(watcher.request("JOIN " + id).startsWith("STATE " + id + " 0 w"));
+
+            // Move 0 is the lowest encoded legal move: 9-13 in this numbering (square 8 to 12)
+            Position p = Position.start();
+            p.apply(GameRecord.moveAt(p, 0, new long[MoveGenerator.MAX_MOVES]));
+            String expected = "STATE " + id + " 1 b * " + Integer.toHexString(p.getWhite()) + " fff00000 0";
+            assertEquals(expected, player.request("MOVE " + id + " 0"));
+            assertEquals(expected, watcher.in.readLine());
+
+            assertTrue(player.request("MOVE " + id + " 99").startsWith("ERR"));
+            assertEquals("CLOSED " + id, player.request("CLOSE " + id));
+            assertEquals("CLOSED " + id, watcher.in.readLine());
+            assertTrue(player.request("STATE " + id).startsWith("ERR"));
+        }
+    }
+
+    @Test
+    public void aRepeatedJoinPushesEachStateOnce() throws IOException {
+        try (Client player = new Client(); Client watcher = new Client()) {
+            String id = player.request("NEW").split(" ")[1];
+            watcher.request("JOIN " + id);
+            watcher.request("JOIN " + id);
+            String state = player.request("MOVE " + id + " 0");
+            assertEquals(state, watcher.in.readLine());
+            // A second copy of the push would arrive before this reply
+            assertEquals(state, watcher.request("STATE " + id));
+        }
+    }
+
+    @Test
+    public void gamesCloseWhenTheirLastClientLeaves() throws IOException, InterruptedException {
+        String id;
+        try (Client player = new Client(); Client watcher = new Client()) {
+            id = player.request("NEW").split(" ")[1];
+            watcher.request("JOIN " + id);
+            player.close();
+            try (Client other = new Client()) {
+                assertTrue(other.request("STATE " + id).startsWith("STATE"));
+            }
+        }
+        try (Client other = new Client()) {
+            String reply = other.request("STATE " + id);
+            // The server notices the disconnections in its own time
+            for (int i = 0; i < 100 && reply.startsWith("STATE"); i++) {
+                Thread.sleep(10);
+                reply = other.request("STATE " + id);
+            }
+            assertTrue(reply.startsWith("ERR"));
+        }
+    }
+
+    @Test
+    public void onlyTheOpenerMovesOrClosesAGame() throws IOException {
+        try (Client player = new Client(); Client other = new Client()) {
+            String id = player.request("NEW").split(" ")[1];
+            assertEquals("ERR not your game", other.request("MOVE " + id + " 0"));
+            assertEquals("ERR not your game", other.request("CLOSE " + id));
+            other.request("JOIN " + id); // watching does not make it theirs
+            assertEquals("ERR not your game", other.request("MOVE " + id + " 0"));
+            assertTrue(player.request("STATE " + id).startsWith("STATE " + id + " 0 w"));
+            assertEquals("CLOSED " + id, player.request("CLOSE " + id));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package Checkers;
+
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SessionStoreTest {
+
+    @Test
+    public void reusesClosedSlots() {
+        SessionStore store = new SessionStore();
+        int a = store.create(1);
+        int b = store.create(1);
+        assertTrue(store.play(b, 0));
+        int generation = store.getGeneration(a);
+        store.close(a);
+        assertFalse(store.isOpen(a));
+        assertEquals(a, store.create(1));
+        assertNotEquals(generation, store.getGeneration(a));
+        assertEquals(0, store.getPlies(a));
+        assertEquals(1, store.getPlies(b));
+        assertEquals(2, store.openGames());
+    }
+
+    @Test
+    public void closesAGameWhenItsLastClientDetaches() {
+        SessionStore store = new SessionStore();
+        int id = store.create(1);
+        store.attach(id);
+        store.attach(id);
+        assertFalse(store.detach(id));
+        assertTrue(store.isOpen(id));
+        assertTrue(store.detach(id));
+        assertFalse(store.isOpen(id));
+        assertEquals(0, store.openGames());
+    }
+}
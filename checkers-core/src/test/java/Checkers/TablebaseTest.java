@@ -0,0 +1,119 @@
+package Checkers;
+
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TablebaseTest {
+
+    private static Path dir;
+    private static Tablebase tablebase;
+    private static final List<Path> written = new ArrayList<>();
+
+    @BeforeAll
+    public static void generate() throws IOException {
+        dir = Files.createTempDirectory("tablebase");
+        TablebaseGenerator generator = new TablebaseGenerator(dir);
+        generator.setListener((file, positions, longestPlies, nanos) -> written.add(file));
+        generator.generate(3);
+        tablebase = generator.getTablebase();
+    }
+
+    @AfterAll
+    public static void deleteFiles() {
+        File[] files = dir.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.toFile().delete();
+    }
+
+    @Test
+    public void everySliceWrittenIsReported() {
+        File[] files = dir.toFile().listFiles();
+        assertEquals(files.length, written.size());
+        for (Path file : written) {
+            assertTrue(Files.isRegularFile(file), file + " was not written");
+        }
+    }
+
+    @Test
+    public void indexRoundTrip() {
+        Random random = new Random(15);
+        int[] pieces = new int[3];
+        int size = Tablebase.sliceSize(1, 1, 2, 1);
+        for (int i = 0; i < 10000; i++) {
+            int index = random.nextInt(size);
+            if (Tablebase.unindex(1, 1, 2, 1, index, pieces)) {
+                assertEquals(index, Tablebase.index(pieces[0], pieces[1], pieces[2]));
+            }
+        }
+    }
+
+    @Test
+    public void everyValueAgreesWithItsMoves() {
+        // The value of each position must follow from the values of the positions its moves lead to
+        int[] pieces = new int[3];
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        Position child = new Position();
+        int[][] slices = {{0, 1, 0, 2}, {0, 2, 0, 1}, {1, 0, 1, 1}, {2, 0, 1, 0}, {0, 1, 1, 1}};
+        for (int[] s : slices) {
+            for (int index = 0; index < Tablebase.sliceSize(s[0], s[1], s[2], s[3]); index++) {
+                if (!Tablebase.unindex(s[0], s[1], s[2], s[3], index, pieces)) {
+                    continue;
+                }
+                for (char side : new char[] {'w', 'b'}) {
+                    Position p = new Position(pieces[0], pieces[1], pieces[2], side);
+                    int count = MoveGenerator.generate(p, moves);
+                    int fastestWin = -1;
+                    int slowestLoss = -1;
+                    boolean draw = false;
+                    for (int i = 0; i < count; i++) {
+                        child.copyFrom(p);
+                        child.apply(moves[i]);
+                        int reply = tablebase.probe(child);
+                        if (reply == Tablebase.DRAW) {
+                            draw = true;
+                        } else if (Tablebase.isLoss(reply)) {
+                            int d = Tablebase.distance(reply) + 1;
+                            fastestWin = fastestWin < 0 ? d : Math.min(fastestWin, d);
+                        } else {
+                            slowestLoss = Math.max(slowestLoss, Tablebase.distance(reply) + 1);
+                        }
+                    }
+                    int expected = count == 0 ? Tablebase.LOST
+                            : fastestWin >= 0 ? Tablebase.valueOf(fastestWin)
+                            : draw ? Tablebase.DRAW : Tablebase.valueOf(slowestLoss);
+                    assertEquals(expected, tablebase.probe(p), p.toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void twoKingsBeatOne() {
+        // White kings on squares 13 and 18, black king in the single corner (square 3); black cannot escape
+        Position p = new Position((1 << 13) | (1 << 18), 1 << 3, (1 << 13) | (1 << 18) | (1 << 3), 'w');
+        int value = tablebase.probe(p);
+        assertTrue(Tablebase.isWin(value));
+
+        Search search = new Search();
+        search.setTablebase(tablebase);
+        assertEquals(tablebase.bestMove(p), search.search(p, 10, 1000));
+        assertEquals(Search.WIN - Tablebase.distance(value), search.getScore());
+    }
+}
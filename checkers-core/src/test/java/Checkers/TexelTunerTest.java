@@ -0,0 +1,123 @@
+package Checkers;
+
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TexelTunerTest {
+
+    // A random game of up to maxPlies plies, won by whoever has more pieces at the end
+    private static GameRecord randomGame(SplittableRandom random, int maxPlies) {
+        GameRecord game = new GameRecord();
+        Position p = Position.start();
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        for (int ply = 0; ply < maxPlies; ply++) {
+            int count = MoveGenerator.generate(p, moves);
+            if (count == 0) {
+                break;
+            }
+            long move = moves[random.nextInt(count)];
+            game.add(move);
+            p.apply(move);
+        }
+        int balance = p.count('w') - p.count('b');
+        game.setResult(balance > 0 ? 'w' : balance < 0 ? 'b' : GameRecord.DRAW);
+        return game;
+    }
+
+    @Test
+    public void weightedFeaturesGiveTheEvaluation() {
+        SplittableRandom random = new SplittableRandom(1);
+        int[] weights = Evaluation.defaultWeights();
+        int[] features = new int[Evaluation.FEATURES];
+        long[] moves = new long[MoveGenerator.MAX_MOVES];
+        for (int game = 0; game < 50; game++) {
+            Position p = Position.start();
+            for (int ply = 0; ply < 80; ply++) {
+                Evaluation.features(p, features);
+                int white = 0;
+                for (int f = 0; f < Evaluation.FEATURES; f++) {
+                    white += weights[f] * features[f];
+                }
+                assertEquals(p.getSideToMove() == 'w' ? white : -white, Evaluation.evaluate(p));
+                assertEquals(Evaluation.evaluate(p), Evaluation.evaluate(p, weights));
+                int count = MoveGenerator.generate(p, moves);
+                if (count == 0) {
+                    break;
+                }
+                p.apply(moves[random.nextInt(count)]);
+            }
+        }
+    }
+
+    @Test
+    public void weightsFileRoundTrips() throws IOException {
+        Path file = Files.createTempFile("weights", ".txt");
+        try {
+            int[] weights = {90, 160, 5, -2, 7};
+            Evaluation.saveWeights(file, weights);
+            assertArrayEquals(weights, Evaluation.loadWeights(file));
+
+            // Features the file leaves out keep their default weight
+            Files.writeString(file, "# tuned\nking 150\n");
+            int[] expected = Evaluation.defaultWeights();
+            expected[Evaluation.KINGS] = 150;
+            assertArrayEquals(expected, Evaluation.loadWeights(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void tuningReducesTheLoss() throws IOException {
+        Path archive = Files.createTempFile("games", ".ckg");
+        Path samples = Files.createTempFile("texel", ".samples");
+        try {
+            SplittableRandom random = new SplittableRandom(2);
+            try (GameFileWriter out = GameFileWriter.open(archive)) {
+                for (int i = 0; i < 300; i++) {
+                    out.write(randomGame(random, 60));
+                }
+                GameRecord unfinished = randomGame(random, 60);
+                unfinished.setResult(GameRecord.UNFINISHED);
+                out.write(unfinished);
+            }
+
+            // A small chunk, so that a pass reads several chunks
+            TexelTuner tuner = new TexelTuner(samples, TexelTuner.DEFAULT_SKIP_PLIES, 1000);
+            tuner.addFile(archive);
+            assertEquals(300, tuner.getGames());
+            assertTrue(tuner.getPositions() > 1000);
+            double[] start = {100, 130, 3, 10, 0};
+            assertThrows(IllegalStateException.class, () -> tuner.loss(start, 1));
+            tuner.finishSamples();
+            assertThrows(IllegalStateException.class, () -> tuner.addFile(archive));
+
+            double[] weights = {100, 130, 3, 10, 0};
+            double k = tuner.fitScale(weights);
+            double before = tuner.loss(weights, k);
+            List<Double> losses = new ArrayList<>();
+            tuner.setListener((epoch, loss) -> losses.add(loss));
+            tuner.tune(weights, k, 50, 2);
+            assertEquals(50, losses.size());
+            assertEquals(before, losses.get(0), 1e-12);
+            double after = tuner.loss(weights, k);
+            assertTrue(after < before, after + " >= " + before);
+            assertTrue(weights[Evaluation.MEN] > 0);
+        } finally {
+            Files.delete(archive);
+            Files.delete(samples);
+        }
+    }
+}
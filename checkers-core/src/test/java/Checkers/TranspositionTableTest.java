@@ -0,0 +1,61 @@
+package Checkers;
+
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+public class TranspositionTableTest {
+
+    // Hashes that differ only in their high bits, so they all fall in the same bucket
+    private static long hash(int i) {
+        return ((long) i << 40) | 5;
+    }
+
+    @Test
+    public void storesAndFindsAnEntry() {
+        TranspositionTable table = new TranspositionTable(1);
+        long move = Move.encode(8, 12, 0);
+        table.store(hash(1), move, -123, 7, TranspositionTable.LOWER);
+        long data = table.probe(hash(1));
+        assertEquals(-123, TranspositionTable.score(data));
+        assertEquals(7, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(data));
+        assertEquals(8, TranspositionTable.moveFrom(data));
+        assertEquals(12, TranspositionTable.moveTo(data));
+        assertEquals(0, table.probe(hash(2)));
+    }
+
+    @Test
+    public void replacesTheShallowestEntryOfAFullBucket() {
+        TranspositionTable table = new TranspositionTable(1);
+        int[] depths = {5, 2, 7, 9};
+        for (int i = 0; i < depths.length; i++) {
+            table.store(hash(i), Move.NONE, 0, depths[i], TranspositionTable.EXACT);
+        }
+        table.store(hash(4), Move.NONE, 0, 3, TranspositionTable.EXACT);
+        assertEquals(0, table.probe(hash(1)));
+        for (int i : new int[] {0, 2, 3, 4}) {
+            assertNotEquals(0, table.probe(hash(i)));
+        }
+    }
+
+    @Test
+    public void replacesEntriesOfEarlierSearchesFirst() {
+        TranspositionTable table = new TranspositionTable(1);
+        for (int i = 0; i < 4; i++) {
+            table.store(hash(i), Move.NONE, 0, 6, TranspositionTable.EXACT);
+        }
+        table.newSearch();
+        // Both new entries are shallower than the old ones, but the second replaces an old entry, not the first
+        table.store(hash(4), Move.NONE, 0, 4, TranspositionTable.EXACT);
+        table.store(hash(5), Move.NONE, 0, 4, TranspositionTable.EXACT);
+        assertNotEquals(0, table.probe(hash(4)));
+        assertNotEquals(0, table.probe(hash(5)));
+        assertEquals(0, table.probe(hash(0)));
+        assertEquals(0, table.probe(hash(1)));
+        assertNotEquals(0, table.probe(hash(2)));
+        assertNotEquals(0, table.probe(hash(3)));
+    }
+}
@@ -0,0 +1,91 @@
+package Checkers;
+
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class WideMoveGeneratorTest {
+
+    // Published perft counts from the international (10x10) start position, by depth
+    private static final long[] INTERNATIONAL_COUNTS = {1L, 9L, 81L, 658L, 4265L, 27117L};
+
+    private static long perft(WideMoveGenerator generator, WidePosition p, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        WideMoveList list = new WideMoveList();
+        generator.generate(p, list);
+        long nodes = 0;
+        for (int i = 0; i < list.size(); i++) {
+            WidePosition next = p.copy();
+            next.apply(list.getFrom(i), list.getTo(i), list.getCapturedLo(i), list.getCapturedHi(i));
+            nodes += perft(generator, next, depth - 1);
+        }
+        return nodes;
+    }
+
+    @Test
+    public void englishRulesMatchPublishedPerft() {
+        WideMoveGenerator generator = new WideMoveGenerator(Ruleset.ENGLISH);
+        for (int depth = 1; depth <= 7; depth++) {
+            assertEquals(Perft.START_COUNTS[depth], perft(generator, WidePosition.start(Ruleset.ENGLISH), depth),
+                    "depth " + depth);
+        }
+    }
+
+    @Test
+    public void internationalRulesMatchPublishedPerft() {
+        WideMoveGenerator generator = new WideMoveGenerator(Ruleset.INTERNATIONAL);
+        for (int depth = 1; depth < INTERNATIONAL_COUNTS.length; depth++) {
+            assertEquals(INTERNATIONAL_COUNTS[depth],
+                    perft(generator, WidePosition.start(Ruleset.INTERNATIONAL), depth), "depth " + depth);
+        }
+    }
+
+    @Test
+    public void canadianBoardUsesTheHighWord() {
+        WidePosition p = WidePosition.start(Ruleset.CANADIAN);
+        assertEquals(30, p.count('w'));
+        assertEquals(30, p.count('b'));
+        assertEquals('b', p.colourAt(71));
+        WideMoveList list = new WideMoveList();
+        new WideMoveGenerator(Ruleset.CANADIAN).generate(p, list);
+        assertEquals(11, list.size());
+    }
+
+    @Test
+    public void flyingKingCapturesFromADistance() {
+        BoardGeometry g = Ruleset.INTERNATIONAL.getGeometry();
+        WidePosition p = new WidePosition(Ruleset.INTERNATIONAL);
+        p.put(g.square(1, 0), 'w', true);
+        p.put(g.square(4, 3), 'b', false);
+        WideMoveList list = new WideMoveList();
+        new WideMoveGenerator(Ruleset.INTERNATIONAL).generate(p, list);
+        // It may land on any of the five empty squares beyond the man
+        assertEquals(5, list.size());
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(1, list.getCaptureCount(i));
+        }
+    }
+
+    @Test
+    public void majorityCaptureIsMandatory() {
+        WideMoveList list = new WideMoveList();
+        for (Ruleset rules : new Ruleset[] {Ruleset.ENGLISH, Ruleset.INTERNATIONAL}) {
+            BoardGeometry g = rules.getGeometry();
+            WidePosition p = new WidePosition(rules);
+            p.put(g.square(3, 2), 'w', false);
+            p.put(g.square(2, 3), 'b', false); // Taken alone
+            p.put(g.square(4, 3), 'b', false); // Taken together with the next one
+            p.put(g.square(6, 5), 'b', false);
+            new WideMoveGenerator(rules).generate(p, list);
+            if (rules.hasMajorityCapture()) {
+                assertEquals(1, list.size());
+                assertEquals(2, list.getCaptureCount(0));
+            } else {
+                assertEquals(2, list.size());
+            }
+        }
+    }
+}
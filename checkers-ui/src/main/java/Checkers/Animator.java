@@ -0,0 +1,164 @@
+// General Description
+// Package: Checkers
+// Purpose: Schedules and draws the animations of the board: pieces sliding along their path and captured pieces
+// --> fading out. Any number of tweens can run at once, for example every jump of a multi-jump plus a fade for
+// --> each piece it takes.
+// Animations are time-based: each tween has a start time and a duration in milliseconds and is eased by elapsed
+// --> time, so pieces move at the same speed whatever the frame rate.
+// Methods:
+// animateMove(Position before, long move, int now) schedules the tweens for a move about to be played.
+// isAnimating(int now) tells whether anything is still moving, hides(int square) whether a cell's piece is in flight.
+// draw(App app, int now) draws the active tweens and drops the finished ones.
+
+package Checkers;
+
+import java.util.ArrayList;
+
+public class Animator {
+
+    public static final int JUMP_MILLIS = 180; // Time for one step or jump of a moving piece
+    public static final int FADE_MILLIS = 250; // Time for a captured piece to fade out
+
+    // One animated piece: either sliding from one cell to another, or fading out where it stands
+    private static class Tween {
+        int start; // Start time in milliseconds, as returned by millis()
+        int duration; // Length in milliseconds
+        float fromX, fromY, toX, toY; // Top-left corners of the start and end cells, in pixels
+        char colour;
+        boolean king;
+        boolean fade; // True to fade out in place instead of sliding
+        int hiddenSquare; // Square whose piece is not drawn from the board while this tween runs, or -1
+    }
+
+    private final ArrayList<Tween> tweens = new ArrayList<>();
+    private final int[] path = new int[Position.SQUARES]; // Landing squares of the move being scheduled
+
+    /**
+     * Schedule the animation of a move that is about to be played.
+     * @param before The position before the move, used to know which pieces move and are taken
+     * @param move The move
+     * @param now The current time in milliseconds
+     */
+    public void animateMove(Position before, long move, int now) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        char colour = before.colourAt(from);
+        boolean king = before.isKing(from);
+        int captured = Move.captured(move);
+
+        // One slide per step or jump, each starting when the previous one ends
+        int length = MoveGenerator.path(before, move, path);
+        int at = from;
+        int start = now;
+        for (int i = 0; i < length; i++) {
+            Tween t = new Tween();
+            t.start = start;
+            t.duration = JUMP_MILLIS;
+            t.fromX = Position.squareX(at) * App.CELLSIZE;
+            t.fromY = Position.squareY(at) * App.CELLSIZE;
+            t.toX = Position.squareX(path[i]) * App.CELLSIZE;
+            t.toY = Position.squareY(path[i]) * App.CELLSIZE;
+            t.colour = colour;
+            t.king = king;
+            t.hiddenSquare = to;
+            tweens.add(t);
+
+            // The piece jumped over on this step starts fading as the mover passes it
+            int jumped = jumpedSquare(at, path[i]);
+            if (jumped >= 0 && (captured & (1 << jumped)) != 0) {
+                Tween f = new Tween();
+                f.start = start + JUMP_MILLIS / 2;
+                f.duration = FADE_MILLIS;
+                f.fromX = f.toX = Position.squareX(jumped) * App.CELLSIZE;
+                f.fromY = f.toY = Position.squareY(jumped) * App.CELLSIZE;
+                f.colour = before.colourAt(jumped);
+                f.king = before.isKing(jumped);
+                f.fade = true;
+                f.hiddenSquare = -1;
+                tweens.add(f);
+            }
+            at = path[i];
+            start += JUMP_MILLIS;
+        }
+    }
+
+    // Returns the square between the two ends of a jump, or -1 if the squares are not a jump apart
+    private static int jumpedSquare(int from, int to) {
+        int dx = Position.squareX(to) - Position.squareX(from);
+        int dy = Position.squareY(to) - Position.squareY(from);
+        if (Math.abs(dx) != 2 || Math.abs(dy) != 2) {
+            return -1;
+        }
+        return Position.square(Position.squareX(from) + dx / 2, Position.squareY(from) + dy / 2);
+    }
+
+    // Returns true while any tween has not finished
+    public boolean isAnimating(int now) {
+        for (int i = 0; i < tweens.size(); i++) {
+            Tween t = tweens.get(i);
+            if (now < t.start + t.duration) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Returns true if the piece standing on a square is being drawn by a tween instead of by its cell
+    public boolean hides(int square) {
+        for (int i = 0; i < tweens.size(); i++) {
+            if (tweens.get(i).hiddenSquare == square) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Stops every animation at once, e.g. when the board is reset
+    public void clear() {
+        tweens.clear();
+    }
+
+    // Draws the active tweens and removes the ones that have finished
+    public void draw(App app, int now) {
+        // A piece that has not started its next jump yet waits at the end of the previous one, so only draw
+        // the slide in progress (or the last one) for each moving piece
+        for (int i = 0; i < tweens.size(); i++) {
+            Tween t = tweens.get(i);
+            if (now < t.start) {
+                continue;
+            }
+            float progress = Math.min(1f, (now - t.start) / (float) t.duration);
+            if (t.fade) {
+                app.tint(255, 255 * (1 - progress));
+                app.image(app.getSprites().piece(t.colour, t.king), t.fromX, t.fromY);
+                app.noTint();
+            } else if (progress < 1f || isLastSlide(i)) {
+                float eased = ease(progress);
+                app.image(app.getSprites().piece(t.colour, t.king),
+                        t.fromX + (t.toX - t.fromX) * eased, t.fromY + (t.toY - t.fromY) * eased);
+            }
+        }
+
+        // Keep finished tweens until the whole move is done, so the moving piece stays hidden on its cell
+        if (!isAnimating(now)) {
+            tweens.clear();
+        }
+    }
+
+    // Returns true if no later slide of the same piece has started yet
+    private boolean isLastSlide(int index) {
+        Tween t = tweens.get(index);
+        for (int i = index + 1; i < tweens.size(); i++) {
+            Tween next = tweens.get(i);
+            if (!next.fade && next.hiddenSquare == t.hiddenSquare) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Ease-in-out curve: slow start and finish, fastest in the middle
+    private static float ease(float t) {
+        return t < 0.5f ? 2 * t * t : 1 - (-2 * t + 2) * (-2 * t + 2) / 2;
+    }
+}
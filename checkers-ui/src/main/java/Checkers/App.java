@@ -0,0 +1,994 @@
+// General Description
+// Package: Checkers
+// Purpose: The main game application class that extends PApplet from Processing.
+// --> It sets up the game's graphical user interface, initializes the game state, and handles user input and game updates.
+// Features:
+// Static fields for defining game constants like cell size and board dimensions.
+// A Position holding the authoritative game state, and a Cell[][] view of it used only for rendering.
+// The Ruleset, chosen with --rules=english|international|canadian, sets the board size. English games are played
+// --> on Position with the whole engine; the wider boards are played on a WidePosition, between two humans.
+// Methods settings(), setup(), and draw() for initializing the window, setting up the game state, 
+// --> and drawing the game frame by frame, respectively.
+// mousePressed(MouseEvent e) to handle piece selection and moves based on user clicks.
+// Utility methods like setFill(int colourCode, int blackOrWhite) for graphical operations.
+// Each class is tailored to handle specific aspects of the game: 
+// CheckersPiece and Cell manage the game's logical state, while App integrates these components
+// -->  with Processing to manage the game's graphical interface and user interactions. Together, they form 
+// --> a cohesive structure allowing for the development of a checkers game.
+
+package Checkers;
+
+// Utilizes HashSet for storing unique elements, ensuring no duplicates. 
+// Used for managing cells and pieces where uniqueness is essential, such as tracking selected cells or pieces in play.
+import java.util.HashSet;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+
+//import org.reflections.Reflections;
+//import org.reflections.scanners.Scanners;
+
+// Importing core PApplet class from the Processing library, which is the basis for creating drawing windows and handling events.
+// Processing library imports for graphical interface and interactions
+import processing.core.PApplet;
+// Import for handling mouse events, enabling interactive components like clicking on pieces or cells.
+import processing.event.MouseEvent;
+
+public class App extends PApplet {
+
+    // Constants for game configuration, defining the visual and structural aspects of the checkers board.
+    public static final int CELLSIZE = 48; // Size of each cell on the board, affecting the overall scale of the game's visual representation.
+    public static final int SIDEBAR = 0; // Width of an unused sidebar, potentially reserved for future features like game stats or controls.
+    public static final int BOARD_WIDTH = 8; // The width and height of the English board; other rulesets use their geometry.
+    public static final int[] BLACK_RGB = {181, 136, 99}; // RGB values for the color of black cells, contributing to the board's visual design.
+    public static final int[] WHITE_RGB = {240, 217, 181}; // RGB values for the color of white cells, complementing the board's aesthetics.
+
+    // Color schemes for the board and pieces, allowing for visual customization beyond the traditional black and white.
+    // Array to hold custom color schemes for the board (white & black, green, blue)
+    public static final float[][][] coloursRGB = new float[][][] {
+            // Default scheme with white and black cells.
+            {
+                    {WHITE_RGB[0], WHITE_RGB[1], WHITE_RGB[2]},
+                    {BLACK_RGB[0], BLACK_RGB[1], BLACK_RGB[2]}
+            },
+            // Green scheme, potentially for highlighting or alternative themes.
+            {
+                    {105, 138, 76}, // Green for white cells
+                    {105, 138, 76}  // Green for black cells
+            },
+            // Blue scheme, offering another alternative visual theme.
+            {
+                    {196,224,232}, // Light blue
+                    {170,210,221}  // Slightly darker blue
+            }
+    };
+
+
+    // Static variables to determine the window size of the English board; settings() sizes the window for the ruleset
+    public static int WIDTH = CELLSIZE*BOARD_WIDTH+SIDEBAR;
+    public static int HEIGHT = BOARD_WIDTH*CELLSIZE;
+
+
+    public static final int FPS = 60 ; // Frames per second for the animation
+
+    public static final int THINK_MILLIS = 200; // Default time the computer player may spend on a move.
+    public static final int MAX_DEPTH = 40; // Depth limit of the computer player's search, in plies.
+
+    /* --------------------------------------- */
+    // DATA STORAGE
+    /* --------------------------------------- */
+
+    // Storing the game's state. The Position is the source of truth; the Cell[][] grid and its pieces are
+    // rebuilt from it by syncBoard() whenever it changes, and are only used for drawing and mouse hit-testing.
+
+    private Position position; // The game state: piece bitmasks and side to move.
+    private final UndoStack history = new UndoStack(); // Every move played so far, for undo.
+    private long[] redoMoves = new long[64]; // Moves taken back with undo, the next one to redo last.
+    private int redoCount; // Number of moves that can be redone.
+    private final GameHistory gameHistory = new GameHistory(); // Positions since the last capture or man move.
+    private char gameResult = GameRecord.UNFINISHED; // The winner's colour or GameRecord.DRAW once the game is over.
+    private Cell[][] board; // Represents the game board as a grid of cells (a view of the position).
+    private final SpriteCache sprites = new SpriteCache(); // Prerendered board, piece and cell images.
+    private CheckersPiece currentSelected; // The currently selected piece, if any.
+    private HashSet<Cell> selectedCells = new HashSet<>(); // Tracks cells highlighted for potential moves.
+    private final long[] moves = new long[MoveGenerator.MAX_MOVES]; // Legal moves of the side to move, reused between turns.
+    private int moveCount; // Number of valid entries in moves.
+    private char currentPlayer = 'w'; // Tracks the current turn, alternating between 'w' (white) and 'b' (black).
+
+    // Rules and board size, chosen with --rules=<name>. Under any ruleset but ENGLISH the game state is widePosition
+    // instead of position, and undo keeps copies of it: the computer, hints, replay and saved games are English only.
+    private Ruleset rules = Ruleset.ENGLISH;
+    private BoardGeometry geometry = Ruleset.ENGLISH.getGeometry();
+    private WidePosition widePosition; // The game state when not playing English rules, else null.
+    private WideMoveGenerator wideGenerator;
+    private final WideMoveList wideMoves = new WideMoveList(); // Legal moves of the side to move on the wide board.
+    private final ArrayList<WidePosition> wideHistory = new ArrayList<>(); // Positions before each move.
+    private final ArrayList<WidePosition> wideRedo = new ArrayList<>(); // Positions undone, next one last.
+    private int choiceTo = -1; // Square clicked that several moves of the selected piece end on, -1 if none.
+    private long choiceLo; // Wide boards: captured squares the player has picked among those moves, to tell them apart.
+    private long choiceHi;
+    private final int[] choicePath = new int[Position.SQUARES]; // English: the start of the route picked so far.
+    private int choiceLength;
+    private int choiceCommon; // English: landing squares all remaining routes share; the next click picks where they part.
+    private final int[] movePath = new int[Position.SQUARES]; // Scratch buffers for the landing squares of moves.
+    private final int[] firstPath = new int[Position.SQUARES];
+
+    ////
+    private final Animator animator = new Animator(); // Moving and fading pieces, animated by time.
+    private final FrameStats frameStats = new FrameStats(FPS); // Draw and frame time measurements.
+    private boolean showFrameStats = false; // Toggled with the 'f' key.
+    private boolean wasLooping = false; // Whether the draw loop was running when the last frame ended.
+
+    // Computer players. Either colour can be played by the computer, chosen with the --white=computer
+    // and --black=computer launch arguments; --think=<millis> sets its time per move and --eval=<file> makes it
+    // evaluate with a NeuralNetwork loaded from the file, or --weights=<file> with tuned handcrafted weights.
+    // The engine searches on its own threads: draw() hands it the position and polls for its answer, so the window
+    // keeps animating while it thinks. During a human's turn it ponders, or analyses for the hint when that is shown.
+    public static final int ENGINE_MEGABYTES = 64; // Size of the engine's transposition table.
+    private static final int THINKING = 0; // What the engine was last asked to do (engineMode)
+    private static final int ANALYSING = 1;
+    private static final int PONDERING = 2;
+    private final EngineService engine = new EngineService(ENGINE_MEGABYTES);
+    private long engineRequest = -1; // The engine's request number for the position on the board, -1 if none.
+    private long engineHash; // Hash of the position that request was made for.
+    private int engineMode;
+    private boolean whiteIsComputer = false;
+    private boolean blackIsComputer = false;
+    private int thinkMillis = THINK_MILLIS;
+    private boolean computerCanMove = true; // False once the computer found no legal move for its side.
+    private final int[] hintPath = new int[MoveGenerator.MAX_MOVES]; // Squares the hint's move lands on, reused.
+
+    // Saved games. 's' writes the game so far to GAMES_DIR, 'o' opens a saved game and replays it onto the board.
+    public static final String GAMES_DIR = "games";
+    private volatile GameRecord pendingGame; // A game read by the file dialog's thread, loaded by the next draw().
+
+    // Replay mode, for browsing a game move by move: opened games start in it, and 'r' enters it for the game so far.
+    // The arrow keys step back and forth (a keyframe at a time with shift held), home and end jump to the start and
+    // the end, and 'r' leaves it to play on from the move shown.
+    private ReplayIndex replay; // The game being replayed, or null while playing.
+    private int replayPly; // Number of moves of the replayed game shown on the board.
+    private boolean shiftDown; // Tracked with keyPressed/keyReleased for the arrow keys.
+    private static final int KEY_HOME = 36; // AWT key codes, which Processing reports for home and end as they are
+    private static final int KEY_END = 35;
+
+    // Endgame tablebase, generated with "gradle tablebase" into TABLEBASE_DIR, and opening book, built with
+    // "gradle book" into BOOK_FILE. The computer player and the hint use both.
+    public static final String TABLEBASE_DIR = "tablebase";
+    public static final String BOOK_FILE = "book.bin";
+    private Tablebase tablebase = new Tablebase();
+    private boolean showHint = false; // Toggled with the 'h' key: shows the move the computer would play.
+
+    public App() {
+
+    }
+
+    // Setup method to initialize window settings
+    @Override
+    public void settings() {
+        readRules();
+        // Set the size of the application window based on the board dimensions.
+        size(CELLSIZE * geometry.getWidth() + SIDEBAR, geometry.getWidth() * CELLSIZE);
+    }
+
+    // Read the --rules=<name> launch argument, which the window size depends on
+    private void readRules() {
+        if (args == null) {
+            return;
+        }
+        for (String arg : args) {
+            if (arg.startsWith("--rules=")) {
+                rules = Ruleset.forName(arg.substring("--rules=".length()));
+                geometry = rules.getGeometry();
+            }
+        }
+    }
+
+    // Returns true if the game is played on the wide board rather than on Position
+    private boolean isWide() {
+        return widePosition != null;
+    }
+
+    // Initial setup for the game, executed once at the beginning
+    @Override
+    public void setup() {
+        frameRate(FPS); // Set the frame rate used while a piece is moving
+        noLoop(); // Nothing moves yet: only draw when something changes
+        readArguments();
+        try {
+            tablebase = Tablebase.open(Paths.get(TABLEBASE_DIR));
+            engine.setTablebase(tablebase);
+            engine.setOpeningBook(OpeningBook.open(Paths.get(BOOK_FILE)));
+        } catch (IOException e) {
+            System.err.println("Could not open the endgame tablebase or the opening book: " + e.getMessage());
+        }
+
+        //Set up the data structures used for storing data in the game
+        this.position = Position.start();
+        gameHistory.reset(position);
+        if (rules != Ruleset.ENGLISH) {
+            this.widePosition = WidePosition.start(rules);
+            this.wideGenerator = new WideMoveGenerator(rules);
+            whiteIsComputer = blackIsComputer = false;
+        }
+        this.currentPlayer = sideToMove();
+        this.board = new Cell[geometry.getWidth()][geometry.getWidth()];
+        for (int i = 0; i < board.length; i++) {
+            for (int i2 = 0; i2 < board[i].length; i2++) {
+                board[i][i2] = new Cell(i2,i);
+            }
+        }
+
+        // Populate the board with pieces in initial positions
+        syncBoard();
+    }
+
+    // Read the launch arguments choosing who plays each colour
+    private void readArguments() {
+        if (args == null) {
+            return;
+        }
+        for (String arg : args) {
+            if (arg.equals("--white=computer")) {
+                whiteIsComputer = true;
+            } else if (arg.equals("--black=computer")) {
+                blackIsComputer = true;
+            } else if (arg.startsWith("--think=")) {
+                thinkMillis = Integer.parseInt(arg.substring("--think=".length()));
+            } else if (arg.startsWith("--eval=")) {
+                try {
+                    engine.setNetwork(NeuralNetwork.load(Paths.get(arg.substring("--eval=".length()))));
+                } catch (IOException e) {
+                    System.err.println("Could not load the evaluation network: " + e.getMessage());
+                }
+            } else if (arg.startsWith("--weights=")) {
+                try {
+                    engine.setWeights(Evaluation.loadWeights(Paths.get(arg.substring("--weights=".length()))));
+                } catch (IOException e) {
+                    System.err.println("Could not load the evaluation weights: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Rebuild the Cell/CheckersPiece view from the position, after any change to it
+    private void syncBoard() {
+        for (int i = 0; i < board.length; i++) {
+            for (int i2 = 0; i2 < board[i].length; i2++) {
+                int square = geometry.square(i2, i);
+                char colour = square < 0 ? Position.EMPTY
+                        : isWide() ? widePosition.colourAt(square) : position.colourAt(square);
+                if (colour == Position.EMPTY) {
+                    board[i][i2].setPiece(null);
+                    continue;
+                }
+                CheckersPiece piece = new CheckersPiece(colour);
+                if (isWide() ? widePosition.isKing(square) : position.isKing(square)) {
+                    if (colour == 'w') {
+                        piece.makeWhiteKing();
+                    } else {
+                        piece.makeBlackKing();
+                    }
+                }
+                board[i][i2].setPiece(piece);
+            }
+        }
+        updateResult();
+    }
+
+    // Decide whether the game is over: the side to move has lost if it cannot move, and under English rules the
+    // game is drawn by threefold repetition or after GameHistory.DEFAULT_QUIET_PLIES plies without progress
+    private void updateResult() {
+        if (isWide()) {
+            wideGenerator.generate(widePosition, wideMoves);
+            gameResult = wideMoves.size() == 0 ? Position.opponent(widePosition.getSideToMove())
+                    : GameRecord.UNFINISHED;
+        } else {
+            gameResult = gameHistory.result(position);
+        }
+    }
+
+    // Rebuild the draw history by playing the game from the start, after undo, redo or leaving a replay
+    private void replayGameHistory() {
+        Position p = Position.start();
+        gameHistory.reset(p);
+        for (int i = 0; i < history.size(); i++) {
+            gameHistory.play(p, history.moveAt(i));
+        }
+    }
+
+    /**
+     * Receive key pressed signal from the keyboard.
+     */
+    @Override
+    public void keyPressed(){
+        if (key == CODED) {
+            if (keyCode == SHIFT) {
+                shiftDown = true;
+            } else if (replay != null) {
+                int step = shiftDown ? ReplayIndex.INTERVAL : 1;
+                if (keyCode == LEFT) {
+                    showReplayPly(replayPly - step);
+                } else if (keyCode == RIGHT) {
+                    showReplayPly(replayPly + step);
+                } else if (keyCode == KEY_HOME) {
+                    showReplayPly(0);
+                } else if (keyCode == KEY_END) {
+                    showReplayPly(replay.plies());
+                }
+            }
+        } else if (isWide() && "rhso".indexOf(key) >= 0) {
+            System.out.println("Replay, hints and saved games are only available under English rules");
+        } else if (key == 'r') {
+            if (replay == null) {
+                startReplay(currentGame());
+            } else {
+                resumeFromReplay();
+            }
+        } else if (key == 'f') {
+            // Show or hide the frame timing strip
+            showFrameStats = !showFrameStats;
+            redraw();
+        } else if (key == 'p') {
+            // Print the frame timings to the console, and the metrics if they are being recorded
+            System.out.println(frameStats.summary());
+            if (Metrics.isEnabled()) {
+                System.out.println(Metrics.summary());
+            }
+        } else if (key == 'm') {
+            // Start or stop recording metrics of move generation, search and drawing
+            Metrics.setEnabled(!Metrics.isEnabled());
+            System.out.println("Metrics " + (Metrics.isEnabled() ? "on" : "off"));
+        } else if (key == 'z' && replay == null) {
+            undo();
+        } else if (key == 'y' && replay == null) {
+            redo();
+        } else if (key == 'h') {
+            // Show or hide the suggested move
+            showHint = !showHint;
+            redraw();
+        } else if (key == 's') {
+            saveGame();
+        } else if (key == 'o') {
+            selectInput("Open a saved game (.pdn or .ckg)", "gameFileSelected");
+        }
+    }
+
+    // Returns the game played so far as a record, with its result if it is over
+    public GameRecord currentGame() {
+        if (replay != null) {
+            return replay.getGame();
+        }
+        return GameRecord.fromHistory(history, gameResult);
+    }
+
+    // Write the game so far to GAMES_DIR, both as PDN text and in the compact binary format
+    private void saveGame() {
+        String name = "game-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        try {
+            Path dir = Files.createDirectories(Paths.get(GAMES_DIR));
+            GameRecord game = currentGame();
+            game.save(dir.resolve(name + ".pdn"));
+            game.save(dir.resolve(name + ".ckg"));
+            System.out.println("Saved " + dir.resolve(name + ".pdn"));
+        } catch (IOException e) {
+            System.err.println("Could not save the game: " + e.getMessage());
+        }
+    }
+
+    // Called by selectInput() on its own thread once a file was chosen (null if the dialog was cancelled)
+    public void gameFileSelected(File file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            pendingGame = GameRecord.load(file.toPath());
+            redraw();
+        } catch (IOException e) {
+            System.err.println("Could not open " + file + ": " + e.getMessage());
+        }
+    }
+
+    // Show an opened game in replay mode, at its final position
+    public void loadGame(GameRecord game) {
+        startReplay(game);
+    }
+
+    // Enter replay mode for a game, showing its final position
+    private void startReplay(GameRecord game) {
+        engine.cancel();
+        engineRequest = -1;
+        replay = new ReplayIndex(game);
+        replayPly = game.size();
+        showReplayPly(game.size());
+    }
+
+    // Show the position after the given number of moves of the replayed game. Stepping forward one move animates it.
+    private void showReplayPly(int ply) {
+        animator.clear();
+        if (ply == replayPly + 1 && ply <= replay.plies()) {
+            animateMove(replay.getMove(replayPly));
+        }
+        replayPly = replay.seek(ply, position);
+        // Browsing needs no repetition detection, only the no-move loss, so the history starts at the position
+        // shown and a seek stays within one keyframe interval; resumeFromReplay() rebuilds it in full
+        gameHistory.reset(position);
+        syncBoard();
+        switchTurn();
+        redraw();
+    }
+
+    // Leave replay mode and play on from the move shown; the moves up to it can be taken back with undo
+    private void resumeFromReplay() {
+        position = Position.start();
+        history.clear();
+        redoCount = 0;
+        for (int i = 0; i < replayPly; i++) {
+            position.makeMove(replay.getMove(i), history);
+        }
+        replay = null;
+        afterHistoryChange();
+    }
+
+    // Take back the last move. Against the computer, also take back its reply so it is the human's turn again.
+    private void undo() {
+        if (isWide()) {
+            if (!wideHistory.isEmpty()) {
+                wideRedo.add(widePosition);
+                widePosition = wideHistory.remove(wideHistory.size() - 1);
+                afterHistoryChange();
+            }
+            return;
+        }
+        if (history.isEmpty()) {
+            return;
+        }
+        do {
+            if (redoCount == redoMoves.length) {
+                redoMoves = Arrays.copyOf(redoMoves, redoCount * 2);
+            }
+            redoMoves[redoCount++] = history.moveAt(history.size() - 1);
+            position.unmakeMove(history);
+        } while (!history.isEmpty() && isComputer(position.getSideToMove()) && !isComputer(Position.opponent(position.getSideToMove())));
+        afterHistoryChange();
+    }
+
+    // Play again the last move taken back, and the computer's reply with it if there is one to redo
+    private void redo() {
+        if (isWide()) {
+            if (!wideRedo.isEmpty()) {
+                wideHistory.add(widePosition);
+                widePosition = wideRedo.remove(wideRedo.size() - 1);
+                afterHistoryChange();
+            }
+            return;
+        }
+        if (redoCount == 0) {
+            return;
+        }
+        do {
+            position.makeMove(redoMoves[--redoCount], history);
+        } while (redoCount > 0 && isComputer(position.getSideToMove()) && !isComputer(Position.opponent(position.getSideToMove())));
+        afterHistoryChange();
+    }
+
+    // Bring the view back in line with the position after an undo or redo
+    private void afterHistoryChange() {
+        animator.clear();
+        computerCanMove = true;
+        engineRequest = -1;
+        replayGameHistory();
+        syncBoard();
+        switchTurn();
+        redraw();
+    }
+
+    /**
+     * Receive key released signal from the keyboard.
+     */
+    @Override
+    public void keyReleased(){
+        if (key == CODED && keyCode == SHIFT) {
+            shiftDown = false;
+        }
+    }
+
+    @Override
+    public void mousePressed(MouseEvent e) {
+        //Check if the user clicked on a piece which is theirs - make sure only whoever's current turn it is, can click on pieces
+        if (isComputerTurn()) return; // the computer is playing this colour
+        if (replay != null) return; // the board only shows the game being replayed
+        if (gameResult != GameRecord.UNFINISHED) return; // the game is over
+
+        int x = e.getX();
+        int y = e.getY();
+        if (x < 0 || x >= width || y < 0 || y >= height) return;
+
+        Cell clicked = board[y/App.CELLSIZE][x/App.CELLSIZE];
+        if (clicked.getPiece() != null && clicked.getPiece().getColour() == currentPlayer) {
+
+            // If other pieces were previously selected, clear the possible move positions of the previous pieces
+
+            if (currentSelected != null) {
+                selectedCells.clear();
+            }
+
+            // Deselect if the piece clicked is already the currently selected piece
+            if (clicked.getPiece() == currentSelected) {
+                currentSelected = null;
+            } else {
+                // Otherwise, select the piece to click and find out all the possible move positions
+                currentSelected = clicked.getPiece();
+                // Gets and highlights all possible move locations
+                selectedCells = getAvailableMoves(currentSelected);
+            }
+            redraw();
+        }
+
+        int mouseX = e.getX();
+        int mouseY = e.getY();
+        int cellX = mouseX / CELLSIZE;
+        int cellY = mouseY / CELLSIZE;
+
+        // check if the click is within the board bounds
+        if (cellX < 0 || cellX >= board.length || cellY < 0 || cellY >= board.length) {
+            return;
+        }
+        if (isWide()) {
+            if (currentSelected != null && selectedCells.contains(board[cellY][cellX])) {
+                if (moveWidePiece(currentSelected.getPosition(), board[cellY][cellX])) {
+                    switchTurn();
+                }
+                redraw();
+            }
+            return;
+        }
+//
+        // get the clicked cell
+        Cell clickedCell = board[cellY][cellX];
+
+        // check if the clicked cell is one of the available move positions
+        if (currentSelected != null && selectedCells.contains(clickedCell)) {
+            long move = findMove(currentSelected.getPosition(), clickedCell);
+            if (move == Move.NONE) {
+                redraw(); // several routes end there: the squares to pick one by are highlighted
+                return;
+            }
+
+            // Do any animations or special effects for the move
+            animateMove(move);
+
+            // move the piece to the new position, removing any captured pieces
+            movePiece(move);
+
+            // delete the old position of the piece
+            currentSelected = null;
+            selectedCells.clear();
+
+            // change player
+            switchTurn();
+
+            redraw();
+        }
+
+    }
+
+    // Returns true if the side to move is played by the computer
+    private boolean isComputerTurn() {
+        return replay == null && gameResult == GameRecord.UNFINISHED && isComputer(currentPlayer);
+    }
+
+    // Returns true if the given colour is played by the computer
+    private boolean isComputer(char colour) {
+        return colour == 'w' ? whiteIsComputer : blackIsComputer;
+    }
+
+    // Give the engine its work for the position on the board: thinking on the computer's turn, analysing for the
+    // hint or pondering on a human's turn. Once the computer's move is found and the last move has finished
+    // animating, play it. Called every frame, it only polls, so it never holds up drawing.
+    private void updateEngine(int now) {
+        if (replay != null || isWide()) {
+            return;
+        }
+        if (gameResult != GameRecord.UNFINISHED) {
+            if (engineRequest >= 0) {
+                engine.cancel(); // the game is over: nothing to think, analyse or ponder
+                engineRequest = -1;
+            }
+            return;
+        }
+        int mode = isComputerTurn() ? THINKING : showHint ? ANALYSING : PONDERING;
+        if (mode == PONDERING && !whiteIsComputer && !blackIsComputer) {
+            if (engineRequest >= 0) {
+                engine.cancel(); // two humans: nothing to ponder for
+                engineRequest = -1;
+            }
+            return;
+        }
+        if (engineRequest < 0 || engineHash != position.getHash() || engineMode != mode) {
+            engineHash = position.getHash();
+            engineMode = mode;
+            if (mode == THINKING) {
+                engineRequest = computerCanMove ? engine.think(position, gameHistory, MAX_DEPTH, thinkMillis) : -1;
+            } else if (mode == ANALYSING) {
+                engineRequest = engine.analyse(position, gameHistory);
+            } else {
+                engineRequest = engine.ponder(position, gameHistory);
+            }
+        }
+        if (mode != THINKING || animator.isAnimating(now)) {
+            return;
+        }
+        EngineResult result = engine.poll();
+        if (result != null && result.getRequest() == engineRequest && result.isFinished()) {
+            engineRequest = -1;
+            if (result.getMove() == Move.NONE) {
+                computerCanMove = false; // no legal move left
+                return;
+            }
+            animateMove(result.getMove());
+            movePiece(result.getMove());
+            switchTurn();
+        }
+    }
+
+    // piece moving animation: slide along every jump of the move and fade out the captured pieces.
+    // Must be called before the move is played, while the position still shows the pieces involved.
+    private void animateMove(long move) {
+        animator.animateMove(position, move, millis());
+        loop(); // run the draw loop until the pieces arrive
+    }
+
+    // Gets the cells the given piece can move to, from the legal moves of the side to move
+    private HashSet<Cell> getAvailableMoves(CheckersPiece piece) {
+        HashSet<Cell> cells = new HashSet<>();
+        choiceTo = -1;
+        int from = geometry.square(piece.getPosition().getX(), piece.getPosition().getY());
+        if (isWide()) {
+            wideGenerator.generate(widePosition, wideMoves);
+            for (int i = 0; i < wideMoves.size(); i++) {
+                if (wideMoves.getFrom(i) == from) {
+                    int to = wideMoves.getTo(i);
+                    cells.add(board[geometry.squareY(to)][geometry.squareX(to)]);
+                }
+            }
+            return cells;
+        }
+        moveCount = MoveGenerator.generate(position, moves);
+        for (int i = 0; i < moveCount; i++) {
+            if (Move.from(moves[i]) == from) {
+                int to = Move.to(moves[i]);
+                cells.add(board[Position.squareY(to)][Position.squareX(to)]);
+            }
+        }
+        return cells;
+    }
+
+    // Finds the move the player means by clicking a cell, matching the whole route clicked. A king can end on the
+    // same square by different routes, taking different pieces: then the clicked cell becomes the choice's
+    // destination, the landing squares where the routes part are highlighted, and Move.NONE is returned. Each of
+    // them the player clicks keeps the routes through it, until one is left and returned.
+    private long findMove(Cell from, Cell clicked) {
+        int fromSquare = Position.square(from.getX(), from.getY());
+        int square = Position.square(clicked.getX(), clicked.getY());
+        if (choiceTo < 0) {
+            choiceTo = square;
+            choiceLength = 0;
+        } else {
+            // Extend the route picked so far up to the clicked square, where some routes part from the others
+            for (int i = 0; i < moveCount; i++) {
+                if (route(moves[i], fromSquare) > choiceCommon && movePath[choiceCommon] == square) {
+                    System.arraycopy(movePath, 0, choicePath, 0, choiceCommon + 1);
+                    choiceLength = choiceCommon + 1;
+                    break;
+                }
+            }
+        }
+        long found = Move.NONE;
+        int count = 0;
+        int common = 0;
+        for (int i = 0; i < moveCount; i++) {
+            int length = route(moves[i], fromSquare);
+            if (length < 0) {
+                continue;
+            }
+            if (count == 0) {
+                found = moves[i];
+                System.arraycopy(movePath, 0, firstPath, 0, length);
+                common = length;
+            } else {
+                int shared = 0;
+                while (shared < common && shared < length && movePath[shared] == firstPath[shared]) {
+                    shared++;
+                }
+                common = shared;
+            }
+            count++;
+        }
+        if (count == 0) {
+            throw new IllegalStateException("No move from " + fromSquare + " to " + choiceTo);
+        }
+        if (count == 1) {
+            choiceTo = -1;
+            return found;
+        }
+        // A capture goes on while it can, so no route is the start of another: each goes on past the shared part
+        choiceCommon = common;
+        selectedCells.clear();
+        for (int i = 0; i < moveCount; i++) {
+            if (route(moves[i], fromSquare) > common) {
+                selectedCells.add(board[Position.squareY(movePath[common])][Position.squareX(movePath[common])]);
+            }
+        }
+        return Move.NONE;
+    }
+
+    // Writes the landing squares of a move into movePath and returns their number, if the move is one of the
+    // choices: from the given square to choiceTo, along the route picked so far. Returns -1 if it is not
+    private int route(long move, int from) {
+        if (Move.from(move) != from || Move.to(move) != choiceTo) {
+            return -1;
+        }
+        int length = MoveGenerator.path(position, move, movePath);
+        if (length < choiceLength) {
+            return -1;
+        }
+        for (int i = 0; i < choiceLength; i++) {
+            if (movePath[i] != choicePath[i]) {
+                return -1;
+            }
+        }
+        return length;
+    }
+
+    private void movePiece(long move) {
+        // Play the move on the position: this removes captured pieces and crowns a man reaching the opposite end.
+        // The undo record goes on the history so the move can be taken back, and the new position on the draw history.
+        boolean irreversible = GameHistory.isIrreversible(position, move);
+        position.makeMove(move, history);
+        gameHistory.push(position.getHash(), irreversible);
+        redoCount = 0; // a new move abandons the moves that were undone
+
+        // refresh the cells and pieces drawn on screen
+        syncBoard();
+    }
+    // Plays the wide-board move the player clicked, keeping the position before it for undo, and returns true.
+    // Several moves may end on the clicked cell, taking different pieces: then the cell becomes the choice's
+    // destination, the pieces that tell the moves apart are highlighted, and false is returned. Each of them the
+    // player clicks narrows the moves down to those taking it, until one is left and played.
+    private boolean moveWidePiece(Cell from, Cell clicked) {
+        int fromSquare = geometry.square(from.getX(), from.getY());
+        int square = geometry.square(clicked.getX(), clicked.getY());
+        if (choiceTo < 0) {
+            choiceTo = square;
+            choiceLo = 0;
+            choiceHi = 0;
+        } else if (square < 64) {
+            choiceLo |= 1L << square;
+        } else {
+            choiceHi |= 1L << (square - 64);
+        }
+        int found = -1;
+        int count = 0;
+        long allLo = -1;
+        long allHi = -1;
+        long anyLo = 0;
+        long anyHi = 0;
+        for (int i = 0; i < wideMoves.size(); i++) {
+            long lo = wideMoves.getCapturedLo(i);
+            long hi = wideMoves.getCapturedHi(i);
+            if (wideMoves.getFrom(i) == fromSquare && wideMoves.getTo(i) == choiceTo
+                    && (lo & choiceLo) == choiceLo && (hi & choiceHi) == choiceHi) {
+                found = i;
+                count++;
+                allLo &= lo;
+                allHi &= hi;
+                anyLo |= lo;
+                anyHi |= hi;
+            }
+        }
+        if (count == 0) {
+            throw new IllegalStateException("No move from " + fromSquare + " to " + choiceTo);
+        }
+        if (count > 1) {
+            // Highlight the pieces some of the moves take and others do not
+            selectedCells.clear();
+            for (int s = 0; s < geometry.getSquares(); s++) {
+                boolean some = s < 64 ? (anyLo & ~allLo & 1L << s) != 0 : (anyHi & ~allHi & 1L << (s - 64)) != 0;
+                if (some) {
+                    selectedCells.add(board[geometry.squareY(s)][geometry.squareX(s)]);
+                }
+            }
+            return false;
+        }
+        wideHistory.add(widePosition.copy());
+        wideRedo.clear();
+        widePosition.apply(fromSquare, choiceTo, wideMoves.getCapturedLo(found), wideMoves.getCapturedHi(found));
+        choiceTo = -1;
+        syncBoard();
+        return true;
+    }
+
+    // Returns the side to move of whichever position is being played
+    private char sideToMove() {
+        return isWide() ? widePosition.getSideToMove() : position.getSideToMove();
+    }
+
+    private void switchTurn() {
+
+        // the position already passed the turn when the move was applied
+        currentPlayer = sideToMove();
+
+        currentSelected = null;
+
+        selectedCells.clear();
+        choiceTo = -1;
+    }
+
+
+
+    @Override
+    public void mouseDragged(MouseEvent e) {
+
+    }
+
+    /**
+     * Draw all elements in the game by current frame. 
+     */
+    public void draw() {
+        frameStats.beginFrame(wasLooping);
+        int now = millis();
+
+        // Load a game opened from the file dialog
+        GameRecord opened = pendingGame;
+        if (opened != null) {
+            pendingGame = null;
+            loadGame(opened);
+        }
+
+        // Keep the engine busy with the position on the board, and play the computer's move once it is found
+        updateEngine(now);
+
+        sprites.validate(this, geometry); // Rebuild the cached sprites if the cell size, board or colours changed.
+        this.noStroke(); // Disable drawing outlines to prepare for drawing filled shapes.
+        image(sprites.board(), 0, 0); // Draw the empty board in one go.
+
+        // Draw the pieces, each piece once.
+        for (int i = 0; i < board.length; i++) {
+            for (int i2 = 0; i2 < board[i].length; i2++) {
+                if (currentSelected != null && board[i][i2].getPiece() == currentSelected) {
+                    // Highlight the selected cell if it contains the current selected piece.
+                    image(sprites.selectedTile(), i2*App.CELLSIZE, i*App.CELLSIZE);
+                }
+                // The moving piece is drawn separately, on its way to this cell
+                if (!animator.hides(geometry.square(i2, i))) {
+                    board[i][i2].draw(this); // Draw the piece in the cell, if any, as a king if it is one.
+                }
+            }
+        }
+
+        if (currentSelected != null) {
+            // Highlight the selected piece's available moves.
+            for (Cell cell : selectedCells) {
+                highlightCell(cell.getX(), cell.getY()); // Highlight the cell in blue.
+                cell.draw(this); // A piece to pick among those a move takes stays visible on it
+            }
+        }
+        //
+
+        // Draw the moving and fading pieces, if any
+        animator.draw(this, now);
+
+        if (showHint && !isWide() && !animator.isAnimating(now)) {
+            drawHint();
+        }
+
+
+        // Check for the end of the game: a side that cannot move has lost, and repetitions and long shuffles are drawn.
+        if (gameResult != GameRecord.UNFINISHED) {
+            // Display the winner.
+            fill(255);
+            stroke(0);
+            strokeWeight(4.0f);
+            rect(width*0.2f-5, height*0.4f-25, 150, 40); // Draw a rectangle for the text background.
+            fill(200,0,200);
+            textSize(24.0f); // Set text size
+            if (gameResult == 'b') {
+                text("Black wins!", width*0.2f, height*0.4f);
+            } else if (gameResult == 'w') {
+                text("White wins!", width*0.2f, height*0.4f);
+            } else {
+                text("Draw!", width*0.2f, height*0.4f);
+            }
+        }
+
+        if (replay != null) {
+            // Show which move of the replayed game is on the board
+            fill(0, 160);
+            rect(0, height - 16, width, 16);
+            fill(255);
+            textSize(10.0f);
+            text("Replay: move " + replayPly + " of " + replay.plies() + "   (arrows, shift, home, end; r to play on)",
+                    4, height - 4);
+        }
+
+        if (showFrameStats) {
+            frameStats.draw(this);
+        }
+        updateLooping(now);
+        frameStats.endFrame();
+    }
+
+    // Keep the draw loop running only while a piece is moving, the computer still has a move to play or the hint
+    // is being deepened. Otherwise the board is static and is only redrawn when the user clicks.
+    private void updateLooping(int now) {
+        wasLooping = animator.isAnimating(now) || (isComputerTurn() && computerCanMove)
+                || (showHint && engine.isBusy());
+        if (wasLooping) {
+            loop();
+        } else {
+            noLoop();
+        }
+    }
+
+    // Returns the move suggested for the side to move: the engine's latest best move for the position on the board
+    // (the book or tablebase move if it is in one of them), deepening while the hint is shown; Move.NONE until it has one
+    private long hint() {
+        EngineResult result = engine.poll();
+        if (result == null || result.getHash() != position.getHash()) {
+            return Move.NONE;
+        }
+        return result.getMove();
+    }
+
+    // Draw the suggested move as a line along its path, from the centre of one cell to the next
+    private void drawHint() {
+        long move = hint();
+        if (move == Move.NONE) {
+            return;
+        }
+        int[] path = hintPath;
+        int length = MoveGenerator.path(position, move, path);
+        int at = Move.from(move);
+        stroke(255, 215, 0, 220);
+        strokeWeight(4.0f);
+        for (int i = 0; i < length; i++) {
+            line(Position.squareX(at) * CELLSIZE + CELLSIZE / 2f, Position.squareY(at) * CELLSIZE + CELLSIZE / 2f,
+                    Position.squareX(path[i]) * CELLSIZE + CELLSIZE / 2f, Position.squareY(path[i]) * CELLSIZE + CELLSIZE / 2f);
+            at = path[i];
+        }
+        noStroke();
+    }
+
+    private void highlightCell(int x, int y) {
+        image(sprites.highlightTile(), x * CELLSIZE, y * CELLSIZE); // draw the blue tile
+    }
+
+    // Returns the cached sprites used to draw the board and pieces
+    public SpriteCache getSprites() {
+        return sprites;
+    }
+
+    /**
+     * Set fill colour for cell background
+     * @param colourCode The colour to set
+     * @param blackOrWhite Depending on if 0 (white) or 1 (black) then the cell may have different shades
+     */
+    public void setFill(int colourCode, int blackOrWhite) {
+        // Set the fill color for drawing cells, allowing for different themes or highlights.
+        this.fill(coloursRGB[colourCode][blackOrWhite][0], coloursRGB[colourCode][blackOrWhite][1], coloursRGB[colourCode][blackOrWhite][2]);
+    }
+
+
+
+    public static void main(String[] args) {
+        PApplet.main("Checkers.App", args); // Launch the Processing application, passing on the player options.
+    }
+
+
+}
\ No newline at end of file
@@ -1,10 +1,11 @@
 // General Description
 // Package: Checkers
 // Purpose: Represents a single cell on the checkers board. It keeps track of its coordinates (x,y) and whether it currently holds a piece.
+// Cells are a rendering view only: the game state lives in Position, and App refills the cells from it after every change.
 // Methods:
 // Constructor to initialize the cell's coordinates.
 // getX(), getY(), setPiece(CheckersPiece p), and getPiece() for managing the cell's coordinates and the piece it contains.
-// draw(App app) to draw the piece within this cell using the piece's draw method if it contains a piece.
+// draw(App app) to draw the piece within this cell using the piece's draw or drawKing method if it contains a piece.
 
 package Checkers;
 
@@ -53,9 +54,13 @@ public class Cell {
     }
 
     // Draws the piece on the board using the Processing library, if there is a piece in this cell
-    // This method delegates the drawing to the piece's own draw method, providing it with the necessary App instance
+    // This method delegates the drawing to the piece's own draw or drawKing method, providing it with the necessary App instance
     public void draw(App app) {
-        if (this.piece != null)
+        if (this.piece == null)
+            return;
+        if (this.piece.isWhiteKing() || this.piece.isBlackKing())
+            this.piece.drawKing(app);
+        else
             this.piece.draw(app);
     }
 }
\ No newline at end of file
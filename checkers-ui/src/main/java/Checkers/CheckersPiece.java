@@ -0,0 +1,154 @@
+// General Description
+// Package: Checkers
+// Purpose: Represents a single piece in the checkers game, holding information about the piece's color ('w' for white, 'b' for black) and its position on the board.
+// Pieces are a rendering view only: they are created from the Position held by App, which is the real game state.
+// Methods:
+// Constructors to set the piece's color.
+// getColour() and setPosition(Cell p) for accessing and updating the piece's color and position.
+// getPosition() for retrieving the current position.
+// Available moves are generated by MoveGenerator from the Position, not by the piece itself.
+// capture() and promote() methods (not fully implemented) for handling captures and promotions of pieces.
+// draw(App app) and drawKing(App app) for drawing the piece on the board from its cached sprite.
+// render() and renderKing() for drawing a piece into an offscreen buffer when the sprites are built.
+
+package Checkers;
+
+import processing.core.PGraphics;
+
+public class CheckersPiece {
+
+    // The color of the checkers piece ('w' for white, 'b' for black)
+    private char colour;
+
+    // The current position of the piece on the board
+    private Cell position;
+
+    // Constructor: Initializes a new piece with a given color
+    public CheckersPiece(char c) {
+        this.colour = c;
+    }
+
+    // Returns the color of the piece
+    public char getColour() {
+        return this.colour;
+    }
+
+    // Sets the position of the piece to a given cell
+    public void setPosition(Cell p) {
+        this.position = p;
+    }
+
+    // Returns the current position of the piece
+    public Cell getPosition() {
+        return this.position;
+    }
+
+    // In the CheckersPiece class, add a boolean attribute to determine if it is a king
+//    private boolean isKing = false;
+
+    private boolean isBlackKing = false;
+    private boolean isWhiteKing = false;
+
+    // Method to set the piece as a king
+//    public void makeKing() {
+//        this.isKing = true;
+//        // Additional logic to change the piece's appearance to indicate it's a king can go here
+
+    public void makeBlackKing() {
+        this.isBlackKing = true;
+    }
+    public void makeWhiteKing() {
+        this.isWhiteKing = true;
+    }
+    // Getter method to check if the piece is a king
+    public boolean isBlackKing() {
+        return isBlackKing;
+    }
+    public boolean isWhiteKing() {
+        return isWhiteKing;
+    }
+
+
+    public void capture() {
+        //capture this piece
+    }
+
+    public void promote() {
+        //promote this piece
+    }
+
+    // Draws the piece on the board using the Processing library.
+    // The piece is drawn from a sprite cached by the App (see SpriteCache), so drawing it is a single image blit.
+    public void draw(App app)
+    {
+        app.image(app.getSprites().piece(colour, false), position.getX()*App.CELLSIZE, position.getY()*App.CELLSIZE);
+    }
+
+
+    // Draws the piece as a king, also from its cached sprite
+    public void drawKing(App app) {
+        app.image(app.getSprites().piece(colour, true), position.getX()*App.CELLSIZE, position.getY()*App.CELLSIZE);
+    }
+
+    // Renders a man of the given colour centred on (x,y). Used by SpriteCache to build the piece sprites.
+    public static void render(PGraphics g, char colour, float x, float y)
+    {
+        // Set the stroke weight for the outline of the piece
+        g.strokeWeight(5.0f);
+
+        if (colour == 'w') {
+            // White piece
+            g.fill(255); // white fill
+            g.stroke(0); // black stroke
+        } else if (colour == 'b') {
+            // Black piece
+            g.fill(0); // black fill
+            g.stroke(255);// white stroke
+        }
+
+        // Draw the piece as an ellipse (circle) at the given centre, sized relative to the cell size
+        // The method elipse takes 4 parameters
+        // Syntax:  ellipse(a, b, c, d)
+        // Parameters
+        // a	(float)	x-coordinate of the ellipse
+        // b	(float)	y-coordinate of the ellipse
+        // c	(float)	width of the ellipse by default
+        // d	(float)	height of the ellipse by default
+        g.ellipse(x, y, App.CELLSIZE*0.8f, App.CELLSIZE*0.8f);
+        // Disable the stroke for subsequent drawings
+        g.noStroke();
+    }
+
+
+    // Renders a king of the given colour centred on (x,y): the man with a crown and a ring on top
+    public static void renderKing(PGraphics g, char colour, float x, float y) {
+        // Draw the base piece as before
+        render(g, colour, x, y);
+
+        // Customize this section to draw your king's design
+        if (colour == 'w') {
+            // Draw the white king's specific design (an example for a circle with a stroke)
+            g.fill(255); // White color
+            g.stroke(0); // Black stroke
+            g.strokeWeight(5); // Stroke weight
+            g.ellipse(x, y, App.CELLSIZE * 0.3f, App.CELLSIZE * 0.3f); // Smaller ellipse for crown
+        } else if (colour == 'b') {
+            // Draw the black king's specific design (an example for a circle with a stroke)
+            g.fill(0); // Black color
+            g.stroke(255); // White stroke
+            g.strokeWeight(5); // Stroke weight
+            g.ellipse(x, y, App.CELLSIZE * 0.3f, App.CELLSIZE * 0.3f); // Smaller ellipse for crown
+        }
+        // After drawing the base piece and the king's crown, draw the ring around the king
+        g.noFill(); // No fill for the ring
+        g.strokeWeight(1); // Stroke weight for the ring
+        if (colour == 'w') {
+            g.stroke(0); // Black ring for the white king
+        } else if (colour == 'b') {
+            g.stroke(255); // White ring for the black king
+        }
+        g.ellipse(x, y, App.CELLSIZE * 0.7f, App.CELLSIZE * 0.7f); // Outer ring
+    }
+
+
+}
@@ -0,0 +1,23 @@
+// General Description
+// Package: Checkers
+// Purpose: JDK Flight Recorder event for one frame of the window, from the start of draw() to its end.
+// Committed by FrameStats for every frame while a recording has it enabled, so a recording shows the slow frames
+// --> next to the garbage collections, searches (SearchEvent) and other JVM events around them.
+
+package Checkers;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("checkers.Frame")
+@Label("Checkers Frame")
+@Category("Checkers")
+@Description("One frame drawn by the game window")
+public class FrameEvent extends Event {
+
+    @Label("Dropped")
+    boolean dropped;
+}
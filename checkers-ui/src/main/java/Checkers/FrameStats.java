@@ -0,0 +1,107 @@
+// General Description
+// Package: Checkers
+// Purpose: Records per-frame timings of the draw loop, to tell whether jank comes from drawing or from the machine.
+// For each frame it keeps the time spent in draw() and the time since the previous frame, in ring buffers
+// --> holding the most recent frames. A frame counts as dropped if it arrived more than 1.5 frame periods after
+// --> the one before. Frames drawn after the loop was idle (see App.updateLooping) are not compared with the
+// --> frame before them, since the gap was intended.
+// Each frame's draw time also goes to Metrics.FRAME_TIME while metrics are on, and to a FrameEvent while a Flight
+// --> Recorder recording has that event enabled.
+// Methods:
+// beginFrame(boolean continuous) and endFrame() around each draw(); summary() to format the figures;
+// draw(App app) to show them on screen.
+
+package Checkers;
+
+import java.util.Arrays;
+
+public class FrameStats {
+
+    public static final int HISTORY = 600; // Number of recent frames kept, ten seconds at 60 FPS
+
+    private final float targetMillis; // Expected time between frames
+    private final float[] drawMillis = new float[HISTORY]; // Time spent inside draw()
+    private final float[] frameMillis = new float[HISTORY]; // Time since the previous frame
+    private final float[] sorted = new float[HISTORY]; // Scratch space for percentiles
+    private int drawCount; // Number of draw times recorded, up to HISTORY
+    private int frameCount; // Number of frame intervals recorded, up to HISTORY
+    private int nextDraw; // Ring buffer positions
+    private int nextFrame;
+    private long droppedFrames;
+    private long frameStart; // System.nanoTime() at the start of the current frame
+    private long previousStart; // System.nanoTime() at the start of the previous frame, or 0
+    private FrameEvent event; // The current frame's Flight Recorder event, or null if none is being recorded
+    private boolean dropped; // Whether the current frame came late
+
+    // Constructor: Creates a recorder for a draw loop running at the given frame rate
+    public FrameStats(int fps) {
+        this.targetMillis = 1000f / fps;
+    }
+
+    /**
+     * Call at the start of draw().
+     * @param continuous True if the previous frame was drawn by the running loop, so the interval is meaningful
+     */
+    public void beginFrame(boolean continuous) {
+        frameStart = System.nanoTime();
+        event = null;
+        if (FlightRecording.isEnabled(FrameEvent.class)) {
+            event = new FrameEvent();
+            event.begin();
+        }
+        dropped = false;
+        if (continuous && previousStart != 0) {
+            float interval = (frameStart - previousStart) / 1e6f;
+            frameMillis[nextFrame] = interval;
+            nextFrame = (nextFrame + 1) % HISTORY;
+            frameCount = Math.min(frameCount + 1, HISTORY);
+            if (interval > targetMillis * 1.5f) {
+                droppedFrames++;
+                dropped = true;
+            }
+        }
+        previousStart = frameStart;
+    }
+
+    // Call at the end of draw()
+    public void endFrame() {
+        long nanos = System.nanoTime() - frameStart;
+        if (Metrics.isEnabled()) {
+            Metrics.FRAME_TIME.record(nanos);
+        }
+        if (event != null && event.shouldCommit()) {
+            event.dropped = dropped;
+            event.commit();
+        }
+        drawMillis[nextDraw] = nanos / 1e6f;
+        nextDraw = (nextDraw + 1) % HISTORY;
+        drawCount = Math.min(drawCount + 1, HISTORY);
+    }
+
+    // Returns the given percentile (0-100) of the first count values, or 0 if there are none
+    private float percentile(float[] values, int count, int percent) {
+        if (count == 0) {
+            return 0;
+        }
+        System.arraycopy(values, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        return sorted[Math.min(count - 1, count * percent / 100)];
+    }
+
+    // Returns the figures as one line of text
+    public String summary() {
+        return String.format("draw p50 %.2f ms p99 %.2f ms | frame p50 %.1f ms p99 %.1f ms | dropped %d",
+                percentile(drawMillis, drawCount, 50), percentile(drawMillis, drawCount, 99),
+                percentile(frameMillis, frameCount, 50), percentile(frameMillis, frameCount, 99), droppedFrames);
+    }
+
+    // Shows the figures in a strip along the top of the window
+    public void draw(App app) {
+        app.noStroke();
+        app.fill(0, 160);
+        app.rect(0, 0, App.WIDTH, 16);
+        app.fill(255);
+        app.textSize(10.0f);
+        app.text(summary(), 4, 12);
+    }
+}
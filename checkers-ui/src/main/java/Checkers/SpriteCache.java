@@ -0,0 +1,117 @@
+// General Description
+// Package: Checkers
+// Purpose: Offscreen images of everything that looks the same from frame to frame, so a frame is drawn by
+// --> blitting a few images instead of repeating stroke/fill/ellipse calls for every cell and piece.
+// Sprites:
+// The board background (all light and dark squares), one sprite per piece type (white/black man/king),
+// --> and cell tiles for the selected piece's cell and for highlighted destinations.
+// The sprites are built on first use and rebuilt only when CELLSIZE, the board's width or the colours in
+// --> App.coloursRGB, App.BLACK_RGB or App.WHITE_RGB change, which validate() checks once per frame.
+// Methods:
+// validate(App app, BoardGeometry geometry) to rebuild the sprites if needed; board(), piece(), selectedTile() and
+// --> highlightTile() to get them.
+
+package Checkers;
+
+import java.util.Arrays;
+
+import processing.core.PGraphics;
+
+public class SpriteCache {
+
+    private PGraphics board; // The whole empty board
+    private final PGraphics[] pieces = new PGraphics[4]; // White man, white king, black man, black king
+    private PGraphics selectedTile; // Background of the cell holding the selected piece
+    private PGraphics highlightTile; // Background of a cell the selected piece can move to
+
+    private int builtFor; // Fingerprint of the size and colours the sprites were built with
+    private boolean built = false;
+
+    // Rebuild the sprites if they have not been built yet, or the cell size, board size or colour scheme has changed
+    public void validate(App app, BoardGeometry geometry) {
+        int fingerprint = fingerprint(geometry.getWidth());
+        if (built && fingerprint == builtFor) {
+            return;
+        }
+        build(app, geometry.getWidth());
+        builtFor = fingerprint;
+        built = true;
+    }
+
+    // Returns a value that changes whenever anything the sprites depend on changes
+    private static int fingerprint(int boardWidth) {
+        int h = App.CELLSIZE;
+        h = h * 31 + boardWidth;
+        h = h * 31 + Arrays.deepHashCode(App.coloursRGB);
+        h = h * 31 + Arrays.hashCode(App.BLACK_RGB);
+        return h * 31 + Arrays.hashCode(App.WHITE_RGB);
+    }
+
+    // Render every sprite into its own offscreen buffer
+    private void build(App app, int boardWidth) {
+        int size = App.CELLSIZE;
+
+        board = app.createGraphics(boardWidth * size, boardWidth * size);
+        board.beginDraw();
+        board.noStroke();
+        board.background(App.WHITE_RGB[0], App.WHITE_RGB[1], App.WHITE_RGB[2]);
+        board.fill(App.BLACK_RGB[0], App.BLACK_RGB[1], App.BLACK_RGB[2]);
+        for (int y = 0; y < boardWidth; y++) {
+            for (int x = 0; x < boardWidth; x++) {
+                if ((x + y) % 2 == 1) {
+                    board.rect(x * size, y * size, size, size);
+                }
+            }
+        }
+        board.endDraw();
+
+        // The selected piece always stands on a dark cell, so it takes the dark shade of the green scheme
+        selectedTile = tile(app, App.coloursRGB[1][1]);
+        highlightTile = tile(app, App.coloursRGB[2][1]);
+
+        for (int i = 0; i < pieces.length; i++) {
+            char colour = i < 2 ? 'w' : 'b';
+            boolean king = i % 2 == 1;
+            PGraphics g = app.createGraphics(size, size);
+            g.beginDraw();
+            g.clear();
+            if (king) {
+                CheckersPiece.renderKing(g, colour, size / 2f, size / 2f);
+            } else {
+                CheckersPiece.render(g, colour, size / 2f, size / 2f);
+            }
+            g.endDraw();
+            pieces[i] = g;
+        }
+    }
+
+    // Render a single cell filled with one colour
+    private static PGraphics tile(App app, float[] rgb) {
+        PGraphics g = app.createGraphics(App.CELLSIZE, App.CELLSIZE);
+        g.beginDraw();
+        g.noStroke();
+        g.background(rgb[0], rgb[1], rgb[2]);
+        g.endDraw();
+        return g;
+    }
+
+    // Returns the empty board
+    public PGraphics board() {
+        return board;
+    }
+
+    // Returns the sprite of a piece, one cell in size
+    public PGraphics piece(char colour, boolean king) {
+        return pieces[(colour == 'w' ? 0 : 2) + (king ? 1 : 0)];
+    }
+
+    // Returns the background of the selected piece's cell
+    public PGraphics selectedTile() {
+        return selectedTile;
+    }
+
+    // Returns the background of a highlighted destination cell
+    public PGraphics highlightTile() {
+        return highlightTile;
+    }
+}